@@ -0,0 +1,243 @@
+package com.cropplus.bench;
+
+import com.cropplus.config.CropPlusSettings;
+import org.bukkit.Bukkit;
+import org.bukkit.Material;
+import org.bukkit.Server;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.block.data.Ageable;
+import org.bukkit.block.data.BlockData;
+import org.bukkit.configuration.file.YamlConfiguration;
+
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.logging.Logger;
+
+/**
+ * Just enough of Bukkit to run the harvest code outside a server.
+ * <p>
+ * The fakes are dynamic proxies that answer the handful of methods the
+ * benchmarked code calls and throw for anything else, so a benchmark that
+ * strays onto an unfaked path fails loudly instead of measuring nothing.
+ */
+public final class BukkitFakes {
+
+    private static final Logger LOGGER = Logger.getLogger("CropPlusBench");
+    private static final Map<Material, Integer> MAX_AGES = new EnumMap<>(Material.class);
+
+    static {
+        MAX_AGES.put(Material.BEETROOTS, 3);
+        MAX_AGES.put(Material.NETHER_WART, 3);
+        MAX_AGES.put(Material.SWEET_BERRY_BUSH, 3);
+        MAX_AGES.put(Material.COCOA, 2);
+    }
+
+    private static boolean installed;
+
+    private BukkitFakes() {
+    }
+
+    /**
+     * Install a fake server so Material#createBlockData and ItemStack work.
+     */
+    public static synchronized void installServer() {
+        if (installed) {
+            return;
+        }
+        Server server = fake(Server.class, (method, args) -> {
+            switch (method) {
+                case "getLogger":
+                    return LOGGER;
+                case "getName":
+                case "getVersion":
+                case "getBukkitVersion":
+                    return "bench";
+                case "createBlockData":
+                    if (args.length == 1 && args[0] instanceof Material) {
+                        return ageable((Material) args[0], 0);
+                    }
+                    break;
+                default:
+                    break;
+            }
+            throw unsupported(Server.class, method);
+        });
+        Bukkit.setServer(server);
+        installed = true;
+    }
+
+    /**
+     * The settings snapshot for the bundled default config.yml.
+     */
+    public static CropPlusSettings loadDefaultSettings() {
+        try (InputStream in = BukkitFakes.class.getResourceAsStream("/config.yml")) {
+            if (in == null) {
+                throw new IllegalStateException("config.yml is not on the benchmark classpath");
+            }
+            return CropPlusSettings.load(YamlConfiguration.loadConfiguration(
+                new InputStreamReader(in, StandardCharsets.UTF_8)));
+        } catch (java.io.IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public static Logger getLogger() {
+        return LOGGER;
+    }
+
+    public static int getMaxAge(Material crop) {
+        return MAX_AGES.getOrDefault(crop, 7);
+    }
+
+    public static Ageable ageable(Material type, int age) {
+        int maxAge = getMaxAge(type);
+        return fake(Ageable.class, (method, args) -> {
+            switch (method) {
+                case "getMaterial":
+                    return type;
+                case "getAge":
+                    return age;
+                case "getMaximumAge":
+                    return maxAge;
+                case "clone":
+                    return ageable(type, age);
+                default:
+                    throw unsupported(Ageable.class, method);
+            }
+        });
+    }
+
+    /**
+     * A flat world, every chunk loaded, backed by a {@link Grid}.
+     */
+    public static World world(Grid grid) {
+        UUID uid = UUID.randomUUID();
+        World[] self = new World[1];
+        self[0] = fake(World.class, (method, args) -> {
+            switch (method) {
+                case "getName":
+                    return "bench";
+                case "getUID":
+                    return uid;
+                case "getMinHeight":
+                    return -64;
+                case "getMaxHeight":
+                    return 320;
+                case "isChunkLoaded":
+                    return true;
+                case "getType":
+                    return grid.getType((Integer) args[0], (Integer) args[1], (Integer) args[2]);
+                case "getBlockData":
+                    return grid.getBlockData((Integer) args[0], (Integer) args[1], (Integer) args[2]);
+                case "getBlockAt":
+                    return block(self[0], (Integer) args[0], (Integer) args[1], (Integer) args[2]);
+                default:
+                    throw unsupported(World.class, method);
+            }
+        });
+        return self[0];
+    }
+
+    public static Block block(World world, int x, int y, int z) {
+        return fake(Block.class, (method, args) -> {
+            switch (method) {
+                case "getWorld":
+                    return world;
+                case "getX":
+                    return x;
+                case "getY":
+                    return y;
+                case "getZ":
+                    return z;
+                case "getType":
+                    return world.getType(x, y, z);
+                case "getBlockData":
+                    return world.getBlockData(x, y, z);
+                default:
+                    throw unsupported(Block.class, method);
+            }
+        });
+    }
+
+    /**
+     * A square farm of one crop at a single height, with farmland below and air above.
+     * A quarter of the crops are not fully grown.
+     */
+    public static final class Grid {
+
+        private final Material crop;
+        private final int size;
+        private final int cropY;
+        private final BlockData[] ages;
+        private final BlockData farmland;
+        private final BlockData air;
+
+        public Grid(Material crop, int size, int cropY) {
+            this.crop = crop;
+            this.size = size;
+            this.cropY = cropY;
+            int maxAge = getMaxAge(crop);
+            this.ages = new BlockData[maxAge + 1];
+            for (int age = 0; age <= maxAge; age++) {
+                ages[age] = ageable(crop, age);
+            }
+            this.farmland = ageable(Material.FARMLAND, 0);
+            this.air = ageable(Material.AIR, 0);
+        }
+
+        private boolean inside(int x, int z) {
+            return x >= 0 && z >= 0 && x < size && z < size;
+        }
+
+        Material getType(int x, int y, int z) {
+            if (!inside(x, z) || y > cropY) {
+                return Material.AIR;
+            }
+            return y == cropY ? crop : Material.FARMLAND;
+        }
+
+        BlockData getBlockData(int x, int y, int z) {
+            if (!inside(x, z) || y > cropY) {
+                return air;
+            }
+            if (y < cropY) {
+                return farmland;
+            }
+            // Every fourth crop is one stage short of grown
+            int maxAge = ages.length - 1;
+            return ages[(x + z) % 4 == 0 ? Math.max(0, maxAge - 1) : maxAge];
+        }
+    }
+
+    private interface Handler {
+        Object invoke(String method, Object[] args);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T fake(Class<T> type, Handler handler) {
+        return (T) Proxy.newProxyInstance(BukkitFakes.class.getClassLoader(), new Class<?>[] {type},
+            (proxy, method, args) -> {
+                Object[] arguments = args != null ? args : new Object[0];
+                switch (method.getName()) {
+                    case "hashCode":
+                        return System.identityHashCode(proxy);
+                    case "equals":
+                        return proxy == arguments[0];
+                    case "toString":
+                        return "Fake" + type.getSimpleName();
+                    default:
+                        return handler.invoke(method.getName(), arguments);
+                }
+            });
+    }
+
+    private static UnsupportedOperationException unsupported(Class<?> type, String method) {
+        return new UnsupportedOperationException(type.getSimpleName() + "." + method + " is not faked");
+    }
+}
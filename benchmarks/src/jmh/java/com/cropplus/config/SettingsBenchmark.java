@@ -0,0 +1,58 @@
+package com.cropplus.config;
+
+import com.cropplus.bench.BukkitFakes;
+import org.bukkit.Material;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.lang.reflect.Field;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The config lookups a single harvest makes, through ConfigManager as the plugin does.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class SettingsBenchmark {
+
+    private ConfigManager configManager;
+
+    @Setup
+    public void setup() throws ReflectiveOperationException {
+        // ConfigManager normally loads through the plugin; hand it the default snapshot instead
+        configManager = new ConfigManager(null);
+        Field settings = ConfigManager.class.getDeclaredField("settings");
+        settings.setAccessible(true);
+        settings.set(configManager, BukkitFakes.loadDefaultSettings());
+    }
+
+    @Benchmark
+    public void globalFlags(Blackhole blackhole) {
+        blackhole.consume(configManager.isEnabled());
+        blackhole.consume(configManager.isHarvestingEnabled());
+        blackhole.consume(configManager.isMassHarvestingEnabled());
+        blackhole.consume(configManager.isRequireSeeds());
+        blackhole.consume(configManager.isCooldownsEnabled());
+        blackhole.consume(configManager.getPerCropCooldown());
+    }
+
+    @Benchmark
+    public void worldRules(Blackhole blackhole) {
+        blackhole.consume(configManager.isToolRestrictionsEnabled("world"));
+        blackhole.consume(configManager.isAutoCollectEnabled("world"));
+        blackhole.consume(configManager.getDropLocation("world"));
+        blackhole.consume(configManager.isWorldAllowed("world_nether"));
+    }
+
+    @Benchmark
+    public double toolMultiplier() {
+        return configManager.getSettings().getEconomyToolMultiplier(Material.DIAMOND_HOE);
+    }
+}
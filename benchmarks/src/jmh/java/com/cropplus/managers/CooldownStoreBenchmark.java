@@ -0,0 +1,89 @@
+package com.cropplus.managers;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-crop cooldown checks against a store already holding {@code entries} blocks.
+ * No benchmark adds entries, so the store size stays fixed.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class CooldownStoreBenchmark {
+
+    private static final int LOOKUPS = 4096;
+    private static final int CROP_Y = 64;
+
+    @Param({"1000", "100000", "1000000"})
+    public int entries;
+
+    private StripedCooldownStore store;
+    private UUID worldId;
+    private int[] xs;
+    private int[] zs;
+
+    /**
+     * Each thread walks the lookups on its own.
+     */
+    @State(Scope.Thread)
+    public static class Cursor {
+        private int next;
+
+        int next() {
+            return next++ & (LOOKUPS - 1);
+        }
+    }
+
+    @Setup
+    public void setup() {
+        // Headroom so no stripe hits its share of the cap
+        store = new StripedCooldownStore(entries * 2);
+        worldId = UUID.randomUUID();
+
+        // Fill a square field of crops, harvested at time 0
+        int side = (int) Math.ceil(Math.sqrt(entries));
+        for (int i = 0; i < entries; i++) {
+            store.checkAndSet(worldId, i % side, CROP_Y, i / side, 0L, 0L, Long.MAX_VALUE);
+        }
+
+        Random random = new Random(42);
+        xs = new int[LOOKUPS];
+        zs = new int[LOOKUPS];
+        for (int i = 0; i < LOOKUPS; i++) {
+            int index = random.nextInt(entries);
+            xs[i] = index % side;
+            zs[i] = index / side;
+        }
+    }
+
+    @Benchmark
+    public boolean onCooldown(Cursor cursor) {
+        int i = cursor.next();
+        return store.checkAndSet(worldId, xs[i], CROP_Y, zs[i], 1L, Long.MAX_VALUE, Long.MAX_VALUE);
+    }
+
+    @Benchmark
+    public boolean expired(Cursor cursor) {
+        int i = cursor.next();
+        return store.checkAndSet(worldId, xs[i], CROP_Y, zs[i], 1L, 0L, Long.MAX_VALUE);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public boolean expiredContended(Cursor cursor) {
+        int i = cursor.next();
+        return store.checkAndSet(worldId, xs[i], CROP_Y, zs[i], 1L, 0L, Long.MAX_VALUE);
+    }
+}
@@ -0,0 +1,47 @@
+package com.cropplus.managers;
+
+import com.cropplus.bench.BukkitFakes;
+import org.bukkit.Material;
+import org.bukkit.inventory.ItemStack;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Scaling one wheat harvest's drops, including the per-player rounding carry.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class DropMultiplierBenchmark {
+
+    @Param({"1.0", "1.5", "2.75"})
+    public double multiplier;
+
+    private List<ItemStack> drops;
+    private DropRounding rounding;
+
+    @Setup
+    public void setup() {
+        BukkitFakes.installServer();
+        drops = Arrays.asList(new ItemStack(Material.WHEAT, 1), new ItemStack(Material.WHEAT_SEEDS, 2));
+        rounding = new DropRounding();
+    }
+
+    @Benchmark
+    public List<ItemStack> apply() {
+        drops.get(0).setAmount(1);
+        drops.get(1).setAmount(2);
+        CropManager.applyDropMultiplier(drops, multiplier, rounding);
+        return drops;
+    }
+}
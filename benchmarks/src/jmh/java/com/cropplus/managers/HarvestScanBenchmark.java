@@ -0,0 +1,54 @@
+package com.cropplus.managers;
+
+import com.cropplus.bench.BukkitFakes;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The mass-harvest area scan over an in-memory wheat farm, centred in the farm.
+ * <p>
+ * Block reads go through proxy fakes, so absolute times are higher than on a
+ * server; compare results between builds rather than against the tick budget.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class HarvestScanBenchmark {
+
+    private static final int FARM_SIZE = 128;
+    private static final int CROP_Y = 64;
+
+    @Param({"3", "8", "16"})
+    public int range;
+
+    private CropRegistry registry;
+    private Block center;
+
+    @Setup
+    public void setup() {
+        BukkitFakes.installServer();
+        registry = CropRegistry.load(BukkitFakes.loadDefaultSettings(), BukkitFakes.getLogger());
+        World world = BukkitFakes.world(new BukkitFakes.Grid(Material.WHEAT, FARM_SIZE, CROP_Y));
+        center = BukkitFakes.block(world, FARM_SIZE / 2, CROP_Y, FARM_SIZE / 2);
+    }
+
+    @Benchmark
+    public List<Block> scan() {
+        List<Block> crops = new ArrayList<>();
+        CropManager.findMatureCrops(center, range, Integer.MAX_VALUE, registry, crops);
+        return crops;
+    }
+}
@@ -0,0 +1,89 @@
+package com.cropplus.managers;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The global and mass harvest cooldown checks, through the same check-and-set
+ * CooldownManager runs on its per-player maps, with {@code players} already tracked.
+ * Each thread's clock moves a full cooldown per expired check, so those keep finding
+ * the cooldown over; under contention a thread can fall behind and see it still running.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class PlayerCooldownBenchmark {
+
+    private static final int LOOKUPS = 4096;
+    private static final long COOLDOWN = 5000L;
+
+    @Param({"100", "1000", "10000"})
+    public int players;
+
+    private ConcurrentMap<UUID, Long> cooldowns;
+    private UUID[] lookups;
+
+    /**
+     * Each thread walks the lookups on its own.
+     */
+    @State(Scope.Thread)
+    public static class Cursor {
+        private int next;
+        private long clock = COOLDOWN;
+
+        int next() {
+            return next++ & (LOOKUPS - 1);
+        }
+
+        long tick() {
+            return clock += COOLDOWN;
+        }
+    }
+
+    @Setup
+    public void setup() {
+        cooldowns = new ConcurrentHashMap<>();
+        UUID[] ids = new UUID[players];
+        for (int i = 0; i < players; i++) {
+            ids[i] = UUID.randomUUID();
+            cooldowns.put(ids[i], 0L);
+        }
+
+        Random random = new Random(42);
+        lookups = new UUID[LOOKUPS];
+        for (int i = 0; i < LOOKUPS; i++) {
+            // Fresh UUID objects, as each event hands CooldownManager a new one
+            UUID id = ids[random.nextInt(players)];
+            lookups[i] = new UUID(id.getMostSignificantBits(), id.getLeastSignificantBits());
+        }
+    }
+
+    @Benchmark
+    public boolean onCooldown(Cursor cursor) {
+        return CooldownManager.checkAndSet(cooldowns, lookups[cursor.next()], 1L, COOLDOWN);
+    }
+
+    @Benchmark
+    public boolean expired(Cursor cursor) {
+        return CooldownManager.checkAndSet(cooldowns, lookups[cursor.next()], cursor.tick(), COOLDOWN);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public boolean expiredContended(Cursor cursor) {
+        return CooldownManager.checkAndSet(cooldowns, lookups[cursor.next()], cursor.tick(), COOLDOWN);
+    }
+}
@@ -0,0 +1,49 @@
+package com.cropplus.utils;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Message formatting as MessageUtil does it, with the naive replace chain it
+ * used before templates for comparison.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class MessageTemplateBenchmark {
+
+    private static final String PREFIX = "§8[§aCrop+§8] ";
+    private static final String PLAIN = "§cYou don't have permission to use this!";
+    private static final String HARVEST = "§aHarvested §e{amount} {crop}§a and earned §e{reward}§a!";
+
+    private MessageTemplate plain;
+    private MessageTemplate harvest;
+
+    @Setup
+    public void setup() {
+        plain = MessageTemplate.compile(PLAIN);
+        harvest = MessageTemplate.compile(HARVEST);
+    }
+
+    @Benchmark
+    public String renderPlain() {
+        return plain.render(PREFIX);
+    }
+
+    @Benchmark
+    public String renderPlaceholders() {
+        return harvest.render(PREFIX, "{amount}", "37", "{crop}", "Wheat", "{reward}", "$3.70");
+    }
+
+    @Benchmark
+    public String replaceChain() {
+        return PREFIX + HARVEST.replace("{amount}", "37").replace("{crop}", "Wheat").replace("{reward}", "$3.70");
+    }
+}
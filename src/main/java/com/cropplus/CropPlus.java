@@ -2,11 +2,20 @@ package com.cropplus;
 
 import com.cropplus.commands.CropPlusCommand;
 import com.cropplus.config.ConfigManager;
+import com.cropplus.listeners.ChunkListener;
+import com.cropplus.listeners.CropGrowthListener;
 import com.cropplus.listeners.CropHarvestListener;
+import com.cropplus.listeners.CropIndexListener;
+import com.cropplus.managers.AnalyticsManager;
+import com.cropplus.managers.AutoHarvestManager;
 import com.cropplus.managers.CooldownManager;
 import com.cropplus.managers.CropManager;
 import com.cropplus.managers.EconomyManager;
+import com.cropplus.managers.EffectsManager;
+import com.cropplus.managers.HarvestExecutor;
+import com.cropplus.managers.MetricsManager;
 import com.cropplus.managers.ToolManager;
+import com.cropplus.scheduler.TaskScheduler;
 import com.cropplus.utils.MessageUtil;
 import com.cropplus.utils.UpdateChecker;
 import org.bukkit.plugin.java.JavaPlugin;
@@ -18,23 +27,41 @@ public final class CropPlus extends JavaPlugin {
     private CooldownManager cooldownManager;
     private EconomyManager economyManager;
     private ToolManager toolManager;
+    private HarvestExecutor harvestExecutor;
+    private EffectsManager effectsManager;
+    private MetricsManager metricsManager;
+    private AutoHarvestManager autoHarvestManager;
+    private AnalyticsManager analyticsManager;
+    private TaskScheduler taskScheduler;
     private MessageUtil messageUtil;
     private UpdateChecker updateChecker;
     
     @Override
     public void onEnable() {
         // Initialize managers
+        this.taskScheduler = TaskScheduler.create(this);
         this.configManager = new ConfigManager(this);
         this.configManager.loadConfig();
+        this.metricsManager = new MetricsManager(this);
+        this.analyticsManager = new AnalyticsManager(this);
         
         this.messageUtil = new MessageUtil(this);
         this.cropManager = new CropManager(this);
         this.cooldownManager = new CooldownManager(this);
+        this.cooldownManager.startSweepTask();
+        this.cooldownManager.startJournal();
         this.economyManager = new EconomyManager(this);
+        this.economyManager.startFlushTask();
         this.toolManager = new ToolManager(this);
+        this.harvestExecutor = new HarvestExecutor(this);
+        this.autoHarvestManager = new AutoHarvestManager(this);
+        this.effectsManager = new EffectsManager(this);
         
         // Register listeners
         getServer().getPluginManager().registerEvents(new CropHarvestListener(this), this);
+        getServer().getPluginManager().registerEvents(new ChunkListener(this), this);
+        getServer().getPluginManager().registerEvents(new CropGrowthListener(this), this);
+        getServer().getPluginManager().registerEvents(new CropIndexListener(this), this);
         
         // Register commands
         getCommand("cropplus").setExecutor(new CropPlusCommand(this));
@@ -49,15 +76,49 @@ public final class CropPlus extends JavaPlugin {
         getLogger().info("Tool restrictions: " + (configManager.isToolRestrictionsEnabled() ? "Enabled" : "Disabled"));
         getLogger().info("Auto-collect: " + (configManager.isAutoCollectEnabled() ? "Enabled" : "Disabled"));
         getLogger().info("Economy integration: " + (economyManager.isEconomyEnabled() ? "Enabled" : "Disabled"));
+        if (taskScheduler.isRegionThreaded()) {
+            getLogger().info("Folia detected: harvests run on their region's thread");
+        }
     }
     
     @Override
     public void onDisable() {
+        // Settle any mass harvests that are still running
+        if (harvestExecutor != null) {
+            harvestExecutor.shutdown();
+        }
+        
+        if (autoHarvestManager != null) {
+            autoHarvestManager.stopTask();
+        }
+        
+        // Pay out rewards that have not been flushed yet
+        if (economyManager != null) {
+            economyManager.stopFlushTask();
+            economyManager.flushAll();
+            economyManager.shutdown();
+        }
+        
+        if (messageUtil != null) {
+            messageUtil.getAggregator().shutdown();
+        }
+        
+        // Write the last analytics records, including the payouts above
+        if (analyticsManager != null) {
+            analyticsManager.shutdown();
+        }
+        
         // Clean up cooldowns
         if (cooldownManager != null) {
+            cooldownManager.stopSweepTask();
+            cooldownManager.stopJournal();
             cooldownManager.cleanup();
         }
         
+        if (metricsManager != null) {
+            metricsManager.stopDumpTask();
+        }
+        
         getLogger().info("CropPlus has been disabled!");
     }
     
@@ -82,6 +143,33 @@ public final class CropPlus extends JavaPlugin {
         return toolManager;
     }
     
+    public HarvestExecutor getHarvestExecutor() {
+        return harvestExecutor;
+    }
+    
+    public EffectsManager getEffectsManager() {
+        return effectsManager;
+    }
+    
+    public MetricsManager getMetricsManager() {
+        return metricsManager;
+    }
+    
+    public AutoHarvestManager getAutoHarvestManager() {
+        return autoHarvestManager;
+    }
+    
+    public AnalyticsManager getAnalyticsManager() {
+        return analyticsManager;
+    }
+    
+    /**
+     * The scheduler to run tasks through, so they land on the right thread on Folia.
+     */
+    public TaskScheduler getTaskScheduler() {
+        return taskScheduler;
+    }
+    
     public MessageUtil getMessageUtil() {
         return messageUtil;
     }
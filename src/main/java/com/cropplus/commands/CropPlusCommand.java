@@ -1,6 +1,11 @@
 package com.cropplus.commands;
 
 import com.cropplus.CropPlus;
+import com.cropplus.managers.AutoHarvestZone;
+import com.cropplus.managers.MetricsManager;
+import com.cropplus.utils.LatencyHistogram;
+import org.bukkit.block.Block;
+import org.bukkit.block.Container;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandExecutor;
 import org.bukkit.command.CommandSender;
@@ -37,6 +42,21 @@ public class CropPlusCommand implements CommandExecutor, TabCompleter {
             case "toggle":
                 handleToggle(sender, args);
                 break;
+            case "effects":
+                handleEffects(sender);
+                break;
+            case "stats":
+                handleStats(sender, args);
+                break;
+            case "zone":
+                handleZone(sender, args);
+                break;
+            case "top":
+                handleTop(sender, args);
+                break;
+            case "history":
+                handleHistory(sender, args);
+                break;
             case "help":
             default:
                 showHelp(sender);
@@ -54,11 +74,15 @@ public class CropPlusCommand implements CommandExecutor, TabCompleter {
         
         try {
             plugin.getConfigManager().reloadConfig();
+            plugin.getCooldownManager().reload();
+            plugin.getMetricsManager().reload();
+            plugin.getAutoHarvestManager().reload();
             
             // Re-setup economy if needed
             if (plugin.getServer().getPluginManager().getPlugin("Vault") != null) {
                 plugin.getEconomyManager().setupEconomy();
             }
+            plugin.getEconomyManager().startFlushTask();
             
             plugin.getMessageUtil().sendMessage(sender, "config-reloaded");
         } catch (Exception e) {
@@ -82,6 +106,171 @@ public class CropPlusCommand implements CommandExecutor, TabCompleter {
         }
     }
     
+    private void handleStats(CommandSender sender, String[] args) {
+        if (!sender.hasPermission("cropplus.admin")) {
+            plugin.getMessageUtil().sendMessage(sender, "no-permission");
+            return;
+        }
+        
+        MetricsManager metrics = plugin.getMetricsManager();
+        if (args.length >= 2 && args[1].equalsIgnoreCase("reset")) {
+            metrics.reset();
+            sender.sendMessage("§aMetrics have been reset.");
+            return;
+        }
+        
+        if (!metrics.isEnabled()) {
+            sender.sendMessage("§eMetrics are disabled; set metrics.enabled in config.yml.");
+        }
+        
+        double seconds = Math.max(1.0, metrics.getElapsedNanos() / 1_000_000_000.0);
+        sender.sendMessage("§a§l=== CropPlus Stats ===");
+        sender.sendMessage("§7Over the last §e" + (long) seconds + "s§7 (times in µs):");
+        for (MetricsManager.Stage stage : MetricsManager.Stage.values()) {
+            LatencyHistogram.Snapshot snapshot = metrics.getSnapshot(stage);
+            sender.sendMessage("§7- " + stage.getName() + ": §e" + snapshot.getCount() + "§7 calls, p50 §e" + 
+                               snapshot.getPercentile(0.5) / 1000 + "§7, p99 §e" + 
+                               snapshot.getPercentile(0.99) / 1000 + "§7, max §e" + snapshot.getMax() / 1000);
+        }
+        sender.sendMessage("§7- Crops harvested: §e" + metrics.getCropsHarvested() + 
+                           String.format(" §7(§e%.1f§7/s)", metrics.getCropsHarvested() / seconds));
+        sender.sendMessage("§7- Blocks scanned: §e" + metrics.getBlocksScanned());
+    }
+    
+    private void handleTop(CommandSender sender, String[] args) {
+        if (!sender.hasPermission("cropplus.use")) {
+            plugin.getMessageUtil().sendMessage(sender, "no-permission");
+            return;
+        }
+        
+        boolean byEarned = args.length >= 2 && args[1].equalsIgnoreCase("earned");
+        plugin.getAnalyticsManager().showTop(sender, byEarned);
+    }
+    
+    private void handleHistory(CommandSender sender, String[] args) {
+        if (args.length < 2) {
+            if (!(sender instanceof Player)) {
+                sender.sendMessage("§cUsage: /cropplus history <player>");
+                return;
+            }
+            if (!sender.hasPermission("cropplus.use")) {
+                plugin.getMessageUtil().sendMessage(sender, "no-permission");
+                return;
+            }
+            Player player = (Player) sender;
+            plugin.getAnalyticsManager().showHistory(sender, player.getUniqueId(), player.getName());
+            return;
+        }
+        
+        // Other players' history is for admins
+        if (!sender.hasPermission("cropplus.admin") && !sender.getName().equalsIgnoreCase(args[1])) {
+            plugin.getMessageUtil().sendMessage(sender, "no-permission");
+            return;
+        }
+        
+        Player online = plugin.getServer().getPlayerExact(args[1]);
+        if (online != null) {
+            plugin.getAnalyticsManager().showHistory(sender, online.getUniqueId(), online.getName());
+        } else {
+            plugin.getAnalyticsManager().showHistory(sender, null, args[1]);
+        }
+    }
+    
+    private void handleZone(CommandSender sender, String[] args) {
+        if (!sender.hasPermission("cropplus.admin")) {
+            plugin.getMessageUtil().sendMessage(sender, "no-permission");
+            return;
+        }
+        
+        String action = args.length >= 2 ? args[1].toLowerCase() : "list";
+        switch (action) {
+            case "create":
+                createZone(sender, args);
+                break;
+            case "remove":
+                if (args.length < 3) {
+                    sender.sendMessage("§cUsage: /cropplus zone remove <name>");
+                } else if (plugin.getAutoHarvestManager().removeZone(args[2])) {
+                    sender.sendMessage("§aAuto-harvest zone §e" + args[2] + "§a removed.");
+                } else {
+                    sender.sendMessage("§cNo auto-harvest zone named " + args[2]);
+                }
+                break;
+            case "list":
+            default:
+                List<AutoHarvestZone> zones = plugin.getAutoHarvestManager().getZones();
+                if (!plugin.getConfigManager().isAutoHarvestEnabled()) {
+                    sender.sendMessage("§eAuto-harvest is disabled; set auto-harvest.enabled in config.yml.");
+                }
+                sender.sendMessage("§a§l=== Auto-harvest Zones (" + zones.size() + ") ===");
+                for (AutoHarvestZone zone : zones) {
+                    sender.sendMessage("§7- §e" + zone.getName() + "§7: " + zone.getWorldName() + " " + 
+                                       zone.getContainerX() + ", " + zone.getContainerY() + ", " + 
+                                       zone.getContainerZ() + ", radius §e" + zone.getRadius() + 
+                                       "§7, §e" + zone.getReadyCount() + "§7 crops ready");
+                }
+                break;
+        }
+    }
+    
+    private void createZone(CommandSender sender, String[] args) {
+        if (!(sender instanceof Player)) {
+            sender.sendMessage("§cThis command can only be used by players!");
+            return;
+        }
+        
+        Player player = (Player) sender;
+        if (args.length < 3) {
+            player.sendMessage("§cUsage: /cropplus zone create <name> [radius]");
+            player.sendMessage("§cLook at the chest, barrel or hopper the drops should go into.");
+            return;
+        }
+        
+        int maxRadius = plugin.getConfigManager().getAutoHarvestMaxRadius();
+        int radius = maxRadius;
+        if (args.length >= 4) {
+            try {
+                radius = Integer.parseInt(args[3]);
+            } catch (NumberFormatException e) {
+                player.sendMessage("§cInvalid radius: " + args[3]);
+                return;
+            }
+            if (radius < 1 || radius > maxRadius) {
+                player.sendMessage("§cThe radius must be between 1 and " + maxRadius);
+                return;
+            }
+        }
+        
+        Block target = player.getTargetBlockExact(5);
+        if (target == null || !(target.getState() instanceof Container)) {
+            player.sendMessage("§cLook at the chest, barrel or hopper the drops should go into.");
+            return;
+        }
+        
+        if (plugin.getAutoHarvestManager().createZone(args[2], target, radius) == null) {
+            player.sendMessage("§cAn auto-harvest zone named " + args[2] + " already exists.");
+            return;
+        }
+        player.sendMessage("§aAuto-harvest zone §e" + args[2] + "§a created with radius §e" + radius + 
+                           "§a. Crops in it are harvested as they finish growing.");
+    }
+    
+    private void handleEffects(CommandSender sender) {
+        if (!(sender instanceof Player)) {
+            sender.sendMessage("§cThis command can only be used by players!");
+            return;
+        }
+        
+        if (!sender.hasPermission("cropplus.use")) {
+            plugin.getMessageUtil().sendMessage(sender, "no-permission");
+            return;
+        }
+        
+        Player player = (Player) sender;
+        boolean reduced = plugin.getEffectsManager().toggleReducedEffects(player.getUniqueId());
+        plugin.getMessageUtil().sendMessage(player, reduced ? "effects-reduced" : "effects-normal");
+    }
+    
     private void handleToggle(CommandSender sender, String[] args) {
         if (!(sender instanceof Player)) {
             sender.sendMessage("§cThis command can only be used by players!");
@@ -121,6 +310,9 @@ public class CropPlusCommand implements CommandExecutor, TabCompleter {
     private void showHelp(CommandSender sender) {
         sender.sendMessage("§a§l=== CropPlus Commands ===");
         sender.sendMessage("§a/cropplus info §7- Show plugin information");
+        sender.sendMessage("§a/cropplus effects §7- Show or hide harvest particles");
+        sender.sendMessage("§a/cropplus top [earned] §7- Show the top farmers");
+        sender.sendMessage("§a/cropplus history [player] §7- Show recent harvests");
         
         if (sender.hasPermission("cropplus.reload")) {
             sender.sendMessage("§a/cropplus reload §7- Reload configuration");
@@ -128,6 +320,8 @@ public class CropPlusCommand implements CommandExecutor, TabCompleter {
         
         if (sender.hasPermission("cropplus.admin")) {
             sender.sendMessage("§a/cropplus toggle <feature> §7- Toggle features");
+            sender.sendMessage("§a/cropplus stats [reset] §7- Show harvest timings");
+            sender.sendMessage("§a/cropplus zone <create|remove|list> §7- Manage auto-harvest zones");
         }
         
         sender.sendMessage("§7");
@@ -140,7 +334,7 @@ public class CropPlusCommand implements CommandExecutor, TabCompleter {
         List<String> completions = new ArrayList<>();
         
         if (args.length == 1) {
-            List<String> subCommands = Arrays.asList("info", "help");
+            List<String> subCommands = Arrays.asList("info", "effects", "top", "history", "help");
             
             if (sender.hasPermission("cropplus.reload")) {
                 subCommands = new ArrayList<>(subCommands);
@@ -150,6 +344,8 @@ public class CropPlusCommand implements CommandExecutor, TabCompleter {
             if (sender.hasPermission("cropplus.admin")) {
                 subCommands = new ArrayList<>(subCommands);
                 subCommands.add("toggle");
+                subCommands.add("stats");
+                subCommands.add("zone");
             }
             
             for (String subCommand : subCommands) {
@@ -157,6 +353,33 @@ public class CropPlusCommand implements CommandExecutor, TabCompleter {
                     completions.add(subCommand);
                 }
             }
+        } else if (args.length == 2 && args[0].equalsIgnoreCase("stats") && sender.hasPermission("cropplus.admin")) {
+            if ("reset".startsWith(args[1].toLowerCase())) {
+                completions.add("reset");
+            }
+        } else if (args.length == 2 && args[0].equalsIgnoreCase("top")) {
+            if ("earned".startsWith(args[1].toLowerCase())) {
+                completions.add("earned");
+            }
+        } else if (args.length == 2 && args[0].equalsIgnoreCase("history") && sender.hasPermission("cropplus.admin")) {
+            for (Player player : plugin.getServer().getOnlinePlayers()) {
+                if (player.getName().toLowerCase().startsWith(args[1].toLowerCase())) {
+                    completions.add(player.getName());
+                }
+            }
+        } else if (args.length == 2 && args[0].equalsIgnoreCase("zone") && sender.hasPermission("cropplus.admin")) {
+            for (String action : Arrays.asList("create", "remove", "list")) {
+                if (action.startsWith(args[1].toLowerCase())) {
+                    completions.add(action);
+                }
+            }
+        } else if (args.length == 3 && args[0].equalsIgnoreCase("zone") && args[1].equalsIgnoreCase("remove") && 
+                   sender.hasPermission("cropplus.admin")) {
+            for (AutoHarvestZone zone : plugin.getAutoHarvestManager().getZones()) {
+                if (zone.getName().toLowerCase().startsWith(args[2].toLowerCase())) {
+                    completions.add(zone.getName());
+                }
+            }
         } else if (args.length == 2 && args[0].equalsIgnoreCase("toggle")) {
             List<String> features = Arrays.asList("harvesting", "mass-harvesting", "economy");
             for (String feature : features) {
@@ -1,17 +1,24 @@
 package com.cropplus.config;
 
 import com.cropplus.CropPlus;
+import com.cropplus.config.CropPlusSettings.CropSettings;
+import com.cropplus.config.CropPlusSettings.GroupSettings;
 import org.bukkit.Material;
 import org.bukkit.configuration.file.FileConfiguration;
 import org.bukkit.entity.Player;
 
+import java.util.Collections;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class ConfigManager {
     
     private final CropPlus plugin;
     private FileConfiguration config;
+    private volatile CropPlusSettings settings;
+    private final Map<UUID, CachedGroup> playerGroups = new ConcurrentHashMap<>();
     
     public ConfigManager(CropPlus plugin) {
         this.plugin = plugin;
@@ -21,235 +28,402 @@ public class ConfigManager {
         plugin.saveDefaultConfig();
         plugin.reloadConfig();
         this.config = plugin.getConfig();
+        this.settings = CropPlusSettings.load(config);
     }
     
     public void reloadConfig() {
         plugin.reloadConfig();
         this.config = plugin.getConfig();
+        this.settings = CropPlusSettings.load(config);
+        refreshAllPlayerGroups();
+    }
+    
+    /**
+     * Get the current settings snapshot. The returned object never changes;
+     * a reload replaces it with a new one.
+     */
+    public CropPlusSettings getSettings() {
+        return settings;
     }
     
     // General Settings
     public boolean isEnabled() {
-        return config.getBoolean("settings.enabled", true);
+        return settings.isEnabled();
     }
     
     public boolean isDebug() {
-        return config.getBoolean("settings.debug", false);
+        return settings.isDebug();
     }
     
     public boolean isCheckUpdates() {
-        return config.getBoolean("settings.check-updates", true);
+        return settings.isCheckUpdates();
     }
     
     // Tool Restriction Settings
     public boolean isToolRestrictionsEnabled() {
-        return config.getBoolean("tool-restrictions.enabled", true);
+        return settings.isToolRestrictionsEnabled();
     }
     
     public boolean isToolRestrictionsEnabled(String worldName) {
-        if (!config.getBoolean("tool-restrictions.world-specific.enabled", false)) {
-            return isToolRestrictionsEnabled();
-        }
-        return config.getBoolean("tool-restrictions.world-specific.worlds." + worldName + ".enabled", 
-                                isToolRestrictionsEnabled());
+        return settings.getWorld(worldName).isToolRestrictionsEnabled();
     }
     
     public List<String> getAllowedTools() {
-        return config.getStringList("tool-restrictions.allowed-tools");
+        return settings.getAllowedTools().getNames();
     }
     
     public List<String> getAllowedTools(String worldName) {
-        if (!config.getBoolean("tool-restrictions.world-specific.enabled", false)) {
-            return getAllowedTools();
-        }
-        List<String> worldTools = config.getStringList("tool-restrictions.world-specific.worlds." + worldName + ".allowed-tools");
-        return worldTools.isEmpty() ? getAllowedTools() : worldTools;
+        return settings.getWorld(worldName).getAllowedTools().getNames();
     }
     
     public boolean isAllowBareHands() {
-        return config.getBoolean("tool-restrictions.allow-bare-hands", false);
+        return settings.isAllowBareHands();
     }
     
     public boolean isAllowBareHands(String worldName) {
-        if (!config.getBoolean("tool-restrictions.world-specific.enabled", false)) {
-            return isAllowBareHands();
-        }
-        return config.getBoolean("tool-restrictions.world-specific.worlds." + worldName + ".allow-bare-hands", 
-                                isAllowBareHands());
+        return settings.getWorld(worldName).isAllowBareHands();
     }
     
     // Harvesting Settings
     public boolean isHarvestingEnabled() {
-        return config.getBoolean("harvesting.enabled", true);
+        return settings.isHarvestingEnabled();
     }
     
     public boolean isRequireSeeds() {
-        return config.getBoolean("harvesting.require-seeds", true);
+        return settings.isRequireSeeds();
     }
     
     public boolean isAutoCollectEnabled() {
-        return config.getBoolean("harvesting.auto-collect.enabled", true);
+        return settings.isAutoCollectEnabled();
     }
     
     public boolean isAutoCollectEnabled(String worldName) {
-        if (!config.getBoolean("harvesting.auto-collect.world-specific.enabled", false)) {
-            return isAutoCollectEnabled();
-        }
-        return config.getBoolean("harvesting.auto-collect.world-specific.worlds." + worldName + ".auto-collect", 
-                                isAutoCollectEnabled());
+        return settings.getWorld(worldName).isAutoCollectEnabled();
     }
     
     public String getDropLocation() {
-        return config.getString("harvesting.auto-collect.drop-location", "CROP");
+        return settings.getDropLocation();
     }
     
     public String getDropLocation(String worldName) {
-        if (!config.getBoolean("harvesting.auto-collect.world-specific.enabled", false)) {
-            return getDropLocation();
-        }
-        return config.getString("harvesting.auto-collect.world-specific.worlds." + worldName + ".drop-location", 
-                               getDropLocation());
+        return settings.getWorld(worldName).getDropLocation();
+    }
+    
+    public boolean isConsolidateDrops() {
+        return settings.isConsolidateDrops();
+    }
+    
+    public boolean isMergeNearbyDrops() {
+        return settings.isMergeNearbyDrops();
+    }
+    
+    public double getDropMergeRadius() {
+        return settings.getDropMergeRadius();
     }
     
     public boolean isPlaySounds() {
-        return config.getBoolean("harvesting.play-sounds", true);
+        return settings.isPlaySounds();
     }
     
     public boolean isShowParticles() {
-        return config.getBoolean("harvesting.show-particles", true);
+        return settings.isShowParticles();
+    }
+    
+    public double getEffectsViewDistance() {
+        return settings.getEffectsViewDistance();
+    }
+    
+    public int getMaxParticlesPerHarvest() {
+        return settings.getMaxParticlesPerHarvest();
+    }
+    
+    public int getMaxParticlesPerTick() {
+        return settings.getMaxParticlesPerTick();
     }
     
     // Mass Harvesting Settings
     public boolean isMassHarvestingEnabled() {
-        return config.getBoolean("mass-harvesting.enabled", true);
+        return settings.isMassHarvestingEnabled();
     }
     
     public int getMaxRange() {
-        return config.getInt("mass-harvesting.max-range", 5);
+        return settings.getMaxRange();
     }
     
     public int getDefaultRange() {
-        return config.getInt("mass-harvesting.default-range", 3);
+        return settings.getDefaultRange();
     }
     
     public boolean isRequireSneak() {
-        return config.getBoolean("mass-harvesting.require-sneak", true);
+        return settings.isRequireSneak();
     }
     
     public int getMaxCrops() {
-        return config.getInt("mass-harvesting.max-crops", 50);
+        return settings.getMaxCrops();
     }
     
     public boolean isMassHarvestToolRestrictionsEnabled() {
-        return config.getBoolean("mass-harvesting.tool-restrictions.enabled", false);
+        return settings.isMassHarvestToolRestrictionsEnabled();
     }
     
     public String getMassHarvestMinimumTier() {
-        return config.getString("mass-harvesting.tool-restrictions.minimum-tier", "IRON");
+        return settings.getMassHarvestMinimumTier();
+    }
+    
+    public boolean isMassHarvestSpread() {
+        return settings.isMassHarvestSpread();
+    }
+    
+    public int getMassHarvestCropsPerTick() {
+        return settings.getMassHarvestCropsPerTick();
+    }
+    
+    public long getMassHarvestNanosPerTick() {
+        return settings.getMassHarvestNanosPerTick();
+    }
+    
+    public boolean isMassHarvestWave() {
+        return settings.isMassHarvestWave();
+    }
+    
+    public int getMassHarvestMaxQueuedPerPlayer() {
+        return settings.getMassHarvestMaxQueuedPerPlayer();
+    }
+    
+    public boolean isCropIndexEnabled() {
+        return settings.isCropIndexEnabled();
     }
     
     // Cooldown Settings
     public boolean isCooldownsEnabled() {
-        return config.getBoolean("cooldowns.enabled", true);
+        return settings.isCooldownsEnabled();
     }
     
     public double getGlobalCooldown() {
-        return config.getDouble("cooldowns.global", 0.5);
+        return settings.getGlobalCooldown();
     }
     
     public double getPerCropCooldown() {
-        return config.getDouble("cooldowns.per-crop", 2.0);
+        return settings.getPerCropCooldown();
     }
     
     public double getMassHarvestCooldown() {
-        return config.getDouble("cooldowns.mass-harvest", 5.0);
+        return settings.getMassHarvestCooldown();
+    }
+    
+    public int getMaxTrackedCrops() {
+        return settings.getMaxTrackedCrops();
+    }
+    
+    public int getCooldownSweepInterval() {
+        return settings.getSweepIntervalTicks();
+    }
+    
+    public int getCooldownSweepBudget() {
+        return settings.getSweepBudget();
+    }
+    
+    public boolean isCooldownPersistenceEnabled() {
+        return settings.isCooldownPersistenceEnabled();
+    }
+    
+    public int getCooldownJournalFlushInterval() {
+        return settings.getJournalFlushTicks();
     }
     
     // World Settings
     public boolean isWorldRestrictionsEnabled() {
-        return config.getBoolean("worlds.enabled", false);
+        return settings.isWorldRestrictionsEnabled();
     }
     
     public List<String> getAllowedWorlds() {
-        return config.getStringList("worlds.allowed");
+        return settings.getAllowedWorlds();
     }
     
     public List<String> getDisabledWorlds() {
-        return config.getStringList("worlds.disabled");
+        return settings.getDisabledWorlds();
+    }
+    
+    public boolean isWorldAllowed(String worldName) {
+        return settings.getWorld(worldName).isHarvestAllowed();
     }
     
     // Group Settings
     public boolean isGroupSettingsEnabled() {
-        return config.getBoolean("groups.enabled", false);
+        return settings.isGroupSettingsEnabled();
     }
     
     public boolean isGroupToolRestrictionsEnabled(String groupName) {
-        return config.getBoolean("groups.configurations." + groupName + ".tool-restrictions.enabled", false);
+        GroupSettings group = settings.getGroup(groupName);
+        return group != null && group.isToolRestrictionsEnabled();
     }
     
     public List<String> getGroupAllowedTools(String groupName) {
-        return config.getStringList("groups.configurations." + groupName + ".tool-restrictions.allowed-tools");
+        GroupSettings group = settings.getGroup(groupName);
+        return group != null ? group.getAllowedTools().getNames() : Collections.emptyList();
     }
     
     public boolean isGroupAllowBareHands(String groupName) {
-        return config.getBoolean("groups.configurations." + groupName + ".tool-restrictions.allow-bare-hands", false);
+        GroupSettings group = settings.getGroup(groupName);
+        return group != null && group.isAllowBareHands();
     }
     
     public boolean isGroupAutoCollectEnabled(String groupName) {
-        return config.getBoolean("groups.configurations." + groupName + ".auto-collect.enabled", true);
+        GroupSettings group = settings.getGroup(groupName);
+        return group == null || group.isAutoCollectEnabled();
     }
     
     public String getGroupDropLocation(String groupName) {
-        return config.getString("groups.configurations." + groupName + ".auto-collect.drop-location", "CROP");
+        GroupSettings group = settings.getGroup(groupName);
+        return group != null ? group.getDropLocation() : "CROP";
     }
     
     public double getGroupCooldownMultiplier(String groupName) {
-        return config.getDouble("groups.configurations." + groupName + ".cooldown-multiplier", 1.0);
+        GroupSettings group = settings.getGroup(groupName);
+        return group != null ? group.getCooldownMultiplier() : 1.0;
     }
     
     public int getGroupRangeBonus(String groupName) {
-        return config.getInt("groups.configurations." + groupName + ".range-bonus", 0);
+        GroupSettings group = settings.getGroup(groupName);
+        return group != null ? group.getRangeBonus() : 0;
     }
     
     // Crop Settings
     public boolean isCropEnabled(String cropType) {
-        return config.getBoolean("crops." + cropType.toLowerCase() + ".enabled", true);
+        CropSettings crop = settings.getCrop(cropType);
+        return crop == null || crop.isEnabled();
+    }
+    
+    public boolean isCropEnabled(Material cropType) {
+        CropSettings crop = settings.getCrop(cropType);
+        return crop == null || crop.isEnabled();
     }
     
     public String getSeedItem(String cropType) {
-        return config.getString("crops." + cropType.toLowerCase() + ".seed-item", "");
+        CropSettings crop = settings.getCrop(cropType);
+        return crop != null ? crop.getSeedItem() : "";
     }
     
     public double getDropMultiplier(String cropType) {
-        return config.getDouble("crops." + cropType.toLowerCase() + ".drop-multiplier", 1.0);
+        CropSettings crop = settings.getCrop(cropType);
+        return crop != null ? crop.getDropMultiplier() : 1.0;
+    }
+    
+    public double getDropMultiplier(Material cropType) {
+        CropSettings crop = settings.getCrop(cropType);
+        return crop != null ? crop.getDropMultiplier() : 1.0;
     }
     
     public double getToolMultiplier(String cropType, Material tool) {
-        String toolName = tool.name();
-        return config.getDouble("crops." + cropType.toLowerCase() + ".tool-multipliers." + toolName, 1.0);
+        CropSettings crop = settings.getCrop(cropType);
+        return crop != null ? crop.getToolMultiplier(tool) : 1.0;
+    }
+    
+    public double getToolMultiplier(Material cropType, Material tool) {
+        CropSettings crop = settings.getCrop(cropType);
+        return crop != null ? crop.getToolMultiplier(tool) : 1.0;
     }
     
     // Economy Settings
     public boolean isEconomyEnabled() {
-        return config.getBoolean("economy.enabled", false);
+        return settings.isEconomyEnabled();
     }
     
     public double getRewardPerCrop() {
-        return config.getDouble("economy.reward-per-crop", 0.1);
+        return settings.getRewardPerCrop();
     }
     
     public double getMassHarvestBonus() {
-        return config.getDouble("economy.mass-harvest-bonus", 1.5);
+        return settings.getMassHarvestBonus();
     }
     
     public double getEconomyToolMultiplier(Material tool) {
-        String toolName = tool.name();
-        return config.getDouble("economy.tool-multipliers." + toolName, 1.0);
+        return settings.getEconomyToolMultiplier(tool);
+    }
+    
+    public boolean isEconomyBatchingEnabled() {
+        return settings.isEconomyBatchingEnabled();
+    }
+    
+    public int getEconomyFlushInterval() {
+        return settings.getEconomyFlushInterval();
+    }
+    
+    public boolean isEconomyAsyncEnabled() {
+        return settings.isEconomyAsyncEnabled();
+    }
+    
+    public boolean isEconomyThreadSafeProvider() {
+        return settings.isEconomyThreadSafeProvider();
+    }
+    
+    public int getEconomyAsyncQueueSize() {
+        return settings.getEconomyAsyncQueueSize();
+    }
+    
+    public int getEconomyAsyncMaxRetries() {
+        return settings.getEconomyAsyncMaxRetries();
+    }
+    
+    // Chat Settings
+    public boolean isMessageAggregationEnabled() {
+        return settings.isMessageAggregationEnabled();
+    }
+    
+    public int getMessageAggregateWindow() {
+        return settings.getMessageAggregateWindow();
+    }
+    
+    public boolean isSummaryOnActionBar() {
+        return settings.isSummaryOnActionBar();
+    }
+    
+    // Metrics
+    public boolean isMetricsEnabled() {
+        return settings.isMetricsEnabled();
+    }
+    
+    public int getMetricsCsvInterval() {
+        return settings.getMetricsCsvInterval();
+    }
+    
+    // Auto-harvest zones
+    public boolean isAutoHarvestEnabled() {
+        return settings.isAutoHarvestEnabled();
+    }
+    
+    public int getAutoHarvestInterval() {
+        return settings.getAutoHarvestIntervalTicks();
+    }
+    
+    public int getAutoHarvestCropsPerRun() {
+        return settings.getAutoHarvestCropsPerRun();
+    }
+    
+    public long getAutoHarvestNanosPerRun() {
+        return settings.getAutoHarvestNanosPerRun();
+    }
+    
+    public int getAutoHarvestMaxRadius() {
+        return settings.getAutoHarvestMaxRadius();
+    }
+    
+    // Analytics
+    public boolean isAnalyticsEnabled() {
+        return settings.isAnalyticsEnabled();
+    }
+    
+    public int getAnalyticsBufferSize() {
+        return settings.getAnalyticsBufferSize();
+    }
+    
+    public int getAnalyticsFlushInterval() {
+        return settings.getAnalyticsFlushSeconds();
     }
     
     // Messages - Fixed to handle missing keys properly
     public String getMessage(String key) {
-        String message = config.getString("messages." + key);
+        String message = settings.getMessage(key);
         if (message == null) {
             plugin.getLogger().warning("Missing message key: " + key);
             return "Message key '" + key + "' not found in config!";
@@ -259,22 +433,83 @@ public class ConfigManager {
     
     // Helper method to get raw message without prefix (for special cases)
     public String getRawMessage(String key) {
-        return config.getString("messages." + key, "Message key '" + key + "' not found!");
+        String message = settings.getMessage(key);
+        return message != null ? message : "Message key '" + key + "' not found!";
     }
     
     // Helper methods for player-specific settings
     public String getPlayerGroup(Player player) {
-        if (!isGroupSettingsEnabled()) {
+        if (!settings.isGroupSettingsEnabled()) {
+            return null;
+        }
+        
+        long now = System.currentTimeMillis();
+        CachedGroup cached = playerGroups.get(player.getUniqueId());
+        if (cached != null && cached.settings == settings && now < cached.expiresAt) {
+            return cached.group;
+        }
+        return refreshPlayerGroup(player, now);
+    }
+    
+    /**
+     * Resolve a player's group from their permissions and cache it.
+     */
+    public String refreshPlayerGroup(Player player) {
+        return refreshPlayerGroup(player, System.currentTimeMillis());
+    }
+    
+    private String refreshPlayerGroup(Player player, long now) {
+        CropPlusSettings current = settings;
+        if (!current.isGroupSettingsEnabled()) {
+            playerGroups.remove(player.getUniqueId());
             return null;
         }
         
-        // Check permissions to determine group
-        for (String group : config.getConfigurationSection("groups.configurations").getKeys(false)) {
-            if (player.hasPermission("cropplus.group." + group)) {
-                return group;
+        // Check permissions to determine group, in config order
+        String group = null;
+        for (GroupSettings candidate : current.getGroups()) {
+            if (player.hasPermission(candidate.getPermission())) {
+                group = candidate.getName();
+                break;
             }
         }
-        return null;
+        
+        playerGroups.put(player.getUniqueId(), new CachedGroup(group, current, now + current.getGroupCacheMillis()));
+        return group;
+    }
+    
+    /**
+     * Forget a player's cached group, e.g. after their permissions may have changed.
+     */
+    public void invalidatePlayerGroup(UUID playerId) {
+        playerGroups.remove(playerId);
+    }
+    
+    /**
+     * Re-resolve the group of every online player, e.g. after a reload.
+     */
+    public void refreshAllPlayerGroups() {
+        playerGroups.clear();
+        if (!settings.isGroupSettingsEnabled()) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        for (Player player : plugin.getServer().getOnlinePlayers()) {
+            refreshPlayerGroup(player, now);
+        }
+    }
+    
+    private static final class CachedGroup {
+        
+        private final String group;
+        private final CropPlusSettings settings;
+        private final long expiresAt;
+        
+        private CachedGroup(String group, CropPlusSettings settings, long expiresAt) {
+            this.group = group;
+            this.settings = settings;
+            this.expiresAt = expiresAt;
+        }
     }
     
     // Backward compatibility methods
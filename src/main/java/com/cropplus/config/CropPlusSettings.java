@@ -0,0 +1,957 @@
+package com.cropplus.config;
+
+import org.bukkit.Material;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.FileConfiguration;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Immutable, typed snapshot of config.yml.
+ * <p>
+ * Built once by {@link ConfigManager} on load and reload and swapped in as a whole,
+ * so the harvest path only reads final fields and never walks the YAML tree.
+ */
+public final class CropPlusSettings {
+
+    private static final Set<Material> HOES = Collections.unmodifiableSet(EnumSet.of(
+        Material.WOODEN_HOE,
+        Material.STONE_HOE,
+        Material.IRON_HOE,
+        Material.GOLDEN_HOE,
+        Material.DIAMOND_HOE,
+        Material.NETHERITE_HOE
+    ));
+
+    // General
+    private final boolean enabled;
+    private final boolean debug;
+    private final boolean checkUpdates;
+
+    // Tool restrictions
+    private final boolean toolRestrictionsEnabled;
+    private final ToolRule allowedTools;
+    private final boolean allowBareHands;
+
+    // Harvesting
+    private final boolean harvestingEnabled;
+    private final boolean requireSeeds;
+    private final boolean autoCollectEnabled;
+    private final String dropLocation;
+    private final boolean consolidateDrops;
+    private final boolean mergeNearbyDrops;
+    private final double dropMergeRadius;
+    private final boolean playSounds;
+    private final boolean showParticles;
+    private final double effectsViewDistance;
+    private final int maxParticlesPerHarvest;
+    private final int maxParticlesPerTick;
+
+    // Mass harvesting
+    private final boolean massHarvestingEnabled;
+    private final int maxRange;
+    private final int defaultRange;
+    private final boolean requireSneak;
+    private final int maxCrops;
+    private final boolean massHarvestToolRestrictionsEnabled;
+    private final String massHarvestMinimumTier;
+    private final boolean massHarvestSpread;
+    private final int massHarvestCropsPerTick;
+    private final long massHarvestNanosPerTick;
+    private final boolean massHarvestWave;
+    private final int massHarvestMaxQueuedPerPlayer;
+    private final boolean cropIndexEnabled;
+
+    // Cooldowns
+    private final boolean cooldownsEnabled;
+    private final double globalCooldown;
+    private final double perCropCooldown;
+    private final double massHarvestCooldown;
+    private final int maxTrackedCrops;
+    private final int sweepIntervalTicks;
+    private final int sweepBudget;
+    private final boolean cooldownPersistenceEnabled;
+    private final int journalFlushTicks;
+
+    // Worlds
+    private final boolean worldRestrictionsEnabled;
+    private final List<String> allowedWorlds;
+    private final List<String> disabledWorlds;
+    private final Map<String, WorldSettings> worlds;
+    private final WorldSettings defaultWorld;
+
+    // Groups
+    private final boolean groupSettingsEnabled;
+    private final Map<String, GroupSettings> groups;
+    private final List<GroupSettings> groupOrder;
+    private final double maxCooldownMultiplier;
+    private final long groupCacheMillis;
+
+    // Crops
+    private final Map<Material, CropSettings> crops;
+    private final Map<String, CropSettings> cropsByName;
+
+    // Economy
+    private final boolean economyEnabled;
+    private final double rewardPerCrop;
+    private final double massHarvestBonus;
+    private final Map<Material, Double> economyToolMultipliers;
+    private final boolean economyBatchingEnabled;
+    private final int economyFlushInterval;
+    private final boolean economyAsyncEnabled;
+    private final boolean economyThreadSafeProvider;
+    private final int economyAsyncQueueSize;
+    private final int economyAsyncMaxRetries;
+
+    // Messages
+    private final Map<String, String> messages;
+    private final boolean messageAggregationEnabled;
+    private final int messageAggregateWindow;
+    private final boolean summaryOnActionBar;
+
+    // Metrics
+    private final boolean metricsEnabled;
+    private final int metricsCsvInterval;
+
+    // Auto-harvest zones
+    private final boolean autoHarvestEnabled;
+    private final int autoHarvestIntervalTicks;
+    private final int autoHarvestCropsPerRun;
+    private final long autoHarvestNanosPerRun;
+    private final int autoHarvestMaxRadius;
+
+    // Analytics
+    private final boolean analyticsEnabled;
+    private final int analyticsBufferSize;
+    private final int analyticsFlushSeconds;
+
+    private CropPlusSettings(FileConfiguration config) {
+        this.enabled = config.getBoolean("settings.enabled", true);
+        this.debug = config.getBoolean("settings.debug", false);
+        this.checkUpdates = config.getBoolean("settings.check-updates", true);
+
+        this.toolRestrictionsEnabled = config.getBoolean("tool-restrictions.enabled", true);
+        this.allowedTools = new ToolRule(config.getStringList("tool-restrictions.allowed-tools"));
+        this.allowBareHands = config.getBoolean("tool-restrictions.allow-bare-hands", false);
+
+        this.harvestingEnabled = config.getBoolean("harvesting.enabled", true);
+        this.requireSeeds = config.getBoolean("harvesting.require-seeds", true);
+        this.autoCollectEnabled = config.getBoolean("harvesting.auto-collect.enabled", true);
+        this.dropLocation = config.getString("harvesting.auto-collect.drop-location", "CROP");
+        this.consolidateDrops = config.getBoolean("harvesting.auto-collect.consolidate-drops.enabled", true);
+        this.mergeNearbyDrops = config.getBoolean("harvesting.auto-collect.consolidate-drops.merge-nearby", true);
+        this.dropMergeRadius = Math.max(0.0, config.getDouble("harvesting.auto-collect.consolidate-drops.merge-radius", 2.0));
+        this.playSounds = config.getBoolean("harvesting.play-sounds", true);
+        this.showParticles = config.getBoolean("harvesting.show-particles", true);
+        this.effectsViewDistance = Math.max(0.0, config.getDouble("harvesting.effects.view-distance", 32.0));
+        this.maxParticlesPerHarvest = Math.max(0, config.getInt("harvesting.effects.max-particles-per-harvest", 16));
+        this.maxParticlesPerTick = Math.max(0, config.getInt("harvesting.effects.max-particles-per-tick", 200));
+
+        this.massHarvestingEnabled = config.getBoolean("mass-harvesting.enabled", true);
+        this.maxRange = config.getInt("mass-harvesting.max-range", 5);
+        this.defaultRange = config.getInt("mass-harvesting.default-range", 3);
+        this.requireSneak = config.getBoolean("mass-harvesting.require-sneak", true);
+        this.maxCrops = config.getInt("mass-harvesting.max-crops", 50);
+        this.massHarvestToolRestrictionsEnabled = config.getBoolean("mass-harvesting.tool-restrictions.enabled", false);
+        this.massHarvestMinimumTier = config.getString("mass-harvesting.tool-restrictions.minimum-tier", "IRON");
+        this.massHarvestSpread = "SPREAD".equalsIgnoreCase(config.getString("mass-harvesting.execution.mode", "INSTANT"));
+        this.massHarvestCropsPerTick = Math.max(1, config.getInt("mass-harvesting.execution.crops-per-tick", 10));
+        this.massHarvestNanosPerTick = (long) (config.getDouble("mass-harvesting.execution.max-millis-per-tick", 2.0) * 1_000_000L);
+        this.massHarvestWave = config.getBoolean("mass-harvesting.execution.wave", true);
+        this.massHarvestMaxQueuedPerPlayer = Math.max(1, config.getInt("mass-harvesting.execution.max-queued-per-player", 1));
+        this.cropIndexEnabled = config.getBoolean("mass-harvesting.crop-index", true);
+
+        this.cooldownsEnabled = config.getBoolean("cooldowns.enabled", true);
+        this.globalCooldown = config.getDouble("cooldowns.global", 0.5);
+        this.perCropCooldown = config.getDouble("cooldowns.per-crop", 2.0);
+        this.massHarvestCooldown = config.getDouble("cooldowns.mass-harvest", 5.0);
+        this.maxTrackedCrops = Math.max(1, config.getInt("cooldowns.max-tracked-crops", 500000));
+        this.sweepIntervalTicks = Math.max(1, config.getInt("cooldowns.sweep.interval-ticks", 20));
+        this.sweepBudget = Math.max(1, config.getInt("cooldowns.sweep.max-entries", 5000));
+        this.cooldownPersistenceEnabled = config.getBoolean("cooldowns.persistence.enabled", true);
+        this.journalFlushTicks = Math.max(1, config.getInt("cooldowns.persistence.flush-interval-ticks", 20));
+
+        this.worldRestrictionsEnabled = config.getBoolean("worlds.enabled", false);
+        this.allowedWorlds = Collections.unmodifiableList(config.getStringList("worlds.allowed"));
+        this.disabledWorlds = Collections.unmodifiableList(config.getStringList("worlds.disabled"));
+        this.defaultWorld = new WorldSettings(this, config, null);
+        this.worlds = loadWorlds(config);
+
+        this.groupSettingsEnabled = config.getBoolean("groups.enabled", false);
+        this.groups = loadGroups(config);
+        this.groupOrder = Collections.unmodifiableList(new ArrayList<>(groups.values()));
+        double maxMultiplier = 1.0;
+        if (groupSettingsEnabled) {
+            for (GroupSettings group : groupOrder) {
+                maxMultiplier = Math.max(maxMultiplier, group.getCooldownMultiplier());
+            }
+        }
+        this.maxCooldownMultiplier = maxMultiplier;
+        this.groupCacheMillis = (long) (Math.max(0.0, config.getDouble("groups.cache-seconds", 30.0)) * 1000);
+
+        this.cropsByName = loadCrops(config);
+        Map<Material, CropSettings> cropMap = new EnumMap<>(Material.class);
+        for (CropSettings crop : cropsByName.values()) {
+            if (crop.getMaterial() != null) {
+                cropMap.put(crop.getMaterial(), crop);
+            }
+        }
+        this.crops = Collections.unmodifiableMap(cropMap);
+
+        this.economyEnabled = config.getBoolean("economy.enabled", false);
+        this.rewardPerCrop = config.getDouble("economy.reward-per-crop", 0.1);
+        this.massHarvestBonus = config.getDouble("economy.mass-harvest-bonus", 1.5);
+        this.economyToolMultipliers = readMaterialDoubles(config.getConfigurationSection("economy.tool-multipliers"));
+        this.economyBatchingEnabled = config.getBoolean("economy.batching.enabled", true);
+        this.economyFlushInterval = Math.max(1, config.getInt("economy.batching.flush-interval-ticks", 100));
+        this.economyAsyncEnabled = config.getBoolean("economy.async.enabled", false);
+        this.economyThreadSafeProvider = config.getBoolean("economy.async.thread-safe-provider", false);
+        this.economyAsyncQueueSize = Math.max(1, config.getInt("economy.async.queue-size", 1024));
+        this.economyAsyncMaxRetries = Math.max(0, config.getInt("economy.async.max-retries", 3));
+
+        this.messages = loadMessages(config);
+        this.messageAggregationEnabled = config.getBoolean("chat.aggregate.enabled", true);
+        this.messageAggregateWindow = Math.max(1, config.getInt("chat.aggregate.window-ticks", 40));
+        this.summaryOnActionBar = config.getBoolean("chat.action-bar", false);
+
+        this.metricsEnabled = config.getBoolean("metrics.enabled", true);
+        this.metricsCsvInterval = Math.max(0, config.getInt("metrics.csv-interval-minutes", 0));
+
+        this.autoHarvestEnabled = config.getBoolean("auto-harvest.enabled", false);
+        this.autoHarvestIntervalTicks = Math.max(1, config.getInt("auto-harvest.interval-ticks", 20));
+        this.autoHarvestCropsPerRun = Math.max(1, config.getInt("auto-harvest.max-crops-per-run", 64));
+        this.autoHarvestNanosPerRun = (long) (Math.max(0.05, config.getDouble("auto-harvest.max-millis-per-run", 1.0)) * 1_000_000L);
+        this.autoHarvestMaxRadius = Math.max(0, config.getInt("auto-harvest.max-radius", 16));
+
+        this.analyticsEnabled = config.getBoolean("analytics.enabled", true);
+        this.analyticsBufferSize = Math.max(1024, config.getInt("analytics.buffer-size", 65536));
+        this.analyticsFlushSeconds = Math.max(1, config.getInt("analytics.flush-interval-seconds", 5));
+    }
+
+    /**
+     * Build a new snapshot from the given configuration.
+     */
+    public static CropPlusSettings load(FileConfiguration config) {
+        return new CropPlusSettings(config);
+    }
+
+    private Map<String, WorldSettings> loadWorlds(FileConfiguration config) {
+        // Every world that is mentioned anywhere gets its own precomputed record
+        Set<String> names = new HashSet<>();
+        names.addAll(allowedWorlds);
+        names.addAll(disabledWorlds);
+        addKeys(names, config.getConfigurationSection("tool-restrictions.world-specific.worlds"));
+        addKeys(names, config.getConfigurationSection("harvesting.auto-collect.world-specific.worlds"));
+
+        Map<String, WorldSettings> result = new HashMap<>();
+        for (String name : names) {
+            result.put(name, new WorldSettings(this, config, name));
+        }
+        return Collections.unmodifiableMap(result);
+    }
+
+    private static Map<String, GroupSettings> loadGroups(FileConfiguration config) {
+        Map<String, GroupSettings> result = new LinkedHashMap<>();
+        ConfigurationSection section = config.getConfigurationSection("groups.configurations");
+        if (section != null) {
+            for (String name : section.getKeys(false)) {
+                result.put(name, new GroupSettings(name, section.getConfigurationSection(name)));
+            }
+        }
+        return Collections.unmodifiableMap(result);
+    }
+
+    private static Map<String, CropSettings> loadCrops(FileConfiguration config) {
+        Map<String, CropSettings> result = new LinkedHashMap<>();
+        ConfigurationSection section = config.getConfigurationSection("crops");
+        if (section != null) {
+            for (String name : section.getKeys(false)) {
+                String key = name.toLowerCase(Locale.ROOT);
+                result.put(key, new CropSettings(key, section.getConfigurationSection(name)));
+            }
+        }
+        return Collections.unmodifiableMap(result);
+    }
+
+    private static Map<String, String> loadMessages(FileConfiguration config) {
+        Map<String, String> result = new HashMap<>();
+        ConfigurationSection section = config.getConfigurationSection("messages");
+        if (section != null) {
+            for (String key : section.getKeys(false)) {
+                String value = section.getString(key);
+                if (value != null) {
+                    result.put(key, value);
+                }
+            }
+        }
+        return Collections.unmodifiableMap(result);
+    }
+
+    private static void addKeys(Set<String> target, ConfigurationSection section) {
+        if (section != null) {
+            target.addAll(section.getKeys(false));
+        }
+    }
+
+    private static Map<Material, Double> readMaterialDoubles(ConfigurationSection section) {
+        Map<Material, Double> result = new EnumMap<>(Material.class);
+        if (section != null) {
+            for (String key : section.getKeys(false)) {
+                Material material = Material.matchMaterial(key);
+                if (material != null) {
+                    result.put(material, section.getDouble(key, 1.0));
+                }
+            }
+        }
+        return Collections.unmodifiableMap(result);
+    }
+
+    // General Settings
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public boolean isDebug() {
+        return debug;
+    }
+
+    public boolean isCheckUpdates() {
+        return checkUpdates;
+    }
+
+    // Tool Restriction Settings
+    public boolean isToolRestrictionsEnabled() {
+        return toolRestrictionsEnabled;
+    }
+
+    public ToolRule getAllowedTools() {
+        return allowedTools;
+    }
+
+    public boolean isAllowBareHands() {
+        return allowBareHands;
+    }
+
+    // Harvesting Settings
+    public boolean isHarvestingEnabled() {
+        return harvestingEnabled;
+    }
+
+    public boolean isRequireSeeds() {
+        return requireSeeds;
+    }
+
+    public boolean isAutoCollectEnabled() {
+        return autoCollectEnabled;
+    }
+
+    public String getDropLocation() {
+        return dropLocation;
+    }
+
+    public boolean isConsolidateDrops() {
+        return consolidateDrops;
+    }
+
+    public boolean isMergeNearbyDrops() {
+        return mergeNearbyDrops;
+    }
+
+    public double getDropMergeRadius() {
+        return dropMergeRadius;
+    }
+
+    public boolean isPlaySounds() {
+        return playSounds;
+    }
+
+    public boolean isShowParticles() {
+        return showParticles;
+    }
+
+    public double getEffectsViewDistance() {
+        return effectsViewDistance;
+    }
+
+    public int getMaxParticlesPerHarvest() {
+        return maxParticlesPerHarvest;
+    }
+
+    public int getMaxParticlesPerTick() {
+        return maxParticlesPerTick;
+    }
+
+    // Mass Harvesting Settings
+    public boolean isMassHarvestingEnabled() {
+        return massHarvestingEnabled;
+    }
+
+    public int getMaxRange() {
+        return maxRange;
+    }
+
+    public int getDefaultRange() {
+        return defaultRange;
+    }
+
+    public boolean isRequireSneak() {
+        return requireSneak;
+    }
+
+    public int getMaxCrops() {
+        return maxCrops;
+    }
+
+    public boolean isMassHarvestToolRestrictionsEnabled() {
+        return massHarvestToolRestrictionsEnabled;
+    }
+
+    public String getMassHarvestMinimumTier() {
+        return massHarvestMinimumTier;
+    }
+
+    /**
+     * Whether large mass harvests are spread over several ticks instead of running at once.
+     */
+    public boolean isMassHarvestSpread() {
+        return massHarvestSpread;
+    }
+
+    public int getMassHarvestCropsPerTick() {
+        return massHarvestCropsPerTick;
+    }
+
+    public long getMassHarvestNanosPerTick() {
+        return massHarvestNanosPerTick;
+    }
+
+    public boolean isMassHarvestWave() {
+        return massHarvestWave;
+    }
+
+    public int getMassHarvestMaxQueuedPerPlayer() {
+        return massHarvestMaxQueuedPerPlayer;
+    }
+
+    public boolean isCropIndexEnabled() {
+        return cropIndexEnabled;
+    }
+
+    // Cooldown Settings
+    public boolean isCooldownsEnabled() {
+        return cooldownsEnabled;
+    }
+
+    public double getGlobalCooldown() {
+        return globalCooldown;
+    }
+
+    public double getPerCropCooldown() {
+        return perCropCooldown;
+    }
+
+    public double getMassHarvestCooldown() {
+        return massHarvestCooldown;
+    }
+
+    public int getMaxTrackedCrops() {
+        return maxTrackedCrops;
+    }
+
+    public int getSweepIntervalTicks() {
+        return sweepIntervalTicks;
+    }
+
+    public int getSweepBudget() {
+        return sweepBudget;
+    }
+
+    public boolean isCooldownPersistenceEnabled() {
+        return cooldownPersistenceEnabled;
+    }
+
+    public int getJournalFlushTicks() {
+        return journalFlushTicks;
+    }
+
+    /**
+     * The largest cooldown multiplier any player can have, never below 1.
+     */
+    public double getMaxCooldownMultiplier() {
+        return maxCooldownMultiplier;
+    }
+
+    // World Settings
+    public boolean isWorldRestrictionsEnabled() {
+        return worldRestrictionsEnabled;
+    }
+
+    public List<String> getAllowedWorlds() {
+        return allowedWorlds;
+    }
+
+    public List<String> getDisabledWorlds() {
+        return disabledWorlds;
+    }
+
+    /**
+     * Get the precomputed rules for a world; worlds not mentioned in the config share one record.
+     */
+    public WorldSettings getWorld(String worldName) {
+        WorldSettings world = worlds.get(worldName);
+        return world != null ? world : defaultWorld;
+    }
+
+    // Group Settings
+    public boolean isGroupSettingsEnabled() {
+        return groupSettingsEnabled;
+    }
+
+    /**
+     * How long a player's resolved group is reused before permissions are checked again.
+     */
+    public long getGroupCacheMillis() {
+        return groupCacheMillis;
+    }
+
+    public GroupSettings getGroup(String groupName) {
+        return groupName == null ? null : groups.get(groupName);
+    }
+
+    /**
+     * Groups in config order, which is also the order permissions are checked in.
+     */
+    public List<GroupSettings> getGroups() {
+        return groupOrder;
+    }
+
+    // Crop Settings
+    public CropSettings getCrop(Material cropType) {
+        return crops.get(cropType);
+    }
+
+    public CropSettings getCrop(String cropType) {
+        return cropsByName.get(cropType.toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * Every entry under crops, in config order.
+     */
+    public Collection<CropSettings> getCrops() {
+        return cropsByName.values();
+    }
+
+    // Economy Settings
+    public boolean isEconomyEnabled() {
+        return economyEnabled;
+    }
+
+    public double getRewardPerCrop() {
+        return rewardPerCrop;
+    }
+
+    public double getMassHarvestBonus() {
+        return massHarvestBonus;
+    }
+
+    public double getEconomyToolMultiplier(Material tool) {
+        Double multiplier = economyToolMultipliers.get(tool);
+        return multiplier != null ? multiplier : 1.0;
+    }
+
+    public boolean isEconomyBatchingEnabled() {
+        return economyBatchingEnabled;
+    }
+
+    public int getEconomyFlushInterval() {
+        return economyFlushInterval;
+    }
+
+    public boolean isEconomyAsyncEnabled() {
+        return economyAsyncEnabled;
+    }
+
+    /**
+     * Whether the server owner has confirmed the economy plugin can be called off the main thread.
+     */
+    public boolean isEconomyThreadSafeProvider() {
+        return economyThreadSafeProvider;
+    }
+
+    public int getEconomyAsyncQueueSize() {
+        return economyAsyncQueueSize;
+    }
+
+    public int getEconomyAsyncMaxRetries() {
+        return economyAsyncMaxRetries;
+    }
+
+    // Messages
+    public String getMessage(String key) {
+        return messages.get(key);
+    }
+
+    /**
+     * Every entry of the messages section, uncolored.
+     */
+    public Map<String, String> getMessages() {
+        return messages;
+    }
+
+    public boolean isMessageAggregationEnabled() {
+        return messageAggregationEnabled;
+    }
+
+    public int getMessageAggregateWindow() {
+        return messageAggregateWindow;
+    }
+
+    public boolean isSummaryOnActionBar() {
+        return summaryOnActionBar;
+    }
+
+    public boolean isMetricsEnabled() {
+        return metricsEnabled;
+    }
+
+    /**
+     * Minutes between CSV dumps of the metrics, or 0 for none.
+     */
+    public int getMetricsCsvInterval() {
+        return metricsCsvInterval;
+    }
+
+    // Auto-harvest zones
+    public boolean isAutoHarvestEnabled() {
+        return autoHarvestEnabled;
+    }
+
+    public int getAutoHarvestIntervalTicks() {
+        return autoHarvestIntervalTicks;
+    }
+
+    public int getAutoHarvestCropsPerRun() {
+        return autoHarvestCropsPerRun;
+    }
+
+    public long getAutoHarvestNanosPerRun() {
+        return autoHarvestNanosPerRun;
+    }
+
+    public int getAutoHarvestMaxRadius() {
+        return autoHarvestMaxRadius;
+    }
+
+    // Analytics
+    public boolean isAnalyticsEnabled() {
+        return analyticsEnabled;
+    }
+
+    /**
+     * Records buffered between database writes; harvests beyond this are not counted.
+     */
+    public int getAnalyticsBufferSize() {
+        return analyticsBufferSize;
+    }
+
+    public int getAnalyticsFlushSeconds() {
+        return analyticsFlushSeconds;
+    }
+
+    /**
+     * A list of allowed tools with the ANY_HOE wildcard already expanded.
+     */
+    public static final class ToolRule {
+
+        private final List<String> names;
+        private final Set<Material> tools;
+
+        ToolRule(List<String> names) {
+            this.names = Collections.unmodifiableList(new ArrayList<>(names));
+            Set<Material> resolved = EnumSet.noneOf(Material.class);
+            for (String name : names) {
+                if ("ANY_HOE".equals(name)) {
+                    resolved.addAll(HOES);
+                    continue;
+                }
+                Material material = Material.getMaterial(name);
+                if (material != null) {
+                    resolved.add(material);
+                }
+            }
+            this.tools = Collections.unmodifiableSet(resolved);
+        }
+
+        public List<String> getNames() {
+            return names;
+        }
+
+        public boolean isEmpty() {
+            return names.isEmpty();
+        }
+
+        /**
+         * Check if a tool is allowed; an empty list allows every tool.
+         */
+        public boolean allows(Material tool) {
+            return names.isEmpty() || tools.contains(tool);
+        }
+    }
+
+    /**
+     * Tool, auto-collect and world restriction rules resolved for a single world.
+     */
+    public static final class WorldSettings {
+
+        private final boolean toolRestrictionsEnabled;
+        private final ToolRule allowedTools;
+        private final boolean allowBareHands;
+        private final boolean autoCollectEnabled;
+        private final String dropLocation;
+        private final boolean harvestAllowed;
+
+        WorldSettings(CropPlusSettings settings, FileConfiguration config, String worldName) {
+            boolean toolWorldSpecific = worldName != null
+                    && config.getBoolean("tool-restrictions.world-specific.enabled", false);
+            boolean collectWorldSpecific = worldName != null
+                    && config.getBoolean("harvesting.auto-collect.world-specific.enabled", false);
+
+            if (toolWorldSpecific) {
+                String path = "tool-restrictions.world-specific.worlds." + worldName;
+                List<String> worldTools = config.getStringList(path + ".allowed-tools");
+                this.toolRestrictionsEnabled = config.getBoolean(path + ".enabled", settings.toolRestrictionsEnabled);
+                this.allowedTools = worldTools.isEmpty() ? settings.allowedTools : new ToolRule(worldTools);
+                this.allowBareHands = config.getBoolean(path + ".allow-bare-hands", settings.allowBareHands);
+            } else {
+                this.toolRestrictionsEnabled = settings.toolRestrictionsEnabled;
+                this.allowedTools = settings.allowedTools;
+                this.allowBareHands = settings.allowBareHands;
+            }
+
+            if (collectWorldSpecific) {
+                String path = "harvesting.auto-collect.world-specific.worlds." + worldName;
+                this.autoCollectEnabled = config.getBoolean(path + ".auto-collect", settings.autoCollectEnabled);
+                this.dropLocation = config.getString(path + ".drop-location", settings.dropLocation);
+            } else {
+                this.autoCollectEnabled = settings.autoCollectEnabled;
+                this.dropLocation = settings.dropLocation;
+            }
+
+            if (!settings.worldRestrictionsEnabled) {
+                this.harvestAllowed = true;
+            } else if (worldName == null) {
+                // Worlds not listed anywhere are only allowed when there is no allow-list
+                this.harvestAllowed = settings.allowedWorlds.isEmpty();
+            } else {
+                this.harvestAllowed = !settings.disabledWorlds.contains(worldName)
+                        && (settings.allowedWorlds.isEmpty() || settings.allowedWorlds.contains(worldName));
+            }
+        }
+
+        public boolean isToolRestrictionsEnabled() {
+            return toolRestrictionsEnabled;
+        }
+
+        public ToolRule getAllowedTools() {
+            return allowedTools;
+        }
+
+        public boolean isAllowBareHands() {
+            return allowBareHands;
+        }
+
+        public boolean isAutoCollectEnabled() {
+            return autoCollectEnabled;
+        }
+
+        public String getDropLocation() {
+            return dropLocation;
+        }
+
+        /**
+         * Result of the worlds.allowed / worlds.disabled lists for this world.
+         */
+        public boolean isHarvestAllowed() {
+            return harvestAllowed;
+        }
+    }
+
+    /**
+     * Settings for one entry under groups.configurations.
+     */
+    public static final class GroupSettings {
+
+        private final String name;
+        private final String permission;
+        private final boolean toolRestrictionsEnabled;
+        private final ToolRule allowedTools;
+        private final boolean allowBareHands;
+        private final boolean autoCollectEnabled;
+        private final String dropLocation;
+        private final double cooldownMultiplier;
+        private final int rangeBonus;
+
+        GroupSettings(String name, ConfigurationSection section) {
+            this.name = name;
+            this.permission = "cropplus.group." + name;
+            if (section == null) {
+                this.toolRestrictionsEnabled = false;
+                this.allowedTools = new ToolRule(Collections.emptyList());
+                this.allowBareHands = false;
+                this.autoCollectEnabled = true;
+                this.dropLocation = "CROP";
+                this.cooldownMultiplier = 1.0;
+                this.rangeBonus = 0;
+                return;
+            }
+            this.toolRestrictionsEnabled = section.getBoolean("tool-restrictions.enabled", false);
+            this.allowedTools = new ToolRule(section.getStringList("tool-restrictions.allowed-tools"));
+            this.allowBareHands = section.getBoolean("tool-restrictions.allow-bare-hands", false);
+            this.autoCollectEnabled = section.getBoolean("auto-collect.enabled", true);
+            this.dropLocation = section.getString("auto-collect.drop-location", "CROP");
+            this.cooldownMultiplier = section.getDouble("cooldown-multiplier", 1.0);
+            this.rangeBonus = section.getInt("range-bonus", 0);
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getPermission() {
+            return permission;
+        }
+
+        public boolean isToolRestrictionsEnabled() {
+            return toolRestrictionsEnabled;
+        }
+
+        public ToolRule getAllowedTools() {
+            return allowedTools;
+        }
+
+        public boolean isAllowBareHands() {
+            return allowBareHands;
+        }
+
+        public boolean isAutoCollectEnabled() {
+            return autoCollectEnabled;
+        }
+
+        public String getDropLocation() {
+            return dropLocation;
+        }
+
+        public double getCooldownMultiplier() {
+            return cooldownMultiplier;
+        }
+
+        public int getRangeBonus() {
+            return rangeBonus;
+        }
+    }
+
+    /**
+     * Settings for one entry under crops.
+     */
+    public static final class CropSettings {
+
+        private final String name;
+        private final Material material;
+        private final Material replantType;
+        private final boolean enabled;
+        private final String seedItem;
+        private final int maxAge;
+        private final double dropMultiplier;
+        private final Map<Material, Double> toolMultipliers;
+
+        CropSettings(String name, ConfigurationSection section) {
+            this.name = name;
+            if (section == null) {
+                this.material = Material.matchMaterial(name);
+                this.replantType = material;
+                this.enabled = true;
+                this.seedItem = "";
+                this.maxAge = -1;
+                this.dropMultiplier = 1.0;
+                this.toolMultipliers = Collections.emptyMap();
+                return;
+            }
+            this.material = Material.matchMaterial(section.getString("block", name));
+            String replant = section.getString("replant-as");
+            this.replantType = replant != null ? Material.matchMaterial(replant) : material;
+            this.enabled = section.getBoolean("enabled", true);
+            this.seedItem = section.getString("seed-item", "");
+            this.maxAge = section.getInt("max-age", -1);
+            this.dropMultiplier = section.getDouble("drop-multiplier", 1.0);
+            this.toolMultipliers = readMaterialDoubles(section.getConfigurationSection("tool-multipliers"));
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * The block type this entry refers to, or null if the name is not a known material.
+         */
+        public Material getMaterial() {
+            return material;
+        }
+
+        /**
+         * The block placed when the crop is replanted; the crop's own block unless it
+         * grows into a different block, like a torchflower.
+         */
+        public Material getReplantType() {
+            return replantType;
+        }
+
+        /**
+         * The seed item as a material, or null if none or an unknown one is configured.
+         */
+        public Material getSeedType() {
+            return seedItem.isEmpty() ? null : Material.matchMaterial(seedItem);
+        }
+
+        /**
+         * Configured age at which the crop counts as grown, or -1 to use the block's maximum age.
+         */
+        public int getMaxAge() {
+            return maxAge;
+        }
+
+        /**
+         * Tool-specific multipliers, without the base drop multiplier.
+         */
+        public Map<Material, Double> getToolMultipliers() {
+            return toolMultipliers;
+        }
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public String getSeedItem() {
+            return seedItem;
+        }
+
+        public double getDropMultiplier() {
+            return dropMultiplier;
+        }
+
+        public double getToolMultiplier(Material tool) {
+            Double multiplier = toolMultipliers.get(tool);
+            return multiplier != null ? multiplier : 1.0;
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.cropplus.listeners;
+
+import com.cropplus.CropPlus;
+import org.bukkit.Chunk;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.world.ChunkLoadEvent;
+import org.bukkit.event.world.ChunkUnloadEvent;
+import org.bukkit.event.world.WorldUnloadEvent;
+
+public class ChunkListener implements Listener {
+    
+    private final CropPlus plugin;
+    
+    public ChunkListener(CropPlus plugin) {
+        this.plugin = plugin;
+    }
+    
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onChunkLoad(ChunkLoadEvent event) {
+        plugin.getCropManager().getCropIndex().onChunkLoad(event.getChunk());
+    }
+    
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onChunkUnload(ChunkUnloadEvent event) {
+        // Nobody can harvest in an unloaded chunk, so its crop cooldowns and index can go
+        Chunk chunk = event.getChunk();
+        plugin.getCooldownManager().clearChunkCooldowns(chunk.getWorld(), chunk.getX(), chunk.getZ());
+        plugin.getCropManager().getCropIndex().onChunkUnload(chunk);
+    }
+    
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onWorldUnload(WorldUnloadEvent event) {
+        plugin.getCooldownManager().clearWorldCooldowns(event.getWorld());
+        plugin.getCropManager().getCropIndex().onWorldUnload(event.getWorld());
+    }
+}
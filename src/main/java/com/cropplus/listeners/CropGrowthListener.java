@@ -0,0 +1,25 @@
+package com.cropplus.listeners;
+
+import com.cropplus.CropPlus;
+import org.bukkit.block.BlockState;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.block.BlockGrowEvent;
+
+public class CropGrowthListener implements Listener {
+    
+    private final CropPlus plugin;
+    
+    public CropGrowthListener(CropPlus plugin) {
+        this.plugin = plugin;
+    }
+    
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockGrow(BlockGrowEvent event) {
+        BlockState newState = event.getNewState();
+        plugin.getCropManager().getCropIndex().update(event.getBlock(), newState.getType(), newState.getBlockData());
+        // Growth is also what fills the auto-harvest zones' queues
+        plugin.getAutoHarvestManager().onCropGrow(event.getBlock(), newState);
+    }
+}
@@ -1,13 +1,18 @@
 package com.cropplus.listeners;
 
 import com.cropplus.CropPlus;
+import com.cropplus.managers.HarvestContext;
+import com.cropplus.managers.MetricsManager;
+import com.cropplus.models.CropInfo;
 import org.bukkit.Material;
 import org.bukkit.block.Block;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerChangedWorldEvent;
 import org.bukkit.event.player.PlayerInteractEvent;
+import org.bukkit.event.player.PlayerJoinEvent;
 import org.bukkit.event.player.PlayerQuitEvent;
 import org.bukkit.inventory.EquipmentSlot;
 import org.bukkit.inventory.ItemStack;
@@ -50,64 +55,86 @@ public class CropHarvestListener implements Listener {
             return;
         }
         
-        // Check if it's a supported crop
-        if (!plugin.getCropManager().isSupportedCrop(block)) {
+        // Check if it's a supported, fully grown crop
+        block = plugin.getCropManager().getBaseBlock(block);
+        CropInfo crop = plugin.getCropManager().getMatureCrop(block);
+        if (crop == null) {
             return;
         }
         
-        // Check if crop is fully grown
-        if (!plugin.getCropManager().isFullyGrown(block)) {
-            return;
-        }
+        long start = plugin.getMetricsManager().start();
+        handleHarvest(event, player, block, crop);
+        plugin.getMetricsManager().record(MetricsManager.Stage.INTERACT, start);
+    }
+    
+    private void handleHarvest(PlayerInteractEvent event, Player player, Block block, CropInfo crop) {
+        // Resolve group, tool and permissions once for everything below
+        HarvestContext context = plugin.getCropManager().createContext(player, block.getWorld());
         
         // Check permissions
-        if (!player.hasPermission("cropplus.use")) {
+        if (!context.isPermitted()) {
             plugin.getMessageUtil().sendMessage(player, "no-permission");
             return;
         }
         
         // Check tool restrictions
-        if (!plugin.getToolManager().hasValidTool(player)) {
+        if (!context.isToolAllowed()) {
             sendToolRestrictionMessage(player);
             return;
         }
         
         // Check world restrictions
-        if (!isWorldAllowed(player, block)) {
+        if (!context.isWorldAllowed()) {
             plugin.getMessageUtil().sendMessage(player, "world-not-allowed");
             return;
         }
         
         // Check cooldowns
-        if (!player.hasPermission("cropplus.bypass.cooldown") && hasCooldown(player, block)) {
+        if (!context.isBypassCooldown() && hasCooldown(context, block)) {
             plugin.getMessageUtil().sendMessage(player, "cooldown-active");
             return;
         }
         
-        // Check if player has seeds for replanting
-        if (!plugin.getCropManager().hasRequiredSeeds(player, block)) {
-            plugin.getMessageUtil().sendMessage(player, "no-seeds");
-            return;
-        }
-        
         // Determine if this should be a mass harvest
         boolean isMassHarvest = plugin.getConfigManager().isMassHarvestingEnabled() && 
-                               shouldMassHarvest(player);
+                               shouldMassHarvest(context);
         
         if (isMassHarvest) {
-            handleMassHarvest(player, block);
+            handleMassHarvest(context, block);
         } else {
-            handleSingleHarvest(player, block);
+            handleSingleHarvest(context, block, crop);
         }
         
         // Cancel the event to prevent normal interaction
         event.setCancelled(true);
     }
     
+    @EventHandler
+    public void onPlayerJoin(PlayerJoinEvent event) {
+        // Resolve the group up front so the first harvest doesn't pay for it
+        plugin.getConfigManager().refreshPlayerGroup(event.getPlayer());
+        plugin.getAnalyticsManager().recordName(event.getPlayer());
+    }
+    
+    @EventHandler
+    public void onPlayerChangedWorld(PlayerChangedWorldEvent event) {
+        // Permission plugins commonly grant per-world permissions
+        plugin.getConfigManager().invalidatePlayerGroup(event.getPlayer().getUniqueId());
+        plugin.getCropManager().clearPlayer(event.getPlayer().getUniqueId());
+    }
+    
     @EventHandler
     public void onPlayerQuit(PlayerQuitEvent event) {
         // Clear player cooldowns when they leave
         plugin.getCooldownManager().clearPlayerCooldowns(event.getPlayer());
+        
+        // Stop any mass harvest still running for them
+        plugin.getHarvestExecutor().cancelPlayer(event.getPlayer().getUniqueId());
+        
+        // Pay out anything they earned since the last flush
+        plugin.getEconomyManager().flush(event.getPlayer());
+        plugin.getMessageUtil().getAggregator().discard(event.getPlayer().getUniqueId());
+        plugin.getConfigManager().invalidatePlayerGroup(event.getPlayer().getUniqueId());
     }
     
     private void sendToolRestrictionMessage(Player player) {
@@ -122,43 +149,14 @@ public class CropHarvestListener implements Listener {
         }
     }
     
-    private boolean isWorldAllowed(Player player, Block block) {
-        // Bypass permission check
-        if (player.hasPermission("cropplus.bypass.world")) {
-            return true;
-        }
-        
-        if (!plugin.getConfigManager().isWorldRestrictionsEnabled()) {
-            return true;
-        }
-        
-        String worldName = block.getWorld().getName();
-        
-        // Check disabled worlds
-        if (plugin.getConfigManager().getDisabledWorlds().contains(worldName)) {
-            return false;
-        }
-        
-        // Check allowed worlds (if list is not empty)
-        var allowedWorlds = plugin.getConfigManager().getAllowedWorlds();
-        if (!allowedWorlds.isEmpty() && !allowedWorlds.contains(worldName)) {
-            return false;
-        }
-        
-        return true;
-    }
-    
-    private boolean hasCooldown(Player player, Block block) {
+    private boolean hasCooldown(HarvestContext context, Block block) {
         if (!plugin.getConfigManager().isCooldownsEnabled()) {
             return false;
         }
         
         // Apply group cooldown multiplier
-        double cooldownMultiplier = 1.0;
-        String playerGroup = plugin.getConfigManager().getPlayerGroup(player);
-        if (playerGroup != null) {
-            cooldownMultiplier = plugin.getConfigManager().getGroupCooldownMultiplier(playerGroup);
-        }
+        Player player = context.getPlayer();
+        double cooldownMultiplier = context.getCooldownMultiplier();
         
         // Check global cooldown
         double globalCooldown = plugin.getConfigManager().getGlobalCooldown() * cooldownMultiplier;
@@ -168,14 +166,15 @@ public class CropHarvestListener implements Listener {
         
         // Check per-crop cooldown
         double perCropCooldown = plugin.getConfigManager().getPerCropCooldown() * cooldownMultiplier;
-        if (perCropCooldown > 0 && plugin.getCooldownManager().hasCropCooldown(block.getLocation(), perCropCooldown)) {
+        if (perCropCooldown > 0 && plugin.getCooldownManager().hasCropCooldown(block, perCropCooldown)) {
             return true;
         }
         
         return false;
     }
     
-    private boolean shouldMassHarvest(Player player) {
+    private boolean shouldMassHarvest(HarvestContext context) {
+        Player player = context.getPlayer();
         if (!plugin.getConfigManager().isMassHarvestingEnabled()) {
             return false;
         }
@@ -186,7 +185,7 @@ public class CropHarvestListener implements Listener {
         }
         
         // Check tool requirements for mass harvesting
-        if (!plugin.getToolManager().hasValidMassHarvestTool(player)) {
+        if (!plugin.getToolManager().hasValidMassHarvestTool(context)) {
             String minimumTier = plugin.getConfigManager().getMassHarvestMinimumTier();
             plugin.getMessageUtil().sendMessage(player, "tool-tier-too-low", "{tier}", minimumTier.toLowerCase());
             return false;
@@ -195,14 +194,17 @@ public class CropHarvestListener implements Listener {
         return true;
     }
     
-    private void handleSingleHarvest(Player player, Block block) {
-        String cropName = block.getType().name().toLowerCase().replace("_", " ");
+    private void handleSingleHarvest(HarvestContext context, Block block, CropInfo crop) {
+        Player player = context.getPlayer();
+        String cropName = crop.getDisplayName();
         
-        plugin.getCropManager().harvestCrop(player, block);
+        // Seeds may also come from the crop's own drops, so this is where a lack of them shows
+        if (!plugin.getCropManager().harvestCrop(context, block, crop)) {
+            plugin.getMessageUtil().sendMessage(player, "no-seeds");
+            return;
+        }
         
-        plugin.getMessageUtil().sendMessage(player, "crop-harvested", 
-                "{amount}", "1", 
-                "{crop}", cropName);
+        plugin.getMessageUtil().notifyHarvest(player, 1, cropName);
         
         if (plugin.getConfigManager().isDebug()) {
             plugin.getLogger().info(player.getName() + " harvested a " + cropName + " at " + 
@@ -210,16 +212,12 @@ public class CropHarvestListener implements Listener {
         }
     }
     
-    private void handleMassHarvest(Player player, Block block) {
-        // Check mass harvest cooldown with group multiplier
-        double cooldownMultiplier = 1.0;
-        String playerGroup = plugin.getConfigManager().getPlayerGroup(player);
-        if (playerGroup != null) {
-            cooldownMultiplier = plugin.getConfigManager().getGroupCooldownMultiplier(playerGroup);
-        }
+    private void handleMassHarvest(HarvestContext context, Block block) {
+        Player player = context.getPlayer();
         
-        double massHarvestCooldown = plugin.getConfigManager().getMassHarvestCooldown() * cooldownMultiplier;
-        if (!player.hasPermission("cropplus.bypass.cooldown") && 
+        // Check mass harvest cooldown with group multiplier
+        double massHarvestCooldown = plugin.getConfigManager().getMassHarvestCooldown() * context.getCooldownMultiplier();
+        if (!context.isBypassCooldown() && 
             massHarvestCooldown > 0 && 
             plugin.getCooldownManager().hasMassHarvestCooldown(player, massHarvestCooldown)) {
             plugin.getMessageUtil().sendMessage(player, "cooldown-active");
@@ -227,29 +225,29 @@ public class CropHarvestListener implements Listener {
         }
         
         // Determine range with group bonus
-        int range = plugin.getConfigManager().getDefaultRange();
-        if (playerGroup != null) {
-            range += plugin.getConfigManager().getGroupRangeBonus(playerGroup);
-        }
+        int range = plugin.getConfigManager().getDefaultRange() + context.getRangeBonus();
         
         // Check if player has unlimited range permission
         if (player.hasPermission("cropplus.mass.unlimited")) {
-            range = plugin.getConfigManager().getMaxRange();
-            if (playerGroup != null) {
-                range += plugin.getConfigManager().getGroupRangeBonus(playerGroup);
-            }
+            range = plugin.getConfigManager().getMaxRange() + context.getRangeBonus();
         }
         
-        int harvestedCount = plugin.getCropManager().massHarvest(player, block, range);
-        
-        if (harvestedCount > 0) {
-            plugin.getMessageUtil().sendMessage(player, "mass-harvest-success", 
-                    "{amount}", String.valueOf(harvestedCount));
+        boolean started = plugin.getCropManager().massHarvest(context, block, range, harvestedCount -> {
+            if (harvestedCount > 0 && player.isOnline()) {
+                plugin.getMessageUtil().notifyMassHarvest(player, harvestedCount);
+            } else if (player.isOnline() && plugin.getConfigManager().isRequireSeeds()) {
+                // The clicked crop always leads the job, ahead of the max-crops cap, so nothing harvested means no seeds
+                plugin.getMessageUtil().sendMessage(player, "no-seeds");
+            }
             
-            if (plugin.getConfigManager().isDebug()) {
+            if (harvestedCount > 0 && plugin.getConfigManager().isDebug()) {
                 plugin.getLogger().info(player.getName() + " mass harvested " + harvestedCount + 
                                       " crops at " + block.getLocation().toString());
             }
+        });
+        
+        if (!started) {
+            plugin.getMessageUtil().sendMessage(player, "mass-harvest-busy");
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,37 @@
+package com.cropplus.listeners;
+
+import com.cropplus.CropPlus;
+import com.cropplus.managers.CropIndex;
+import org.bukkit.block.Block;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.block.BlockBreakEvent;
+import org.bukkit.event.block.BlockPlaceEvent;
+
+public class CropIndexListener implements Listener {
+    
+    private final CropPlus plugin;
+    
+    public CropIndexListener(CropPlus plugin) {
+        this.plugin = plugin;
+    }
+    
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockBreak(BlockBreakEvent event) {
+        CropIndex cropIndex = plugin.getCropManager().getCropIndex();
+        Block block = event.getBlock();
+        cropIndex.remove(block);
+        // Breaking the top of a tall crop takes its lower half, which is where the crop is indexed
+        Block base = plugin.getCropManager().getBaseBlock(block);
+        if (base != block) {
+            cropIndex.remove(base);
+        }
+    }
+    
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockPlace(BlockPlaceEvent event) {
+        Block block = event.getBlockPlaced();
+        plugin.getCropManager().getCropIndex().update(block, block.getType(), block.getBlockData());
+    }
+}
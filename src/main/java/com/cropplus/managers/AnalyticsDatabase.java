@@ -0,0 +1,216 @@
+package com.cropplus.managers;
+
+import java.io.File;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * The SQLite database behind the harvest analytics, using the driver bundled
+ * with the server.
+ * <p>
+ * Only the analytics writer thread touches it: writes are upserts of totals
+ * that were already summed in memory, sent as one JDBC batch per table in a
+ * single transaction.
+ */
+final class AnalyticsDatabase {
+
+    private static final String[] SCHEMA = {
+        "CREATE TABLE IF NOT EXISTS players (uuid TEXT PRIMARY KEY, name TEXT NOT NULL, name_lower TEXT NOT NULL)",
+        "CREATE INDEX IF NOT EXISTS players_name ON players (name_lower)",
+        "CREATE TABLE IF NOT EXISTS player_totals (uuid TEXT PRIMARY KEY, harvested INTEGER NOT NULL, "
+            + "mass_harvests INTEGER NOT NULL, earned REAL NOT NULL)",
+        "CREATE INDEX IF NOT EXISTS player_totals_harvested ON player_totals (harvested DESC)",
+        "CREATE INDEX IF NOT EXISTS player_totals_earned ON player_totals (earned DESC)",
+        "CREATE TABLE IF NOT EXISTS player_daily (uuid TEXT NOT NULL, day INTEGER NOT NULL, harvested INTEGER NOT NULL, "
+            + "mass_harvests INTEGER NOT NULL, earned REAL NOT NULL, PRIMARY KEY (uuid, day))",
+        "CREATE TABLE IF NOT EXISTS crop_totals (uuid TEXT NOT NULL, crop TEXT NOT NULL, harvested INTEGER NOT NULL, "
+            + "PRIMARY KEY (uuid, crop))"
+    };
+
+    private static final String UPSERT_PLAYER =
+        "INSERT INTO players (uuid, name, name_lower) VALUES (?, ?, ?) "
+            + "ON CONFLICT (uuid) DO UPDATE SET name = excluded.name, name_lower = excluded.name_lower";
+    private static final String UPSERT_TOTALS =
+        "INSERT INTO player_totals (uuid, harvested, mass_harvests, earned) VALUES (?, ?, ?, ?) "
+            + "ON CONFLICT (uuid) DO UPDATE SET harvested = harvested + excluded.harvested, "
+            + "mass_harvests = mass_harvests + excluded.mass_harvests, earned = earned + excluded.earned";
+    private static final String UPSERT_DAILY =
+        "INSERT INTO player_daily (uuid, day, harvested, mass_harvests, earned) VALUES (?, ?, ?, ?, ?) "
+            + "ON CONFLICT (uuid, day) DO UPDATE SET harvested = harvested + excluded.harvested, "
+            + "mass_harvests = mass_harvests + excluded.mass_harvests, earned = earned + excluded.earned";
+    private static final String UPSERT_CROP =
+        "INSERT INTO crop_totals (uuid, crop, harvested) VALUES (?, ?, ?) "
+            + "ON CONFLICT (uuid, crop) DO UPDATE SET harvested = harvested + excluded.harvested";
+
+    private final File file;
+    private Connection connection;
+
+    AnalyticsDatabase(File file) {
+        this.file = file;
+    }
+
+    void open() throws SQLException {
+        try {
+            Class.forName("org.sqlite.JDBC");
+        } catch (ClassNotFoundException e) {
+            throw new SQLException("The SQLite driver is not available on this server", e);
+        }
+        connection = DriverManager.getConnection("jdbc:sqlite:" + file.getAbsolutePath());
+        try (Statement statement = connection.createStatement()) {
+            // Write-ahead logging lets the batched writes go out without blocking reads
+            statement.execute("PRAGMA journal_mode=WAL");
+            statement.execute("PRAGMA synchronous=NORMAL");
+            for (String sql : SCHEMA) {
+                statement.execute(sql);
+            }
+        }
+    }
+
+    void close() {
+        if (connection == null) {
+            return;
+        }
+        try {
+            connection.close();
+        } catch (SQLException ignored) {
+            // Nothing left to do with it
+        }
+        connection = null;
+    }
+
+    /**
+     * Add a batch of summed records to the stored totals in one transaction.
+     */
+    void write(Map<UUID, String> names, Collection<AnalyticsManager.DailyTotals> daily,
+               Collection<AnalyticsManager.CropTotal> crops) throws SQLException {
+        connection.setAutoCommit(false);
+        try (PreparedStatement players = connection.prepareStatement(UPSERT_PLAYER);
+             PreparedStatement totals = connection.prepareStatement(UPSERT_TOTALS);
+             PreparedStatement days = connection.prepareStatement(UPSERT_DAILY);
+             PreparedStatement cropTotals = connection.prepareStatement(UPSERT_CROP)) {
+            for (Map.Entry<UUID, String> entry : names.entrySet()) {
+                players.setString(1, entry.getKey().toString());
+                players.setString(2, entry.getValue());
+                players.setString(3, entry.getValue().toLowerCase());
+                players.addBatch();
+            }
+            for (AnalyticsManager.DailyTotals day : daily) {
+                totals.setString(1, day.playerId.toString());
+                totals.setLong(2, day.harvested);
+                totals.setLong(3, day.massHarvests);
+                totals.setDouble(4, day.earned);
+                totals.addBatch();
+
+                days.setString(1, day.playerId.toString());
+                days.setLong(2, day.day);
+                days.setLong(3, day.harvested);
+                days.setLong(4, day.massHarvests);
+                days.setDouble(5, day.earned);
+                days.addBatch();
+            }
+            for (AnalyticsManager.CropTotal crop : crops) {
+                cropTotals.setString(1, crop.playerId.toString());
+                cropTotals.setString(2, crop.crop);
+                cropTotals.setLong(3, crop.harvested);
+                cropTotals.addBatch();
+            }
+
+            players.executeBatch();
+            totals.executeBatch();
+            days.executeBatch();
+            cropTotals.executeBatch();
+            connection.commit();
+        } catch (SQLException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(true);
+        }
+    }
+
+    /**
+     * The players with the most crops harvested, or the most money earned.
+     */
+    List<AnalyticsManager.TopEntry> queryTop(boolean byEarned, int limit) throws SQLException {
+        String sql = "SELECT t.uuid, p.name, t.harvested, t.earned FROM player_totals t "
+            + "LEFT JOIN players p ON p.uuid = t.uuid ORDER BY " + (byEarned ? "t.earned" : "t.harvested")
+            + " DESC LIMIT ?";
+        List<AnalyticsManager.TopEntry> entries = new ArrayList<>();
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setInt(1, limit);
+            try (ResultSet result = statement.executeQuery()) {
+                while (result.next()) {
+                    String name = result.getString(2);
+                    entries.add(new AnalyticsManager.TopEntry(name != null ? name : result.getString(1),
+                                                              result.getLong(3), result.getDouble(4)));
+                }
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * Look up a player's id by the name they last harvested under.
+     *
+     * @return the id, or null if the player never harvested
+     */
+    UUID findPlayer(String name) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("SELECT uuid FROM players WHERE name_lower = ?")) {
+            statement.setString(1, name.toLowerCase());
+            try (ResultSet result = statement.executeQuery()) {
+                return result.next() ? UUID.fromString(result.getString(1)) : null;
+            }
+        }
+    }
+
+    /**
+     * A player's totals for each of the days since {@code fromDay}, newest first.
+     */
+    List<AnalyticsManager.DailyTotals> queryDays(UUID playerId, long fromDay) throws SQLException {
+        List<AnalyticsManager.DailyTotals> days = new ArrayList<>();
+        try (PreparedStatement statement = connection.prepareStatement(
+                "SELECT day, harvested, mass_harvests, earned FROM player_daily WHERE uuid = ? AND day >= ? ORDER BY day DESC")) {
+            statement.setString(1, playerId.toString());
+            statement.setLong(2, fromDay);
+            try (ResultSet result = statement.executeQuery()) {
+                while (result.next()) {
+                    AnalyticsManager.DailyTotals day = new AnalyticsManager.DailyTotals(playerId, result.getLong(1));
+                    day.harvested = result.getLong(2);
+                    day.massHarvests = result.getLong(3);
+                    day.earned = result.getDouble(4);
+                    days.add(day);
+                }
+            }
+        }
+        return days;
+    }
+
+    /**
+     * A player's most harvested crops of all time.
+     */
+    List<AnalyticsManager.CropTotal> queryCrops(UUID playerId, int limit) throws SQLException {
+        List<AnalyticsManager.CropTotal> crops = new ArrayList<>();
+        try (PreparedStatement statement = connection.prepareStatement(
+                "SELECT crop, harvested FROM crop_totals WHERE uuid = ? ORDER BY harvested DESC LIMIT ?")) {
+            statement.setString(1, playerId.toString());
+            statement.setInt(2, limit);
+            try (ResultSet result = statement.executeQuery()) {
+                while (result.next()) {
+                    AnalyticsManager.CropTotal crop = new AnalyticsManager.CropTotal(playerId, result.getString(1));
+                    crop.harvested = result.getLong(2);
+                    crops.add(crop);
+                }
+            }
+        }
+        return crops;
+    }
+}
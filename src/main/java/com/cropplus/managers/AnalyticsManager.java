@@ -0,0 +1,416 @@
+package com.cropplus.managers;
+
+import com.cropplus.CropPlus;
+import org.bukkit.Material;
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+
+import java.io.File;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+
+/**
+ * Per-player and per-crop harvest totals, money earned and leaderboards.
+ * <p>
+ * Harvests only drop a fixed-size record into a {@link HarvestRecordBuffer}.
+ * A dedicated writer thread sums the records and adds them to the SQLite
+ * database in batches, and also runs the queries behind /cropplus top and
+ * /cropplus history, whose replies go back through the scheduler.
+ */
+public class AnalyticsManager {
+
+    private static final String DATABASE_FILE = "analytics.db";
+    private static final int KIND_HARVEST = 1;
+    private static final int KIND_MASS_HARVEST = 2;
+    private static final int KIND_PAYOUT = 3;
+    private static final int WRITE_BATCH = 8192;
+    private static final long SHUTDOWN_TIMEOUT_MILLIS = 5000L;
+    private static final int TOP_SIZE = 10;
+    private static final int HISTORY_DAYS = 7;
+    private static final int HISTORY_CROPS = 5;
+    private static final Material[] MATERIALS = Material.values();
+
+    private final CropPlus plugin;
+    private final HarvestRecordBuffer buffer;
+    private final AnalyticsDatabase database;
+    private final Map<UUID, String> pendingNames = new ConcurrentHashMap<>();
+    private final Queue<Runnable> queries = new ConcurrentLinkedQueue<>();
+    private final long flushIntervalNanos;
+    private final Thread writer;
+    private volatile boolean running;
+    private volatile boolean databaseOpen;
+
+    public AnalyticsManager(CropPlus plugin) {
+        this.plugin = plugin;
+        if (!plugin.getConfigManager().isAnalyticsEnabled()) {
+            this.buffer = null;
+            this.database = null;
+            this.flushIntervalNanos = 0;
+            this.writer = null;
+            return;
+        }
+
+        this.buffer = new HarvestRecordBuffer(plugin.getConfigManager().getAnalyticsBufferSize());
+        this.database = new AnalyticsDatabase(new File(plugin.getDataFolder(), DATABASE_FILE));
+        this.flushIntervalNanos = TimeUnit.SECONDS.toNanos(plugin.getConfigManager().getAnalyticsFlushInterval());
+        for (Player player : plugin.getServer().getOnlinePlayers()) {
+            recordName(player);
+        }
+
+        this.running = true;
+        this.writer = new Thread(this::run, "CropPlus-Analytics");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    public boolean isEnabled() {
+        return running;
+    }
+
+    /**
+     * Count crops a player harvested.
+     */
+    public void recordHarvest(UUID playerId, Material crop, int count) {
+        if (running) {
+            buffer.offer(KIND_HARVEST, playerId, crop.ordinal(), count, 0.0, System.currentTimeMillis());
+        }
+    }
+
+    /**
+     * Count a finished mass harvest.
+     */
+    public void recordMassHarvest(UUID playerId, int harvested) {
+        if (running) {
+            buffer.offer(KIND_MASS_HARVEST, playerId, -1, harvested, 0.0, System.currentTimeMillis());
+        }
+    }
+
+    /**
+     * Count money paid out to a player for harvesting.
+     */
+    public void recordPayout(UUID playerId, double amount) {
+        if (running) {
+            buffer.offer(KIND_PAYOUT, playerId, -1, 0, amount, System.currentTimeMillis());
+        }
+    }
+
+    /**
+     * Remember a player's current name, for the leaderboard and name lookups.
+     */
+    public void recordName(Player player) {
+        if (running) {
+            pendingNames.put(player.getUniqueId(), player.getName());
+        }
+    }
+
+    /**
+     * Records dropped because the writer fell behind.
+     */
+    public long getDroppedRecords() {
+        return buffer != null ? buffer.getDropped() : 0;
+    }
+
+    /**
+     * Send the leaderboard, by crops harvested or by money earned.
+     */
+    public void showTop(CommandSender sender, boolean byEarned) {
+        query(sender, () -> database.queryTop(byEarned, TOP_SIZE), entries -> {
+            sender.sendMessage("§a§l=== Top Farmers (" + (byEarned ? "money earned" : "crops harvested") + ") ===");
+            if (entries.isEmpty()) {
+                sender.sendMessage("§7Nobody has harvested anything yet.");
+            }
+            int rank = 1;
+            for (TopEntry entry : entries) {
+                sender.sendMessage("§7" + rank++ + ". §e" + entry.name + "§7: §e" + entry.harvested + "§7 crops, §e" +
+                                   plugin.getEconomyManager().format(entry.earned));
+            }
+        });
+    }
+
+    /**
+     * Send a player's harvests over the last few days and their most harvested crops.
+     *
+     * @param playerId the player, or null to look them up by name
+     */
+    public void showHistory(CommandSender sender, UUID playerId, String playerName) {
+        long today = LocalDate.now(ZoneId.systemDefault()).toEpochDay();
+        query(sender, () -> {
+            UUID id = playerId != null ? playerId : database.findPlayer(playerName);
+            if (id == null) {
+                return null;
+            }
+            return new History(database.queryDays(id, today - HISTORY_DAYS + 1), database.queryCrops(id, HISTORY_CROPS));
+        }, history -> {
+            if (history == null) {
+                sender.sendMessage("§cNo harvests recorded for " + playerName);
+                return;
+            }
+            sender.sendMessage("§a§l=== Harvest History: " + playerName + " ===");
+            if (history.days.isEmpty()) {
+                sender.sendMessage("§7Nothing harvested in the last " + HISTORY_DAYS + " days.");
+            }
+            for (DailyTotals day : history.days) {
+                sender.sendMessage("§7- " + LocalDate.ofEpochDay(day.day) + ": §e" + day.harvested + "§7 crops, §e" +
+                                   day.massHarvests + "§7 mass harvests, §e" + plugin.getEconomyManager().format(day.earned));
+            }
+            if (!history.crops.isEmpty()) {
+                StringBuilder crops = new StringBuilder("§7Most harvested: ");
+                for (int i = 0; i < history.crops.size(); i++) {
+                    CropTotal crop = history.crops.get(i);
+                    crops.append(i > 0 ? "§7, " : "").append("§e").append(crop.crop.toLowerCase()).append(" §7x")
+                         .append(crop.harvested);
+                }
+                sender.sendMessage(crops.toString());
+            }
+        });
+    }
+
+    /**
+     * Write what is still buffered and stop the writer.
+     */
+    public void shutdown() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(writer);
+        try {
+            writer.join(SHUTDOWN_TIMEOUT_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Run a query on the writer thread and hand its result to {@code reply}
+     * on the thread that may message the sender.
+     */
+    private <T> void query(CommandSender sender, Query<T> query, Consumer<T> reply) {
+        if (!running) {
+            sender.sendMessage("§eAnalytics are disabled; set analytics.enabled in config.yml.");
+            return;
+        }
+        queries.add(() -> {
+            if (!databaseOpen) {
+                replyFailed(sender);
+                return;
+            }
+            try {
+                T result = query.run();
+                replyTo(sender, () -> reply.accept(result));
+            } catch (SQLException e) {
+                plugin.getLogger().log(Level.WARNING, "Analytics query failed", e);
+                replyFailed(sender);
+            }
+        });
+        if (!running && !databaseOpen) {
+            // The database failed to open after the check above; answer now instead of never
+            runQueries();
+        }
+        LockSupport.unpark(writer);
+    }
+
+    private void replyFailed(CommandSender sender) {
+        replyTo(sender, () -> sender.sendMessage("§cCould not read the harvest statistics."));
+    }
+
+    private void replyTo(CommandSender sender, Runnable reply) {
+        if (!plugin.isEnabled()) {
+            return;
+        }
+        if (sender instanceof Player) {
+            plugin.getTaskScheduler().runForEntity((Player) sender, reply);
+        } else {
+            plugin.getTaskScheduler().runGlobal(reply);
+        }
+    }
+
+    private void run() {
+        try {
+            database.open();
+        } catch (SQLException e) {
+            plugin.getLogger().log(Level.WARNING, "Could not open " + DATABASE_FILE + "; analytics are disabled", e);
+            running = false;
+            // Answer the queries that were already waiting
+            runQueries();
+            return;
+        }
+        databaseOpen = true;
+
+        try {
+            while (running) {
+                runQueries();
+                writeRecords();
+                LockSupport.parkNanos(this, flushIntervalNanos);
+            }
+            // Shutting down: keep what was harvested right up to the end
+            writeRecords();
+        } finally {
+            databaseOpen = false;
+            database.close();
+        }
+    }
+
+    private void runQueries() {
+        Runnable query;
+        while ((query = queries.poll()) != null) {
+            query.run();
+        }
+    }
+
+    /**
+     * Sum up the buffered records and add them to the database, a batch at a time.
+     */
+    private void writeRecords() {
+        Batch batch = new Batch();
+        int drained;
+        do {
+            batch.clear();
+            drained = buffer.drain(batch, WRITE_BATCH);
+            for (Iterator<Map.Entry<UUID, String>> iterator = pendingNames.entrySet().iterator(); iterator.hasNext(); ) {
+                Map.Entry<UUID, String> entry = iterator.next();
+                batch.names.put(entry.getKey(), entry.getValue());
+                iterator.remove();
+            }
+            if (drained == 0 && batch.names.isEmpty()) {
+                return;
+            }
+
+            try {
+                database.write(batch.names, batch.dailyTotals(), batch.cropTotals());
+            } catch (SQLException e) {
+                plugin.getLogger().log(Level.WARNING, "Could not write " + drained + " analytics records", e);
+                return;
+            }
+        } while (drained == WRITE_BATCH);
+    }
+
+    @FunctionalInterface
+    private interface Query<T> {
+        T run() throws SQLException;
+    }
+
+    /**
+     * Records drained in one go, summed per player and day and per player and crop.
+     */
+    private static final class Batch implements HarvestRecordBuffer.RecordConsumer {
+
+        private final Map<UUID, String> names = new HashMap<>();
+        private final Map<UUID, Map<Long, DailyTotals>> days = new HashMap<>();
+        private final Map<UUID, Map<String, CropTotal>> crops = new HashMap<>();
+
+        @Override
+        public void accept(int kind, long playerMost, long playerLeast, int crop, int count, double amount, long time) {
+            UUID playerId = new UUID(playerMost, playerLeast);
+            // Days follow the server's time zone, like the dates /cropplus history shows
+            long day = LocalDate.ofInstant(Instant.ofEpochMilli(time), ZoneId.systemDefault()).toEpochDay();
+            DailyTotals totals = days.computeIfAbsent(playerId, id -> new HashMap<>())
+                                     .computeIfAbsent(day, d -> new DailyTotals(playerId, d));
+            switch (kind) {
+                case KIND_HARVEST:
+                    totals.harvested += count;
+                    if (crop >= 0 && crop < MATERIALS.length) {
+                        String cropName = MATERIALS[crop].name();
+                        crops.computeIfAbsent(playerId, id -> new HashMap<>())
+                             .computeIfAbsent(cropName, name -> new CropTotal(playerId, name)).harvested += count;
+                    }
+                    break;
+                case KIND_MASS_HARVEST:
+                    totals.massHarvests++;
+                    break;
+                case KIND_PAYOUT:
+                    totals.earned += amount;
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        private List<DailyTotals> dailyTotals() {
+            List<DailyTotals> totals = new ArrayList<>();
+            for (Map<Long, DailyTotals> playerDays : days.values()) {
+                totals.addAll(playerDays.values());
+            }
+            return totals;
+        }
+
+        private List<CropTotal> cropTotals() {
+            List<CropTotal> totals = new ArrayList<>();
+            for (Map<String, CropTotal> playerCrops : crops.values()) {
+                totals.addAll(playerCrops.values());
+            }
+            return totals;
+        }
+
+        private void clear() {
+            names.clear();
+            days.clear();
+            crops.clear();
+        }
+    }
+
+    static final class DailyTotals {
+
+        final UUID playerId;
+        final long day;
+        long harvested;
+        long massHarvests;
+        double earned;
+
+        DailyTotals(UUID playerId, long day) {
+            this.playerId = playerId;
+            this.day = day;
+        }
+    }
+
+    static final class CropTotal {
+
+        final UUID playerId;
+        final String crop;
+        long harvested;
+
+        CropTotal(UUID playerId, String crop) {
+            this.playerId = playerId;
+            this.crop = crop;
+        }
+    }
+
+    static final class TopEntry {
+
+        final String name;
+        final long harvested;
+        final double earned;
+
+        TopEntry(String name, long harvested, double earned) {
+            this.name = name;
+            this.harvested = harvested;
+            this.earned = earned;
+        }
+    }
+
+    private static final class History {
+
+        private final List<DailyTotals> days;
+        private final List<CropTotal> crops;
+
+        private History(List<DailyTotals> days, List<CropTotal> crops) {
+            this.days = days;
+            this.crops = crops;
+        }
+    }
+}
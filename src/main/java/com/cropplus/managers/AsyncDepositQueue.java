@@ -0,0 +1,228 @@
+package com.cropplus.managers;
+
+import com.cropplus.CropPlus;
+import net.milkbowl.vault.economy.Economy;
+import net.milkbowl.vault.economy.EconomyResponse;
+import org.bukkit.OfflinePlayer;
+import org.bukkit.configuration.file.YamlConfiguration;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Performs Vault deposits on a dedicated worker thread.
+ * <p>
+ * Only used for economy providers the server owner has marked as thread-safe.
+ * Deposits that fail are retried a few times. The worker writes a deposit to a
+ * journal file as soon as it gives up on it, and anything still queued when it
+ * stops; the journal is replayed the next time the economy is set up.
+ */
+class AsyncDepositQueue {
+
+    private static final String JOURNAL_FILE = "pending-deposits.yml";
+    private static final long RETRY_DELAY_MILLIS = 250L;
+    private static final long SHUTDOWN_TIMEOUT_MILLIS = 5000L;
+
+    private final CropPlus plugin;
+    private final Economy economy;
+    private final BlockingQueue<Deposit> queue;
+    private final int capacity;
+    private final int maxRetries;
+    private final DepositListener onDeposited;
+    private final Thread worker;
+    private volatile boolean running = true;
+
+    /**
+     * @param onDeposited called on the worker thread after each successful deposit
+     */
+    AsyncDepositQueue(CropPlus plugin, Economy economy, int capacity, int maxRetries,
+                      DepositListener onDeposited) {
+        this.plugin = plugin;
+        this.economy = economy;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.capacity = capacity;
+        this.maxRetries = maxRetries;
+        this.onDeposited = onDeposited;
+        this.worker = new Thread(this::run, "CropPlus-Economy");
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    /**
+     * Queue a deposit.
+     *
+     * @param replayed whether the deposit comes from the journal
+     * @return false if the queue is full or shutting down; the caller should deposit synchronously
+     */
+    boolean submit(OfflinePlayer player, double amount, boolean replayed) {
+        return running && queue.offer(new Deposit(player, amount, replayed));
+    }
+
+    /**
+     * Whether this queue was started with these settings.
+     */
+    boolean matches(Economy economy, int capacity, int maxRetries) {
+        return this.economy == economy && this.capacity == capacity && this.maxRetries == maxRetries;
+    }
+
+    /**
+     * Stop taking deposits without waiting: the worker finishes what is queued
+     * and journals anything it cannot deposit on its own thread.
+     */
+    void stop() {
+        running = false;
+    }
+
+    /**
+     * Stop the worker, giving it a few seconds to finish what is queued,
+     * and journal whatever could not be deposited.
+     */
+    void shutdown() {
+        stop();
+        try {
+            worker.join(SHUTDOWN_TIMEOUT_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (worker.isAlive()) {
+            // Cut short any retry back-off so the in-flight deposit lands in the journal
+            worker.interrupt();
+            try {
+                worker.join(RETRY_DELAY_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        // Left behind if the worker is stuck in a deposit
+        journalQueued();
+    }
+
+    private void run() {
+        while (running || !queue.isEmpty()) {
+            Deposit deposit;
+            try {
+                deposit = queue.poll(100, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                break;
+            }
+            if (deposit != null) {
+                process(deposit);
+            }
+        }
+        // Interrupted, or submitted just as the worker stopped
+        journalQueued();
+    }
+
+    private void journalQueued() {
+        List<Deposit> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        writeJournal(plugin, remaining);
+    }
+
+    private void process(Deposit deposit) {
+        for (int attempt = 0; attempt <= maxRetries; attempt++) {
+            try {
+                long start = plugin.getMetricsManager().start();
+                EconomyResponse response = economy.depositPlayer(deposit.player, deposit.amount);
+                plugin.getMetricsManager().record(MetricsManager.Stage.DEPOSIT, start);
+                if (response == null || response.transactionSuccess()) {
+                    onDeposited.accept(deposit.player.getUniqueId(), deposit.amount, deposit.replayed);
+                    return;
+                }
+                plugin.getLogger().warning("Deposit for " + deposit.player.getName() + " failed: " + response.errorMessage);
+            } catch (Exception e) {
+                plugin.getLogger().warning("Deposit for " + deposit.player.getName() + " failed: " + e.getMessage());
+            }
+
+            try {
+                Thread.sleep(RETRY_DELAY_MILLIS * (attempt + 1));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+
+        plugin.getLogger().warning("Giving up on deposit of " + deposit.amount + " for " +
+                                   deposit.player.getName() + "; it will be retried on next startup");
+        writeJournal(plugin, List.of(deposit));
+    }
+
+    /**
+     * Append deposits to the journal, merging amounts per player.
+     */
+    static synchronized void writeJournal(CropPlus plugin, List<Deposit> deposits) {
+        if (deposits.isEmpty()) {
+            return;
+        }
+
+        File file = new File(plugin.getDataFolder(), JOURNAL_FILE);
+        YamlConfiguration journal = YamlConfiguration.loadConfiguration(file);
+        for (Deposit deposit : deposits) {
+            String path = "pending." + deposit.player.getUniqueId();
+            journal.set(path, journal.getDouble(path, 0.0) + deposit.amount);
+        }
+
+        try {
+            journal.save(file);
+            plugin.getLogger().info("Saved " + deposits.size() + " pending deposits to " + JOURNAL_FILE);
+        } catch (IOException e) {
+            plugin.getLogger().severe("Could not save pending deposits: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Read and delete the journal.
+     *
+     * @return amount owed per player
+     */
+    static synchronized Map<UUID, Double> readJournal(CropPlus plugin) {
+        Map<UUID, Double> pending = new HashMap<>();
+        File file = new File(plugin.getDataFolder(), JOURNAL_FILE);
+        if (!file.exists()) {
+            return pending;
+        }
+
+        YamlConfiguration journal = YamlConfiguration.loadConfiguration(file);
+        if (journal.isConfigurationSection("pending")) {
+            for (String key : journal.getConfigurationSection("pending").getKeys(false)) {
+                try {
+                    pending.put(UUID.fromString(key), journal.getDouble("pending." + key));
+                } catch (IllegalArgumentException e) {
+                    plugin.getLogger().warning("Skipping invalid journal entry: " + key);
+                }
+            }
+        }
+
+        if (!file.delete()) {
+            plugin.getLogger().warning("Could not delete " + JOURNAL_FILE + " after reading it");
+        }
+        return pending;
+    }
+
+    static final class Deposit {
+
+        private final OfflinePlayer player;
+        private final double amount;
+        private final boolean replayed;
+
+        Deposit(OfflinePlayer player, double amount, boolean replayed) {
+            this.player = player;
+            this.amount = amount;
+            this.replayed = replayed;
+        }
+    }
+
+    @FunctionalInterface
+    interface DepositListener {
+        void accept(UUID playerId, double amount, boolean replayed);
+    }
+}
@@ -0,0 +1,326 @@
+package com.cropplus.managers;
+
+import com.cropplus.CropPlus;
+import com.cropplus.models.CropInfo;
+import com.cropplus.scheduler.TaskHandle;
+import com.cropplus.scheduler.TaskScheduler;
+import com.cropplus.utils.BlockKey;
+import com.cropplus.utils.LongObjectHashMap;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.block.BlockState;
+import org.bukkit.block.Container;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.inventory.ItemStack;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Auto-harvest zones: farms that CropPlus harvests and replants by itself,
+ * putting the drops into a linked container.
+ * <p>
+ * Nothing is scanned. Zones are indexed by the chunks they overlap, and a
+ * crop that finishes growing inside one (a {@code BlockGrowEvent}) is queued
+ * on its zone. A repeating task then works through the queued crops under a
+ * crop and time budget per run shared by all zones, so idle farms cost
+ * nothing and busy ones a bounded amount however many there are.
+ */
+public class AutoHarvestManager {
+
+    private static final String ZONES_FILE = "zones.yml";
+
+    private final CropPlus plugin;
+    private final Map<String, AutoHarvestZone> zones = new LinkedHashMap<>();
+    // Rebuilt whenever the zones change, so the growth listener reads it without locking
+    private volatile Map<UUID, LongObjectHashMap<AutoHarvestZone[]>> index = Collections.emptyMap();
+    private final Queue<AutoHarvestZone> queue = new ConcurrentLinkedQueue<>();
+    private final DropRounding rounding = new DropRounding();
+    private volatile boolean enabled;
+    private TaskHandle task;
+
+    public AutoHarvestManager(CropPlus plugin) {
+        this.plugin = plugin;
+        load();
+        reload();
+    }
+
+    /**
+     * Apply the current settings, re-resolve the zones' worlds and (re)start the harvest task.
+     */
+    public void reload() {
+        stopTask();
+        enabled = plugin.getConfigManager().isAutoHarvestEnabled();
+        rebuildIndex();
+        if (enabled) {
+            long interval = plugin.getConfigManager().getAutoHarvestInterval();
+            task = plugin.getTaskScheduler().runGlobalTimer(this::tick, interval, interval);
+        }
+    }
+
+    public void stopTask() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+    }
+
+    /**
+     * Link a new zone to a container.
+     *
+     * @return the zone, or null if the name is taken
+     */
+    public synchronized AutoHarvestZone createZone(String name, Block container, int radius) {
+        String key = name.toLowerCase();
+        if (zones.containsKey(key)) {
+            return null;
+        }
+        AutoHarvestZone zone = new AutoHarvestZone(name, container.getWorld().getName(), container.getX(),
+                                                   container.getY(), container.getZ(), radius);
+        zones.put(key, zone);
+        rebuildIndex();
+        save();
+        return zone;
+    }
+
+    public synchronized boolean removeZone(String name) {
+        AutoHarvestZone zone = zones.remove(name.toLowerCase());
+        if (zone == null) {
+            return false;
+        }
+        zone.clearReady();
+        rebuildIndex();
+        save();
+        return true;
+    }
+
+    public synchronized List<AutoHarvestZone> getZones() {
+        return new ArrayList<>(zones.values());
+    }
+
+    /**
+     * Queue a crop that is about to reach a new growth stage, if it will be fully
+     * grown and lies in a zone.
+     *
+     * @param newState the block as it will be after growing
+     */
+    public void onCropGrow(Block block, BlockState newState) {
+        if (!enabled) {
+            return;
+        }
+
+        // Most growth happens outside any zone, so rule that out before anything else
+        LongObjectHashMap<AutoHarvestZone[]> chunks = index.get(block.getWorld().getUID());
+        if (chunks == null) {
+            return;
+        }
+        int x = block.getX();
+        int y = block.getY();
+        int z = block.getZ();
+        AutoHarvestZone[] candidates = chunks.get(BlockKey.chunkOfBlock(x, z));
+        if (candidates == null) {
+            return;
+        }
+
+        CropInfo cropInfo = plugin.getCropManager().getRegistry().getHarvestable(newState.getType());
+        if (cropInfo == null || !CropManager.isMature(newState.getBlockData(), cropInfo)) {
+            return;
+        }
+
+        for (AutoHarvestZone zone : candidates) {
+            if (zone.contains(x, y, z)) {
+                if (zone.markReady(BlockKey.block(x, y, z))) {
+                    queue.add(zone);
+                }
+                return;
+            }
+        }
+    }
+
+    /**
+     * One run of the harvest task: split the budget between the zones with
+     * ready crops, each harvested on the thread owning its container.
+     */
+    private void tick() {
+        int zoneCount = queue.size();
+        if (zoneCount == 0) {
+            return;
+        }
+
+        int budget = plugin.getConfigManager().getAutoHarvestCropsPerRun();
+        long nanos = plugin.getConfigManager().getAutoHarvestNanosPerRun();
+        int share = Math.max(1, budget / zoneCount);
+        TaskScheduler scheduler = plugin.getTaskScheduler();
+
+        if (scheduler.isRegionThreaded()) {
+            // Each region thread has its own tick, so every zone gets its own slice of the time budget
+            long zoneNanos = Math.max(1, nanos / zoneCount);
+            for (int i = 0; i < zoneCount; i++) {
+                AutoHarvestZone zone = queue.poll();
+                if (zone == null) {
+                    break;
+                }
+                World world = plugin.getServer().getWorld(zone.getWorldName());
+                if (world == null) {
+                    zone.clearReady();
+                    requeue(zone);
+                    continue;
+                }
+                scheduler.runAtChunk(world, zone.getContainerX() >> 4, zone.getContainerZ() >> 4,
+                                     () -> runZone(zone, share, System.nanoTime() + zoneNanos));
+            }
+            return;
+        }
+
+        long deadline = System.nanoTime() + nanos;
+        for (int i = 0; i < zoneCount && budget > 0 && System.nanoTime() < deadline; i++) {
+            AutoHarvestZone zone = queue.poll();
+            if (zone == null) {
+                break;
+            }
+            budget -= runZone(zone, Math.min(share, budget), deadline);
+        }
+    }
+
+    /**
+     * Harvest up to {@code budget} of a zone's ready crops into its container.
+     *
+     * @return the number of crops harvested
+     */
+    private int runZone(AutoHarvestZone zone, int budget, long deadline) {
+        long start = plugin.getMetricsManager().start();
+        World world = plugin.getServer().getWorld(zone.getWorldName());
+        if (world == null || !world.isChunkLoaded(zone.getContainerX() >> 4, zone.getContainerZ() >> 4)) {
+            // Try again once the farm is loaded
+            requeue(zone);
+            return 0;
+        }
+
+        BlockState state = world.getBlockAt(zone.getContainerX(), zone.getContainerY(), zone.getContainerZ()).getState();
+        if (!(state instanceof Container)) {
+            // The container is gone; nothing to harvest into until it is replaced and the crops grow again
+            zone.clearReady();
+            requeue(zone);
+            return 0;
+        }
+
+        CropManager cropManager = plugin.getCropManager();
+        TaskScheduler scheduler = plugin.getTaskScheduler();
+        HarvestDrops drops = new HarvestDrops();
+        int harvested = 0;
+
+        while (harvested < budget && zone.hasReady()) {
+            long blockKey = zone.pollReady();
+            int x = BlockKey.blockX(blockKey);
+            int z = BlockKey.blockZ(blockKey);
+            // Crops that were unloaded, or moved to another region on Folia, are left for the players
+            if (!world.isChunkLoaded(x >> 4, z >> 4) || !scheduler.isOwnedByCurrentThread(world, x >> 4, z >> 4)) {
+                continue;
+            }
+
+            Block block = world.getBlockAt(x, BlockKey.blockY(blockKey), z);
+            CropInfo cropInfo = cropManager.getMatureCrop(block);
+            // Someone may have harvested or trampled it since it grew
+            if (cropInfo != null && cropManager.harvestCrop(block, cropInfo, rounding, drops)) {
+                harvested++;
+            }
+
+            if (System.nanoTime() >= deadline) {
+                break;
+            }
+        }
+
+        if (!drops.isEmpty()) {
+            List<ItemStack> leftover = drops.addTo(((Container) state).getInventory());
+            if (!leftover.isEmpty()) {
+                // Spill what does not fit next to the container, like an overflowing farm
+                cropManager.dropStacks(state.getLocation().add(0.5, 1.0, 0.5), leftover);
+            }
+        }
+
+        requeue(zone);
+        plugin.getMetricsManager().record(MetricsManager.Stage.AUTO_HARVEST, start);
+        return harvested;
+    }
+
+    private void requeue(AutoHarvestZone zone) {
+        if (zone.finishRun()) {
+            queue.add(zone);
+        }
+    }
+
+    private synchronized void rebuildIndex() {
+        Map<UUID, LongObjectHashMap<AutoHarvestZone[]>> rebuilt = new HashMap<>();
+        for (AutoHarvestZone zone : zones.values()) {
+            World world = plugin.getServer().getWorld(zone.getWorldName());
+            if (world == null) {
+                continue;
+            }
+            LongObjectHashMap<AutoHarvestZone[]> chunks = rebuilt.computeIfAbsent(world.getUID(), id -> new LongObjectHashMap<>());
+            int radius = zone.getRadius();
+            for (int chunkX = (zone.getContainerX() - radius) >> 4; chunkX <= (zone.getContainerX() + radius) >> 4; chunkX++) {
+                for (int chunkZ = (zone.getContainerZ() - radius) >> 4; chunkZ <= (zone.getContainerZ() + radius) >> 4; chunkZ++) {
+                    long chunkKey = BlockKey.chunk(chunkX, chunkZ);
+                    AutoHarvestZone[] existing = chunks.get(chunkKey);
+                    AutoHarvestZone[] updated = existing == null ? new AutoHarvestZone[1] : Arrays.copyOf(existing, existing.length + 1);
+                    updated[updated.length - 1] = zone;
+                    chunks.put(chunkKey, updated);
+                }
+            }
+        }
+        index = rebuilt;
+    }
+
+    private synchronized void load() {
+        File file = new File(plugin.getDataFolder(), ZONES_FILE);
+        if (!file.exists()) {
+            return;
+        }
+
+        YamlConfiguration config = YamlConfiguration.loadConfiguration(file);
+        ConfigurationSection section = config.getConfigurationSection("zones");
+        if (section == null) {
+            return;
+        }
+        for (String name : section.getKeys(false)) {
+            ConfigurationSection zone = section.getConfigurationSection(name);
+            if (zone == null || zone.getString("world") == null) {
+                plugin.getLogger().warning("Skipping invalid auto-harvest zone in " + ZONES_FILE + ": " + name);
+                continue;
+            }
+            zones.put(name.toLowerCase(), new AutoHarvestZone(name, zone.getString("world"), zone.getInt("x"),
+                                                              zone.getInt("y"), zone.getInt("z"),
+                                                              Math.max(0, zone.getInt("radius"))));
+        }
+    }
+
+    private synchronized void save() {
+        YamlConfiguration config = new YamlConfiguration();
+        for (AutoHarvestZone zone : zones.values()) {
+            String path = "zones." + zone.getName() + ".";
+            config.set(path + "world", zone.getWorldName());
+            config.set(path + "x", zone.getContainerX());
+            config.set(path + "y", zone.getContainerY());
+            config.set(path + "z", zone.getContainerZ());
+            config.set(path + "radius", zone.getRadius());
+        }
+
+        File file = new File(plugin.getDataFolder(), ZONES_FILE);
+        try {
+            config.save(file);
+        } catch (IOException e) {
+            plugin.getLogger().warning("Could not save " + ZONES_FILE + ": " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.cropplus.managers;
+
+import java.util.Arrays;
+
+/**
+ * An auto-harvest zone: a cube of farmland around a linked container, and the
+ * crops in it that have finished growing but are not harvested yet.
+ * <p>
+ * Ready crops are queued as packed block keys by the growth listener and
+ * drained by the auto-harvest task, possibly on different threads, so the
+ * queue methods are synchronized.
+ */
+public final class AutoHarvestZone {
+
+    private final String name;
+    private final String worldName;
+    private final int containerX;
+    private final int containerY;
+    private final int containerZ;
+    private final int radius;
+
+    // FIFO ring of ready crops
+    private long[] ready = new long[16];
+    private int head;
+    private int size;
+    // Whether the zone is waiting in the auto-harvest queue
+    private boolean queued;
+
+    AutoHarvestZone(String name, String worldName, int containerX, int containerY, int containerZ, int radius) {
+        this.name = name;
+        this.worldName = worldName;
+        this.containerX = containerX;
+        this.containerY = containerY;
+        this.containerZ = containerZ;
+        this.radius = radius;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getWorldName() {
+        return worldName;
+    }
+
+    public int getContainerX() {
+        return containerX;
+    }
+
+    public int getContainerY() {
+        return containerY;
+    }
+
+    public int getContainerZ() {
+        return containerZ;
+    }
+
+    public int getRadius() {
+        return radius;
+    }
+
+    public synchronized int getReadyCount() {
+        return size;
+    }
+
+    boolean contains(int x, int y, int z) {
+        return Math.abs(x - containerX) <= radius && Math.abs(y - containerY) <= radius
+            && Math.abs(z - containerZ) <= radius;
+    }
+
+    /**
+     * Queue a crop that has finished growing.
+     *
+     * @return true if the zone had nothing queued and now needs a harvest run
+     */
+    synchronized boolean markReady(long blockKey) {
+        int side = radius * 2 + 1;
+        if (size >= side * side * side) {
+            // Only repeated events for the same crops can get here
+            return false;
+        }
+        if (size == ready.length) {
+            long[] grown = new long[ready.length * 2];
+            for (int i = 0; i < size; i++) {
+                grown[i] = ready[(head + i) & (ready.length - 1)];
+            }
+            ready = grown;
+            head = 0;
+        }
+        ready[(head + size) & (ready.length - 1)] = blockKey;
+        size++;
+
+        if (queued) {
+            return false;
+        }
+        queued = true;
+        return true;
+    }
+
+    synchronized boolean hasReady() {
+        return size > 0;
+    }
+
+    synchronized long pollReady() {
+        long blockKey = ready[head];
+        head = (head + 1) & (ready.length - 1);
+        size--;
+        return blockKey;
+    }
+
+    /**
+     * End a harvest run.
+     *
+     * @return true if crops are still queued, so the zone needs another run
+     */
+    synchronized boolean finishRun() {
+        queued = size > 0;
+        return queued;
+    }
+
+    synchronized void clearReady() {
+        Arrays.fill(ready, 0L);
+        head = 0;
+        size = 0;
+    }
+}
@@ -0,0 +1,253 @@
+package com.cropplus.managers;
+
+import com.cropplus.utils.BlockKey;
+import com.cropplus.utils.LongLongHashMap;
+import com.cropplus.utils.LongObjectHashMap;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Last-harvest timestamps for individual crop blocks.
+ * <p>
+ * Entries are sharded per world and per chunk and keyed by packed block
+ * coordinates, so a tracked block costs one key/value slot pair (16 bytes)
+ * instead of a String key and a boxed Long. Expired entries are dropped lazily
+ * when their chunk shard fills up, whole chunks are dropped when they unload,
+ * and the total number of entries never exceeds the configured cap.
+ * <p>
+ * {@link #sweep} walks the shards a bounded number of entries at a time,
+ * resuming where the previous call stopped.
+ * <p>
+ * Not thread-safe on its own; {@link StripedCooldownStore} guards it.
+ */
+final class BlockCooldownStore {
+
+    // Don't rescan everything more than once a second when the store is full
+    private static final long FULL_PURGE_INTERVAL = 1000L;
+
+    private final Map<UUID, LongObjectHashMap<LongLongHashMap>> worlds = new HashMap<>();
+    private int size;
+    private int maxEntries;
+    private long lastFullPurge;
+
+    // Sweep cursor: worlds still to visit in this pass, and the chunk slot to resume at
+    private final ArrayDeque<UUID> sweepQueue = new ArrayDeque<>();
+    private int sweepSlot;
+
+    BlockCooldownStore(int maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+
+    void setMaxEntries(int maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Check whether a block is still on cooldown and, if it is not, record the harvest.
+     *
+     * @param retention how long an entry can matter for any player; older entries are treated as absent
+     * @return true if the block is on cooldown
+     */
+    boolean checkAndSet(UUID worldId, int x, int y, int z, long now, long cooldown, long retention) {
+        long chunkKey = BlockKey.chunkOfBlock(x, z);
+        long blockKey = BlockKey.block(x, y, z);
+
+        LongObjectHashMap<LongLongHashMap> chunks = worlds.get(worldId);
+        LongLongHashMap shard = chunks != null ? chunks.get(chunkKey) : null;
+
+        if (shard != null) {
+            long lastUsed = shard.get(blockKey, Long.MIN_VALUE);
+            if (lastUsed != Long.MIN_VALUE) {
+                if (now - lastUsed < cooldown) {
+                    return true;
+                }
+                // Existing slot, so this can never grow the store
+                shard.put(blockKey, now);
+                return false;
+            }
+        }
+
+        if (size >= maxEntries && !makeRoom(now, retention)) {
+            // Hard cap reached with only live entries; skip tracking rather than grow
+            return false;
+        }
+
+        if (chunks == null) {
+            chunks = new LongObjectHashMap<>();
+            worlds.put(worldId, chunks);
+        }
+        if (shard == null) {
+            shard = new LongLongHashMap(8);
+            chunks.put(chunkKey, shard);
+        } else if (shard.size() >= 8 && (shard.size() & (shard.size() - 1)) == 0) {
+            // Each time a shard doubles, evict its expired entries first so it only grows for live ones
+            size -= purge(shard, now, retention);
+        }
+
+        shard.put(blockKey, now);
+        size++;
+        return false;
+    }
+
+    /**
+     * Put back a timestamp read from the journal, keeping a newer one already present.
+     *
+     * @return false if the store was full
+     */
+    boolean restore(UUID worldId, long blockKey, long lastUsed, long now, long retention) {
+        long chunkKey = BlockKey.chunkOfBlock(BlockKey.blockX(blockKey), BlockKey.blockZ(blockKey));
+        LongObjectHashMap<LongLongHashMap> chunks = worlds.get(worldId);
+        LongLongHashMap shard = chunks != null ? chunks.get(chunkKey) : null;
+
+        if (shard != null) {
+            long current = shard.get(blockKey, Long.MIN_VALUE);
+            if (current != Long.MIN_VALUE) {
+                if (current < lastUsed) {
+                    shard.put(blockKey, lastUsed);
+                }
+                return true;
+            }
+        }
+
+        if (size >= maxEntries && !makeRoom(now, retention)) {
+            return false;
+        }
+        if (chunks == null) {
+            chunks = new LongObjectHashMap<>();
+            worlds.put(worldId, chunks);
+        }
+        if (shard == null) {
+            shard = new LongLongHashMap(8);
+            chunks.put(chunkKey, shard);
+        }
+        shard.put(blockKey, lastUsed);
+        size++;
+        return true;
+    }
+
+    /**
+     * Forget every entry in a chunk.
+     */
+    void dropChunk(UUID worldId, int chunkX, int chunkZ) {
+        LongObjectHashMap<LongLongHashMap> chunks = worlds.get(worldId);
+        if (chunks == null) {
+            return;
+        }
+        LongLongHashMap shard = chunks.remove(BlockKey.chunk(chunkX, chunkZ));
+        if (shard != null) {
+            size -= shard.size();
+        }
+        if (chunks.isEmpty()) {
+            worlds.remove(worldId);
+        }
+    }
+
+    /**
+     * Forget every entry in a world.
+     */
+    void dropWorld(UUID worldId) {
+        LongObjectHashMap<LongLongHashMap> chunks = worlds.remove(worldId);
+        if (chunks != null) {
+            int[] removed = new int[1];
+            chunks.forEachValue(shard -> removed[0] += shard.size());
+            size -= removed[0];
+        }
+    }
+
+    /**
+     * Remove every entry older than the retention window.
+     *
+     * @return number of entries removed
+     */
+    int purgeExpired(long now, long retention) {
+        int before = size;
+        worlds.values().removeIf(chunks -> {
+            chunks.removeIfValue(shard -> {
+                size -= purge(shard, now, retention);
+                return shard.isEmpty();
+            });
+            return chunks.isEmpty();
+        });
+        return before - size;
+    }
+
+    /**
+     * Remove expired entries, visiting roughly {@code budget} entries before returning.
+     * The next call continues from where this one stopped.
+     *
+     * @return number of entries removed
+     */
+    int sweep(long now, long retention, int budget) {
+        if (sweepQueue.isEmpty()) {
+            sweepQueue.addAll(worlds.keySet());
+            sweepSlot = 0;
+        }
+
+        int visited = 0;
+        int removed = 0;
+        while (visited < budget && !sweepQueue.isEmpty()) {
+            UUID worldId = sweepQueue.peek();
+            LongObjectHashMap<LongLongHashMap> chunks = worlds.get(worldId);
+            if (chunks == null) {
+                sweepQueue.poll();
+                sweepSlot = 0;
+                continue;
+            }
+
+            while (visited < budget && sweepSlot < chunks.capacity()) {
+                LongLongHashMap shard = chunks.valueAt(sweepSlot);
+                if (shard == null) {
+                    sweepSlot++;
+                    continue;
+                }
+
+                visited += shard.size();
+                int purged = purge(shard, now, retention);
+                removed += purged;
+                size -= purged;
+
+                if (shard.isEmpty()) {
+                    // Removal may shift another chunk into this slot, so look at it again
+                    chunks.remove(chunks.keyAt(sweepSlot));
+                } else {
+                    sweepSlot++;
+                }
+            }
+
+            if (sweepSlot >= chunks.capacity()) {
+                if (chunks.isEmpty()) {
+                    worlds.remove(worldId);
+                }
+                sweepQueue.poll();
+                sweepSlot = 0;
+            }
+        }
+        return removed;
+    }
+
+    void clear() {
+        worlds.clear();
+        sweepQueue.clear();
+        size = 0;
+    }
+
+    private boolean makeRoom(long now, long retention) {
+        if (now - lastFullPurge < FULL_PURGE_INTERVAL) {
+            return false;
+        }
+        lastFullPurge = now;
+        purgeExpired(now, retention);
+        return size < maxEntries;
+    }
+
+    private static int purge(LongLongHashMap shard, long now, long retention) {
+        return shard.removeIf((key, lastUsed) -> now - lastUsed >= retention);
+    }
+}
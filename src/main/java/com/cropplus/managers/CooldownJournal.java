@@ -0,0 +1,359 @@
+package com.cropplus.managers;
+
+import com.cropplus.utils.LongLongHashMap;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.IntToLongFunction;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Append-only log of cooldown timestamps, so cooldowns survive a restart.
+ * <p>
+ * The file is memory-mapped and holds fixed 32-byte records after an 8-byte
+ * header of a magic number and the offset of the first record (0 meaning
+ * straight after the header). Each record is the world or player UUID, the packed block key (0 for player
+ * cooldowns), and the record type in the top byte of the timestamp. A record
+ * of zeros marks the end. Replaying keeps the newest timestamp per key, so a
+ * record that is written twice or superseded does no harm.
+ * <p>
+ * {@link #append} only copies the record into a pending array; {@link #flush}
+ * moves pending records into the file and is meant to run off the main thread.
+ * Once the file holds many more records than live keys, it is compacted down
+ * to the newest unexpired record per key, in steps that each leave a file
+ * that replays to the live state.
+ */
+final class CooldownJournal {
+
+    static final int CROP = 1;
+    static final int GLOBAL = 2;
+    static final int MASS_HARVEST = 3;
+
+    private static final int MAGIC = 0x43504A31; // "CPJ1"
+    private static final int HEADER_SIZE = 8;
+    private static final int START_OFFSET = 4;
+    private static final int RECORD_SIZE = 32;
+    private static final int RECORD_LONGS = 4;
+    private static final int TYPE_SHIFT = 56;
+    private static final long TIME_MASK = (1L << TYPE_SHIFT) - 1;
+    private static final int INITIAL_SIZE = 1 << 20;
+    // Compact once the file holds this many records more than twice the live keys
+    static final int COMPACT_SLACK = 1 << 17;
+    private static final byte[] ZEROS = new byte[RECORD_SIZE * 128];
+
+    private final Path file;
+    private final Logger logger;
+    private final IntToLongFunction retention;
+
+    private final Object pendingLock = new Object();
+    private long[] pending = new long[RECORD_LONGS * 256];
+    private int pendingSize;
+
+    // Owned by whichever thread holds the journal's monitor
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    private int start;
+    private int position;
+    private int liveAfterCompaction;
+    private volatile boolean ready;
+
+    /**
+     * @param retention how long a record of each type can still matter, in milliseconds
+     */
+    CooldownJournal(Path file, Logger logger, IntToLongFunction retention) {
+        this.file = file;
+        this.logger = logger;
+        this.retention = retention;
+    }
+
+    /**
+     * Queue a record. Safe to call from any thread; records queued before
+     * {@link #load} finishes are written once it has.
+     */
+    void append(int type, UUID id, long key, long time) {
+        synchronized (pendingLock) {
+            if (pendingSize + RECORD_LONGS > pending.length) {
+                pending = Arrays.copyOf(pending, pending.length * 2);
+            }
+            pending[pendingSize++] = id.getMostSignificantBits();
+            pending[pendingSize++] = id.getLeastSignificantBits();
+            pending[pendingSize++] = key;
+            pending[pendingSize++] = ((long) type << TYPE_SHIFT) | (time & TIME_MASK);
+        }
+    }
+
+    /**
+     * Open the journal and read back its unexpired entries. Blocks on file IO,
+     * so call it off the main thread.
+     */
+    synchronized State load() throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long fileSize = channel.size();
+        map((int) Math.min(Integer.MAX_VALUE, Math.max(INITIAL_SIZE, fileSize)));
+
+        State state = new State();
+        if (fileSize >= HEADER_SIZE && buffer.getInt(0) == MAGIC) {
+            start = buffer.getInt(START_OFFSET);
+            if (start < HEADER_SIZE || start >= buffer.capacity() || (start - HEADER_SIZE) % RECORD_SIZE != 0) {
+                start = HEADER_SIZE;
+            }
+            position = read(state);
+        } else {
+            if (fileSize > 0) {
+                logger.warning("Cooldown journal " + file.getFileName() + " is not readable, starting a new one");
+            }
+            zero(0, (int) Math.min(fileSize, buffer.capacity()));
+            buffer.putInt(0, MAGIC);
+            start = HEADER_SIZE;
+            position = HEADER_SIZE;
+        }
+
+        int records = (position - start) / RECORD_SIZE;
+        state.removeExpired(System.currentTimeMillis(), retention);
+        if (records > state.size() * 2 + COMPACT_SLACK) {
+            compact(state);
+        }
+        liveAfterCompaction = state.size();
+        ready = true;
+        return state;
+    }
+
+    /**
+     * Write pending records into the file, compacting it when it has grown too large.
+     */
+    synchronized void flush() {
+        if (!ready) {
+            return;
+        }
+
+        long[] records;
+        int size;
+        synchronized (pendingLock) {
+            if (pendingSize == 0) {
+                return;
+            }
+            records = pending;
+            size = pendingSize;
+            pending = new long[Math.max(RECORD_LONGS * 256, size)];
+            pendingSize = 0;
+        }
+
+        try {
+            int bytes = size / RECORD_LONGS * RECORD_SIZE;
+            if ((long) position + bytes > Integer.MAX_VALUE) {
+                compact(readState());
+            }
+            ensureCapacity(bytes);
+            for (int i = 0; i < size; i += RECORD_LONGS) {
+                writeRecord(records[i], records[i + 1], records[i + 2], records[i + 3]);
+            }
+
+            int written = (position - start) / RECORD_SIZE;
+            if (written > liveAfterCompaction * 2 + COMPACT_SLACK) {
+                compact(readState());
+            }
+        } catch (IOException | RuntimeException e) {
+            logger.log(Level.WARNING, "Could not write the cooldown journal", e);
+        }
+    }
+
+    /**
+     * Forget everything recorded so far.
+     */
+    synchronized void clear() {
+        synchronized (pendingLock) {
+            pendingSize = 0;
+        }
+        if (ready) {
+            setStart(HEADER_SIZE);
+            zero(HEADER_SIZE, position - HEADER_SIZE);
+            position = HEADER_SIZE;
+            liveAfterCompaction = 0;
+        }
+    }
+
+    /**
+     * Write what is pending, force the file to disk and close it.
+     */
+    synchronized void close() {
+        if (!ready) {
+            return;
+        }
+        flush();
+        ready = false;
+        try {
+            buffer.force();
+            channel.close();
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Could not close the cooldown journal", e);
+        }
+    }
+
+    private State readState() {
+        State state = new State();
+        read(state);
+        state.removeExpired(System.currentTimeMillis(), retention);
+        return state;
+    }
+
+    /**
+     * Read every record into a state, returning the offset just past the last one.
+     */
+    private int read(State state) {
+        int offset = start;
+        while (offset + RECORD_SIZE <= buffer.capacity()) {
+            long typeAndTime = buffer.getLong(offset + 24);
+            int type = (int) (typeAndTime >>> TYPE_SHIFT);
+            if (type < CROP || type > MASS_HARVEST) {
+                // End of the log, or a record torn by a crash
+                break;
+            }
+            state.add(type, buffer.getLong(offset), buffer.getLong(offset + 8), buffer.getLong(offset + 16),
+                      typeAndTime & TIME_MASK);
+            offset += RECORD_SIZE;
+        }
+        return offset;
+    }
+
+    /**
+     * Rewrite the file as one record per live key. The records are first
+     * appended after the log and the header pointed at them, then written again
+     * at the front, ending in zeros, and the header pointed back. The header
+     * only moves once what it points to is on disk, so a crash at any step
+     * leaves either the old log or a complete compacted copy to replay.
+     */
+    private void compact(State state) throws IOException {
+        int end = position;
+        ensureCapacity(state.size() * RECORD_SIZE);
+        writeState(state);
+        int copyEnd = position;
+        buffer.force();
+        setStart(end);
+        buffer.force();
+
+        // The state came from the log, so its copy at the front ends before the log did
+        position = HEADER_SIZE;
+        writeState(state);
+        zero(position, end - position);
+        buffer.force();
+        setStart(HEADER_SIZE);
+        buffer.force();
+
+        zero(end, copyEnd - end);
+        liveAfterCompaction = state.size();
+    }
+
+    private void writeState(State state) {
+        state.crops.forEach((worldId, blocks) -> blocks.forEach((key, time) ->
+            writeRecord(worldId.getMostSignificantBits(), worldId.getLeastSignificantBits(), key,
+                        ((long) CROP << TYPE_SHIFT) | time)));
+        writePlayers(GLOBAL, state.global);
+        writePlayers(MASS_HARVEST, state.massHarvest);
+    }
+
+    private void setStart(int offset) {
+        buffer.putInt(START_OFFSET, offset);
+        start = offset;
+    }
+
+    private void writePlayers(int type, Map<UUID, Long> cooldowns) {
+        cooldowns.forEach((playerId, time) ->
+            writeRecord(playerId.getMostSignificantBits(), playerId.getLeastSignificantBits(), 0L,
+                        ((long) type << TYPE_SHIFT) | time));
+    }
+
+    private void writeRecord(long msb, long lsb, long key, long typeAndTime) {
+        // The type goes last, so a record only counts once the rest of it is in place
+        buffer.putLong(position, msb);
+        buffer.putLong(position + 8, lsb);
+        buffer.putLong(position + 16, key);
+        buffer.putLong(position + 24, typeAndTime);
+        position += RECORD_SIZE;
+    }
+
+    private void ensureCapacity(int bytes) throws IOException {
+        long needed = (long) position + bytes + RECORD_SIZE;
+        if (needed <= buffer.capacity()) {
+            return;
+        }
+        if (needed > Integer.MAX_VALUE) {
+            throw new IOException("Cooldown journal is full");
+        }
+        map((int) Math.min(Integer.MAX_VALUE, Math.max(needed, (long) buffer.capacity() * 2)));
+    }
+
+    private void map(int size) throws IOException {
+        // Mapping past the end of the file grows it; the new space reads as zeros
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+    }
+
+    private void zero(int offset, int length) {
+        while (length > 0) {
+            int chunk = Math.min(length, ZEROS.length);
+            buffer.put(offset, ZEROS, 0, chunk);
+            offset += chunk;
+            length -= chunk;
+        }
+    }
+
+    /**
+     * The newest timestamp per key found in the journal.
+     */
+    static final class State {
+
+        final Map<UUID, LongLongHashMap> crops = new HashMap<>();
+        final Map<UUID, Long> global = new HashMap<>();
+        final Map<UUID, Long> massHarvest = new HashMap<>();
+
+        // Crop records mostly come in long runs for the same world
+        private UUID lastWorld;
+        private LongLongHashMap lastBlocks;
+
+        private void add(int type, long msb, long lsb, long key, long time) {
+            if (type == CROP) {
+                LongLongHashMap blocks = lastBlocks;
+                if (lastWorld == null || lastWorld.getMostSignificantBits() != msb
+                        || lastWorld.getLeastSignificantBits() != lsb) {
+                    lastWorld = new UUID(msb, lsb);
+                    blocks = crops.computeIfAbsent(lastWorld, worldId -> new LongLongHashMap());
+                    lastBlocks = blocks;
+                }
+                if (blocks.get(key, Long.MIN_VALUE) < time) {
+                    blocks.put(key, time);
+                }
+            } else {
+                (type == GLOBAL ? global : massHarvest).merge(new UUID(msb, lsb), time, Math::max);
+            }
+        }
+
+        private void removeExpired(long now, IntToLongFunction retention) {
+            lastWorld = null;
+            lastBlocks = null;
+            long cropRetention = retention.applyAsLong(CROP);
+            crops.values().removeIf(blocks -> {
+                blocks.removeIf((key, time) -> now - time >= cropRetention);
+                return blocks.isEmpty();
+            });
+            long globalRetention = retention.applyAsLong(GLOBAL);
+            global.values().removeIf(time -> now - time >= globalRetention);
+            long massRetention = retention.applyAsLong(MASS_HARVEST);
+            massHarvest.values().removeIf(time -> now - time >= massRetention);
+        }
+
+        int size() {
+            int size = global.size() + massHarvest.size();
+            for (LongLongHashMap blocks : crops.values()) {
+                size += blocks.size();
+            }
+            return size;
+        }
+    }
+}
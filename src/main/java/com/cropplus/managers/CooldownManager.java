@@ -1,80 +1,264 @@
 package com.cropplus.managers;
 
 import com.cropplus.CropPlus;
+import com.cropplus.scheduler.TaskHandle;
+import com.cropplus.utils.BlockKey;
 import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.block.Block;
 import org.bukkit.entity.Player;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.logging.Level;
 
+/**
+ * Harvest cooldowns per player and per crop block.
+ * <p>
+ * Every method is safe to call from any thread. Player cooldowns are
+ * compare-and-set updates on a concurrent map, and crop cooldowns live in a
+ * lock-striped store, so checks from different threads only wait on each
+ * other when they touch the same chunk stripe.
+ * <p>
+ * With persistence enabled, every cooldown that starts is also queued for the
+ * {@link CooldownJournal}, which is replayed off the main thread on startup.
+ */
 public class CooldownManager {
     
     private final CropPlus plugin;
-    private final Map<UUID, Long> globalCooldowns = new HashMap<>();
-    private final Map<String, Long> cropCooldowns = new HashMap<>();
-    private final Map<UUID, Long> massHarvestCooldowns = new HashMap<>();
+    private final ConcurrentMap<UUID, Long> globalCooldowns = new ConcurrentHashMap<>();
+    private final StripedCooldownStore cropCooldowns;
+    private final ConcurrentMap<UUID, Long> massHarvestCooldowns = new ConcurrentHashMap<>();
+    private final CooldownJournal journal;
+    private TaskHandle sweepTask;
+    private TaskHandle journalTask;
+    private boolean journalStopped;
     
     public CooldownManager(CropPlus plugin) {
         this.plugin = plugin;
+        this.cropCooldowns = new StripedCooldownStore(plugin.getConfigManager().getMaxTrackedCrops());
+        if (plugin.getConfigManager().isCooldownPersistenceEnabled()) {
+            Path file = new File(plugin.getDataFolder(), "cooldowns.journal").toPath();
+            this.journal = new CooldownJournal(file, plugin.getLogger(), this::getRetention);
+        } else {
+            this.journal = null;
+        }
+    }
+    
+    /**
+     * Replay the journal in the background, then keep writing new cooldowns to it.
+     * Cooldowns started while it loads are kept and written afterwards.
+     */
+    public void startJournal() {
+        if (journal == null) {
+            return;
+        }
+        plugin.getTaskScheduler().runAsync(() -> {
+            try {
+                Files.createDirectories(plugin.getDataFolder().toPath());
+                restore(journal.load());
+            } catch (IOException e) {
+                plugin.getLogger().log(Level.WARNING, "Could not load the cooldown journal; cooldowns will not persist", e);
+                return;
+            }
+            synchronized (this) {
+                if (journalStopped) {
+                    // Disabled while loading; the close in stopJournal came too early to do anything
+                    journal.close();
+                    return;
+                }
+                long interval = plugin.getConfigManager().getCooldownJournalFlushInterval();
+                journalTask = plugin.getTaskScheduler().runAsyncTimer(journal::flush, interval, interval);
+            }
+        });
+    }
+    
+    /**
+     * Write the last cooldowns to the journal and close it.
+     */
+    public void stopJournal() {
+        if (journal == null) {
+            return;
+        }
+        synchronized (this) {
+            journalStopped = true;
+            if (journalTask != null) {
+                journalTask.cancel();
+                journalTask = null;
+            }
+        }
+        journal.close();
+    }
+    
+    private void restore(CooldownJournal.State state) {
+        long now = System.currentTimeMillis();
+        long retention = getCropRetention();
+        int[] restored = new int[1];
+        
+        state.crops.forEach((worldId, blocks) -> blocks.forEach((blockKey, lastUsed) -> {
+            if (cropCooldowns.restore(worldId, blockKey, lastUsed, now, retention)) {
+                restored[0]++;
+            }
+        }));
+        state.global.forEach((playerId, lastUsed) -> globalCooldowns.merge(playerId, lastUsed, Math::max));
+        state.massHarvest.forEach((playerId, lastUsed) -> massHarvestCooldowns.merge(playerId, lastUsed, Math::max));
+        
+        if (plugin.getConfigManager().isDebug()) {
+            plugin.getLogger().info("Restored " + restored[0] + " crop and " + 
+                                  (state.global.size() + state.massHarvest.size()) + " player cooldowns");
+        }
+    }
+    
+    /**
+     * Apply settings that changed on reload.
+     */
+    public void reload() {
+        cropCooldowns.setMaxEntries(plugin.getConfigManager().getMaxTrackedCrops());
+        startSweepTask();
+    }
+    
+    /**
+     * Start (or restart) the repeating task that removes expired cooldowns a few at a time.
+     * The stores are thread-safe, so it runs off the main thread.
+     */
+    public void startSweepTask() {
+        stopSweepTask();
+        long interval = plugin.getConfigManager().getCooldownSweepInterval();
+        sweepTask = plugin.getTaskScheduler().runAsyncTimer(this::sweep, interval, interval);
+    }
+    
+    public void stopSweepTask() {
+        if (sweepTask != null) {
+            sweepTask.cancel();
+            sweepTask = null;
+        }
+    }
+    
+    private void sweep() {
+        long currentTime = System.currentTimeMillis();
+        int budget = plugin.getConfigManager().getCooldownSweepBudget();
+        
+        // Player maps only hold online players, so they are cheap to prune fully
+        long globalRetention = toRetention(plugin.getConfigManager().getGlobalCooldown());
+        long massRetention = toRetention(plugin.getConfigManager().getMassHarvestCooldown());
+        globalCooldowns.values().removeIf(lastUsed -> currentTime - lastUsed >= globalRetention);
+        massHarvestCooldowns.values().removeIf(lastUsed -> currentTime - lastUsed >= massRetention);
+        
+        int removed = cropCooldowns.sweep(currentTime, getCropRetention(), budget);
+        if (removed > 0 && plugin.getConfigManager().isDebug()) {
+            plugin.getLogger().info("Cooldown sweep removed " + removed + " crop entries, " + 
+                                  cropCooldowns.size() + " remaining");
+        }
     }
     
     public boolean hasGlobalCooldown(Player player, double cooldownSeconds) {
+        long start = plugin.getMetricsManager().start();
         UUID playerId = player.getUniqueId();
         long currentTime = System.currentTimeMillis();
         long cooldownTime = (long) (cooldownSeconds * 1000);
         
-        if (globalCooldowns.containsKey(playerId)) {
-            long lastUsed = globalCooldowns.get(playerId);
-            if (currentTime - lastUsed < cooldownTime) {
+        boolean active = checkAndSet(globalCooldowns, playerId, currentTime, cooldownTime);
+        if (!active && journal != null) {
+            journal.append(CooldownJournal.GLOBAL, playerId, 0L, currentTime);
+        }
+        
+        plugin.getMetricsManager().record(MetricsManager.Stage.COOLDOWN, start);
+        return active;
+    }
+    
+    /**
+     * Check a player's cooldown and, if it has run out, start it again, as one atomic step:
+     * of two threads checking at once, only one sees the cooldown as over.
+     */
+    static boolean checkAndSet(ConcurrentMap<UUID, Long> cooldowns, UUID playerId, long now, long cooldown) {
+        while (true) {
+            Long lastUsed = cooldowns.get(playerId);
+            if (lastUsed == null) {
+                if (cooldowns.putIfAbsent(playerId, now) == null) {
+                    return false;
+                }
+            } else if (now - lastUsed < cooldown) {
                 return true;
+            } else if (cooldowns.replace(playerId, lastUsed, now)) {
+                return false;
             }
+            // Another thread updated the entry in between; look again
         }
-        
-        globalCooldowns.put(playerId, currentTime);
-        return false;
     }
     
     public boolean hasCropCooldown(Location location, double cooldownSeconds) {
-        String locationKey = getLocationKey(location);
+        return hasCropCooldown(location.getWorld(), location.getBlockX(), location.getBlockY(),
+                               location.getBlockZ(), cooldownSeconds);
+    }
+    
+    public boolean hasCropCooldown(Block block, double cooldownSeconds) {
+        return hasCropCooldown(block.getWorld(), block.getX(), block.getY(), block.getZ(), cooldownSeconds);
+    }
+    
+    private boolean hasCropCooldown(World world, int x, int y, int z, double cooldownSeconds) {
         long currentTime = System.currentTimeMillis();
         long cooldownTime = (long) (cooldownSeconds * 1000);
+        long retention = Math.max(cooldownTime, getCropRetention());
         
-        if (cropCooldowns.containsKey(locationKey)) {
-            long lastUsed = cropCooldowns.get(locationKey);
-            if (currentTime - lastUsed < cooldownTime) {
-                return true;
-            }
+        long start = plugin.getMetricsManager().start();
+        boolean active = cropCooldowns.checkAndSet(world.getUID(), x, y, z, currentTime, cooldownTime, retention);
+        if (!active && journal != null) {
+            journal.append(CooldownJournal.CROP, world.getUID(), BlockKey.block(x, y, z), currentTime);
+        }
+        plugin.getMetricsManager().record(MetricsManager.Stage.COOLDOWN, start);
+        return active;
+    }
+    
+    /**
+     * Longest time a per-crop entry can still block anyone, taking group multipliers into account
+     */
+    private long getCropRetention() {
+        return toRetention(plugin.getConfigManager().getPerCropCooldown());
+    }
+    
+    private long getRetention(int journalType) {
+        switch (journalType) {
+            case CooldownJournal.GLOBAL:
+                return toRetention(plugin.getConfigManager().getGlobalCooldown());
+            case CooldownJournal.MASS_HARVEST:
+                return toRetention(plugin.getConfigManager().getMassHarvestCooldown());
+            default:
+                return getCropRetention();
         }
-        
-        cropCooldowns.put(locationKey, currentTime);
-        return false;
+    }
+    
+    private long toRetention(double cooldownSeconds) {
+        double seconds = cooldownSeconds * plugin.getConfigManager().getSettings().getMaxCooldownMultiplier();
+        return (long) (seconds * 1000);
     }
     
     public boolean hasMassHarvestCooldown(Player player, double cooldownSeconds) {
+        long start = plugin.getMetricsManager().start();
         UUID playerId = player.getUniqueId();
         long currentTime = System.currentTimeMillis();
         long cooldownTime = (long) (cooldownSeconds * 1000);
         
-        if (massHarvestCooldowns.containsKey(playerId)) {
-            long lastUsed = massHarvestCooldowns.get(playerId);
-            if (currentTime - lastUsed < cooldownTime) {
-                return true;
-            }
+        boolean active = checkAndSet(massHarvestCooldowns, playerId, currentTime, cooldownTime);
+        if (!active && journal != null) {
+            journal.append(CooldownJournal.MASS_HARVEST, playerId, 0L, currentTime);
         }
         
-        massHarvestCooldowns.put(playerId, currentTime);
-        return false;
+        plugin.getMetricsManager().record(MetricsManager.Stage.COOLDOWN, start);
+        return active;
     }
     
     public long getRemainingGlobalCooldown(Player player, double cooldownSeconds) {
-        UUID playerId = player.getUniqueId();
-        if (!globalCooldowns.containsKey(playerId)) {
+        Long lastUsed = globalCooldowns.get(player.getUniqueId());
+        if (lastUsed == null) {
             return 0;
         }
         
         long currentTime = System.currentTimeMillis();
-        long lastUsed = globalCooldowns.get(playerId);
         long cooldownTime = (long) (cooldownSeconds * 1000);
         long remaining = cooldownTime - (currentTime - lastUsed);
         
@@ -82,13 +266,12 @@ public class CooldownManager {
     }
     
     public long getRemainingMassHarvestCooldown(Player player, double cooldownSeconds) {
-        UUID playerId = player.getUniqueId();
-        if (!massHarvestCooldowns.containsKey(playerId)) {
+        Long lastUsed = massHarvestCooldowns.get(player.getUniqueId());
+        if (lastUsed == null) {
             return 0;
         }
         
         long currentTime = System.currentTimeMillis();
-        long lastUsed = massHarvestCooldowns.get(playerId);
         long cooldownTime = (long) (cooldownSeconds * 1000);
         long remaining = cooldownTime - (currentTime - lastUsed);
         
@@ -99,6 +282,21 @@ public class CooldownManager {
         globalCooldowns.clear();
         cropCooldowns.clear();
         massHarvestCooldowns.clear();
+        if (journal != null) {
+            journal.clear();
+        }
+    }
+    
+    public void clearChunkCooldowns(World world, int chunkX, int chunkZ) {
+        cropCooldowns.dropChunk(world.getUID(), chunkX, chunkZ);
+    }
+    
+    public void clearWorldCooldowns(World world) {
+        cropCooldowns.dropWorld(world.getUID());
+    }
+    
+    public int getTrackedCropCount() {
+        return cropCooldowns.size();
     }
     
     public void clearPlayerCooldowns(Player player) {
@@ -115,8 +313,7 @@ public class CooldownManager {
         globalCooldowns.entrySet().removeIf(entry -> 
             currentTime - entry.getValue() > oneHour);
         
-        cropCooldowns.entrySet().removeIf(entry -> 
-            currentTime - entry.getValue() > oneHour);
+        cropCooldowns.purgeExpired(currentTime, getCropRetention());
         
         massHarvestCooldowns.entrySet().removeIf(entry -> 
             currentTime - entry.getValue() > oneHour);
@@ -125,11 +322,4 @@ public class CooldownManager {
             plugin.getLogger().info("Cleaned up old cooldown entries");
         }
     }
-    
-    private String getLocationKey(Location location) {
-        return location.getWorld().getName() + "_" + 
-               location.getBlockX() + "_" + 
-               location.getBlockY() + "_" + 
-               location.getBlockZ();
-    }
 }
\ No newline at end of file
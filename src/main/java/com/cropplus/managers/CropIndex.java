@@ -0,0 +1,372 @@
+package com.cropplus.managers;
+
+import com.cropplus.CropPlus;
+import com.cropplus.models.CropInfo;
+import com.cropplus.utils.BlockKey;
+import org.bukkit.Chunk;
+import org.bukkit.ChunkSnapshot;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.block.data.BlockData;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Index of the fully grown crops in loaded chunks, one bit per block, so a
+ * mass harvest finds its crops with a few word operations per row of blocks
+ * instead of reading every block in range.
+ * <p>
+ * Each 16x16x16 chunk section is a 4096-bit set (64 longs, 512 bytes) laid
+ * out by y, then z, then x: a row of 16 blocks along x is 16 bits of one
+ * word, and each word holds four rows. Sections without grown crops all
+ * share one empty set and only get their own once a crop in them grows.
+ * <p>
+ * A chunk is indexed from a snapshot taken when it loads, scanned off the
+ * main thread, and then kept up to date by growth, break and place events
+ * and by CropPlus' own harvests. Changes no event reports (water, pistons,
+ * other plugins) can leave a bit set for a crop that is gone, so every hit
+ * is checked against the world before it is used. They can also leave a
+ * grown crop unindexed (/setblock, /fill, WorldEdit, other plugins setting
+ * blocks), so the index is only a hint: a chunk snapshot older than
+ * {@link #MAX_SNAPSHOT_AGE_NANOS} is taken again, and its harvests scan the
+ * blocks until the new one is in. Chunks that are not indexed, such as those
+ * loaded before the plugin, are scanned block by block and indexed for next
+ * time.
+ */
+public class CropIndex {
+
+    private static final int WORDS_PER_SECTION = 64;
+    private static final long[] EMPTY_SECTION = new long[WORDS_PER_SECTION];
+    // Snapshots waiting to be scanned; beyond this, chunks are indexed when first harvested in
+    private static final int MAX_PENDING_SCANS = 256;
+    // How long a chunk's snapshot is trusted to hold every grown crop
+    private static final long MAX_SNAPSHOT_AGE_NANOS = TimeUnit.SECONDS.toNanos(30);
+
+    private final CropPlus plugin;
+    private final Map<UUID, Map<Long, IndexedChunk>> worlds = new ConcurrentHashMap<>();
+    private final Queue<PendingScan> pendingScans = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingCount = new AtomicInteger();
+    private final AtomicBoolean scanning = new AtomicBoolean();
+    // The registry the indexed bits were computed with
+    private volatile CropRegistry registry;
+
+    CropIndex(CropPlus plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * Start indexing a chunk that has just loaded.
+     */
+    public void onChunkLoad(Chunk chunk) {
+        CropRegistry current = currentRegistry();
+        if (current == null || pendingCount.get() >= MAX_PENDING_SCANS) {
+            return;
+        }
+
+        World world = chunk.getWorld();
+        IndexedChunk indexed = new IndexedChunk(sectionCount(world), System.nanoTime());
+        chunksOf(world).put(BlockKey.chunk(chunk.getX(), chunk.getZ()), indexed);
+        // The snapshot has to be taken now; scanning it can happen anywhere
+        pendingScans.add(new PendingScan(indexed, chunk.getChunkSnapshot(false, false, false), world.getMinHeight(), current));
+        pendingCount.incrementAndGet();
+        if (scanning.compareAndSet(false, true)) {
+            plugin.getTaskScheduler().runAsync(this::drainScans);
+        }
+    }
+
+    public void onChunkUnload(Chunk chunk) {
+        Map<Long, IndexedChunk> chunks = worlds.get(chunk.getWorld().getUID());
+        if (chunks != null) {
+            chunks.remove(BlockKey.chunk(chunk.getX(), chunk.getZ()));
+        }
+    }
+
+    public void onWorldUnload(World world) {
+        worlds.remove(world.getUID());
+    }
+
+    /**
+     * Record what a block is about to become, e.g. the new state of a growing crop.
+     */
+    public void update(Block block, Material type, BlockData blockData) {
+        CropRegistry current = currentRegistry();
+        if (current == null) {
+            return;
+        }
+        CropInfo cropInfo = current.getHarvestable(type);
+        set(block.getWorld(), block.getX(), block.getY(), block.getZ(),
+            cropInfo != null && CropManager.isMature(blockData, cropInfo));
+    }
+
+    /**
+     * Record that a block no longer holds a grown crop, e.g. after it was harvested.
+     */
+    public void remove(Block block) {
+        set(block.getWorld(), block.getX(), block.getY(), block.getZ(), false);
+    }
+
+    private void set(World world, int x, int y, int z, boolean mature) {
+        Map<Long, IndexedChunk> chunks = worlds.get(world.getUID());
+        if (chunks == null) {
+            return;
+        }
+        IndexedChunk indexed = chunks.get(BlockKey.chunkOfBlock(x, z));
+        if (indexed != null) {
+            indexed.set((y - world.getMinHeight()) >> 4, bitIndex(x, y, z), mature);
+        }
+    }
+
+    /**
+     * Add the indexed crops in one chunk's part of a box to {@code crops}, stopping
+     * once there are {@code limit}. Bits for crops that turn out to be gone are cleared.
+     *
+     * @return the number of block positions looked at, or -1 if the chunk is not
+     *         indexed, or its snapshot is too old, and has to be scanned
+     */
+    long collect(World world, int chunkX, int chunkZ, int startX, int endX, int minY, int maxY,
+                 int startZ, int endZ, int limit, CropRegistry registry, List<Block> crops) {
+        if (currentRegistry() != registry) {
+            return -1;
+        }
+        Map<Long, IndexedChunk> chunks = chunksOf(world);
+        long chunkKey = BlockKey.chunk(chunkX, chunkZ);
+        IndexedChunk indexed = chunks.get(chunkKey);
+        if (indexed == null) {
+            // Loaded before the plugin, or while too many scans were waiting
+            onChunkLoad(world.getChunkAt(chunkX, chunkZ));
+            return -1;
+        }
+        if (System.nanoTime() - indexed.snapshotTime > MAX_SNAPSHOT_AGE_NANOS) {
+            // Crops set without an event since the snapshot would be missed
+            onChunkLoad(world.getChunkAt(chunkX, chunkZ));
+            return -1;
+        }
+
+        // The same x range in all four rows of a word
+        long rowMask = (0xFFFFL >>> (15 - (endX & 15))) & (0xFFFFL << (startX & 15));
+        long xMask = rowMask * 0x0001_0001_0001_0001L;
+        int startLz = startZ & 15;
+        int endLz = endZ & 15;
+        int minHeight = world.getMinHeight();
+        long checked = 0;
+
+        synchronized (indexed) {
+            if (indexed.sections == null) {
+                // Still being scanned
+                return -1;
+            }
+            for (int y = minY; y <= maxY; y++) {
+                int sectionIndex = (y - minHeight) >> 4;
+                long[] section = indexed.sections[sectionIndex];
+                if (section == EMPTY_SECTION) {
+                    continue;
+                }
+                int wordBase = (y & 15) << 2;
+                for (int word = startLz >> 2; word <= endLz >> 2; word++) {
+                    int firstRow = Math.max(startLz, word << 2) - (word << 2);
+                    int lastRow = Math.min(endLz, (word << 2) + 3) - (word << 2);
+                    long zMask = (-1L >>> ((3 - lastRow) << 4)) & (-1L << (firstRow << 4));
+                    long bits = section[wordBase | word] & xMask & zMask;
+                    while (bits != 0) {
+                        int bit = Long.numberOfTrailingZeros(bits);
+                        bits &= bits - 1;
+                        checked++;
+
+                        int x = (chunkX << 4) | (bit & 15);
+                        int z = (chunkZ << 4) | (word << 2) | (bit >>> 4);
+                        CropInfo cropInfo = registry.getHarvestable(world.getType(x, y, z));
+                        if (cropInfo == null || !CropManager.isMature(world.getBlockData(x, y, z), cropInfo)) {
+                            indexed.set(sectionIndex, bitIndex(x, y, z), false);
+                            continue;
+                        }
+                        crops.add(world.getBlockAt(x, y, z));
+                        if (crops.size() >= limit) {
+                            return checked;
+                        }
+                    }
+                }
+            }
+        }
+        return checked;
+    }
+
+    /**
+     * The registry to index with, or null if the index is turned off. When the
+     * crop settings change, everything indexed so far is dropped.
+     */
+    private CropRegistry currentRegistry() {
+        if (!plugin.getConfigManager().isCropIndexEnabled()) {
+            if (registry != null) {
+                registry = null;
+                worlds.clear();
+            }
+            return null;
+        }
+        CropRegistry current = plugin.getCropManager().getRegistry();
+        if (current != registry) {
+            registry = current;
+            worlds.clear();
+        }
+        return current;
+    }
+
+    private Map<Long, IndexedChunk> chunksOf(World world) {
+        return worlds.computeIfAbsent(world.getUID(), id -> new ConcurrentHashMap<>());
+    }
+
+    private void drainScans() {
+        try {
+            PendingScan scan;
+            while ((scan = pendingScans.poll()) != null) {
+                pendingCount.decrementAndGet();
+                // Chunks loaded with an older registry are indexed again when next harvested in
+                if (scan.registry == registry) {
+                    scan.indexed.install(scanSnapshot(scan.snapshot, scan.indexed.sectionCount, scan.minHeight, scan.registry));
+                }
+            }
+        } finally {
+            scanning.set(false);
+        }
+        // A chunk may have been queued after the last poll but before the flag was cleared
+        if (!pendingScans.isEmpty() && scanning.compareAndSet(false, true)) {
+            plugin.getTaskScheduler().runAsync(this::drainScans);
+        }
+    }
+
+    private static long[][] scanSnapshot(ChunkSnapshot snapshot, int sectionCount, int minHeight, CropRegistry registry) {
+        long[][] sections = new long[sectionCount][];
+        for (int sectionIndex = 0; sectionIndex < sectionCount; sectionIndex++) {
+            sections[sectionIndex] = EMPTY_SECTION;
+            if (snapshot.isSectionEmpty(sectionIndex)) {
+                continue;
+            }
+            int baseY = minHeight + (sectionIndex << 4);
+            for (int y = baseY; y < baseY + 16; y++) {
+                for (int z = 0; z < 16; z++) {
+                    for (int x = 0; x < 16; x++) {
+                        CropInfo cropInfo = registry.getHarvestable(snapshot.getBlockType(x, y, z));
+                        if (cropInfo == null || !CropManager.isMature(snapshot.getBlockData(x, y, z), cropInfo)) {
+                            continue;
+                        }
+                        if (sections[sectionIndex] == EMPTY_SECTION) {
+                            sections[sectionIndex] = new long[WORDS_PER_SECTION];
+                        }
+                        int bit = bitIndex(x, y, z);
+                        sections[sectionIndex][bit >>> 6] |= 1L << bit;
+                    }
+                }
+            }
+        }
+        return sections;
+    }
+
+    private static int sectionCount(World world) {
+        return (world.getMaxHeight() - world.getMinHeight() + 15) >> 4;
+    }
+
+    /**
+     * A block's bit within its section.
+     */
+    private static int bitIndex(int x, int y, int z) {
+        return ((y & 15) << 8) | ((z & 15) << 4) | (x & 15);
+    }
+
+    /**
+     * The bits for one chunk. Until its scan is installed, changes are applied to
+     * a blank set and remembered, so they win over the older snapshot.
+     */
+    private static final class IndexedChunk {
+
+        private final int sectionCount;
+        private final long snapshotTime;
+        private long[][] sections;
+        private long[][] pending;
+        private long[][] touched;
+
+        IndexedChunk(int sectionCount, long snapshotTime) {
+            this.sectionCount = sectionCount;
+            this.snapshotTime = snapshotTime;
+            this.pending = emptySections(sectionCount);
+            this.touched = emptySections(sectionCount);
+        }
+
+        synchronized void set(int sectionIndex, int bit, boolean mature) {
+            if (sectionIndex < 0 || sectionIndex >= sectionCount) {
+                return;
+            }
+            if (sections != null) {
+                setBit(sections, sectionIndex, bit, mature);
+            } else {
+                setBit(pending, sectionIndex, bit, mature);
+                setBit(touched, sectionIndex, bit, true);
+            }
+        }
+
+        synchronized void install(long[][] scanned) {
+            for (int sectionIndex = 0; sectionIndex < sectionCount; sectionIndex++) {
+                long[] changed = touched[sectionIndex];
+                if (changed == EMPTY_SECTION) {
+                    continue;
+                }
+                if (scanned[sectionIndex] == EMPTY_SECTION) {
+                    scanned[sectionIndex] = new long[WORDS_PER_SECTION];
+                }
+                long[] section = scanned[sectionIndex];
+                long[] latest = pending[sectionIndex];
+                for (int word = 0; word < WORDS_PER_SECTION; word++) {
+                    section[word] = (section[word] & ~changed[word]) | (latest[word] & changed[word]);
+                }
+            }
+            sections = scanned;
+            pending = null;
+            touched = null;
+        }
+
+        private static void setBit(long[][] sections, int sectionIndex, int bit, boolean value) {
+            long[] section = sections[sectionIndex];
+            if (section == EMPTY_SECTION) {
+                if (!value) {
+                    return;
+                }
+                section = new long[WORDS_PER_SECTION];
+                sections[sectionIndex] = section;
+            }
+            if (value) {
+                section[bit >>> 6] |= 1L << bit;
+            } else {
+                section[bit >>> 6] &= ~(1L << bit);
+            }
+        }
+
+        private static long[][] emptySections(int sectionCount) {
+            long[][] sections = new long[sectionCount][];
+            Arrays.fill(sections, EMPTY_SECTION);
+            return sections;
+        }
+    }
+
+    private static final class PendingScan {
+
+        private final IndexedChunk indexed;
+        private final ChunkSnapshot snapshot;
+        private final int minHeight;
+        private final CropRegistry registry;
+
+        PendingScan(IndexedChunk indexed, ChunkSnapshot snapshot, int minHeight, CropRegistry registry) {
+            this.indexed = indexed;
+            this.snapshot = snapshot;
+            this.minHeight = minHeight;
+            this.registry = registry;
+        }
+    }
+}
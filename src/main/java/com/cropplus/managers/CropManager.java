@@ -1,189 +1,421 @@
 package com.cropplus.managers;
 
 import com.cropplus.CropPlus;
+import com.cropplus.config.CropPlusSettings;
 import com.cropplus.models.CropInfo;
+import com.cropplus.scheduler.TaskHandle;
+import com.cropplus.scheduler.TaskScheduler;
+import com.cropplus.utils.BlockKey;
 import org.bukkit.Location;
 import org.bukkit.Material;
-import org.bukkit.Particle;
-import org.bukkit.Sound;
+import org.bukkit.World;
 import org.bukkit.block.Block;
+import org.bukkit.block.BlockFace;
 import org.bukkit.block.data.Ageable;
+import org.bukkit.block.data.Bisected;
 import org.bukkit.block.data.BlockData;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.Item;
 import org.bukkit.entity.Player;
 import org.bukkit.inventory.ItemStack;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.IntConsumer;
+import java.util.function.LongPredicate;
 
 public class CropManager {
     
+    // How long a region's part of a Folia mass harvest may wait before the harvest finishes without it
+    private static final long FOREIGN_PART_TIMEOUT_TICKS = 100L;
+    
     private final CropPlus plugin;
-    private final Map<Material, CropInfo> supportedCrops;
+    private final Map<UUID, DropRounding> dropRounding = new ConcurrentHashMap<>();
+    private volatile CropRegistry registry;
+    private final CropIndex cropIndex;
     
     public CropManager(CropPlus plugin) {
         this.plugin = plugin;
-        this.supportedCrops = new HashMap<>();
-        initializeSupportedCrops();
+        this.cropIndex = new CropIndex(plugin);
+    }
+    
+    /**
+     * The crop registry for the current settings, rebuilt only when the settings change.
+     */
+    public CropRegistry getRegistry() {
+        CropPlusSettings settings = plugin.getConfigManager().getSettings();
+        CropRegistry current = registry;
+        if (current == null || current.getSettings() != settings) {
+            current = CropRegistry.load(settings, plugin.getLogger());
+            registry = current;
+        }
+        return current;
     }
     
-    private void initializeSupportedCrops() {
-        // Initialize supported crops with their information
-        supportedCrops.put(Material.WHEAT, new CropInfo(Material.WHEAT, Material.WHEAT_SEEDS, 7));
-        supportedCrops.put(Material.CARROTS, new CropInfo(Material.CARROTS, Material.CARROT, 7));
-        supportedCrops.put(Material.POTATOES, new CropInfo(Material.POTATOES, Material.POTATO, 7));
-        supportedCrops.put(Material.BEETROOTS, new CropInfo(Material.BEETROOTS, Material.BEETROOT_SEEDS, 3));
-        supportedCrops.put(Material.NETHER_WART, new CropInfo(Material.NETHER_WART, Material.NETHER_WART, 3));
-        supportedCrops.put(Material.COCOA, new CropInfo(Material.COCOA, Material.COCOA_BEANS, 2));
-        supportedCrops.put(Material.SWEET_BERRY_BUSH, new CropInfo(Material.SWEET_BERRY_BUSH, Material.SWEET_BERRIES, 3));
+    public CropIndex getCropIndex() {
+        return cropIndex;
     }
     
     public boolean isSupportedCrop(Block block) {
-        Material type = block.getType();
-        return supportedCrops.containsKey(type) && 
-               plugin.getConfigManager().isCropEnabled(type.name().toLowerCase());
+        return getRegistry().getHarvestable(block.getType()) != null;
     }
     
     public boolean isFullyGrown(Block block) {
-        if (!isSupportedCrop(block)) {
-            return false;
+        return getMatureCrop(block) != null;
+    }
+    
+    /**
+     * Check a block in one pass: an enabled, supported crop that is fully grown.
+     *
+     * @return the crop's info, or null if the block can't be harvested
+     */
+    public CropInfo getMatureCrop(Block block) {
+        CropInfo cropInfo = getRegistry().getHarvestable(block.getType());
+        return cropInfo != null && isMature(block.getBlockData(), cropInfo) ? cropInfo : null;
+    }
+    
+    /**
+     * The block a harvest should start from: the lower half for two-high crops
+     * such as pitcher plants, otherwise the block itself.
+     */
+    public Block getBaseBlock(Block block) {
+        CropInfo cropInfo = getRegistry().get(block.getType());
+        if (cropInfo == null || !cropInfo.isTall()) {
+            return block;
         }
         
         BlockData blockData = block.getBlockData();
-        CropInfo cropInfo = supportedCrops.get(block.getType());
+        if (blockData instanceof Bisected && ((Bisected) blockData).getHalf() == Bisected.Half.TOP) {
+            return block.getRelative(BlockFace.DOWN);
+        }
+        return block;
+    }
+    
+    /**
+     * Resolve the player's group, tool, permissions and world rules for one interaction.
+     */
+    public HarvestContext createContext(Player player, World targetWorld) {
+        return new HarvestContext(plugin, player, targetWorld);
+    }
+    
+    static boolean isMature(BlockData blockData, CropInfo cropInfo) {
+        // The upper half of a tall crop is harvested through its lower half
+        if (cropInfo.isTall() && blockData instanceof Bisected && 
+            ((Bisected) blockData).getHalf() == Bisected.Half.TOP) {
+            return false;
+        }
         
         if (blockData instanceof Ageable) {
             Ageable ageable = (Ageable) blockData;
             return ageable.getAge() >= cropInfo.getMaxAge();
         }
         
-        return false;
+        // Crops without an age, like a torchflower, are grown as soon as they exist
+        return cropInfo.getMaxAge() <= 0;
     }
     
     public boolean canHarvest(Player player, Block block) {
-        // Check if crop is supported and fully grown
-        if (!isSupportedCrop(block) || !isFullyGrown(block)) {
-            return false;
-        }
-        
-        // Check if player has permission
-        if (!player.hasPermission("cropplus.use")) {
-            return false;
-        }
-        
-        // Check tool restrictions
-        if (!plugin.getToolManager().hasValidTool(player)) {
-            return false;
-        }
-        
-        // Check world restrictions
-        if (plugin.getConfigManager().isWorldRestrictionsEnabled()) {
-            String worldName = block.getWorld().getName();
-            List<String> allowedWorlds = plugin.getConfigManager().getAllowedWorlds();
-            List<String> disabledWorlds = plugin.getConfigManager().getDisabledWorlds();
-            
-            if (!allowedWorlds.isEmpty() && !allowedWorlds.contains(worldName)) {
-                return false;
-            }
-            
-            if (disabledWorlds.contains(worldName)) {
-                return false;
-            }
-        }
-        
-        return true;
+        return getMatureCrop(block) != null && createContext(player, block.getWorld()).canHarvest();
     }
     
     public boolean hasRequiredSeeds(Player player, Block block) {
+        CropInfo cropInfo = getRegistry().get(block.getType());
+        return cropInfo != null && hasRequiredSeeds(player, cropInfo);
+    }
+    
+    public boolean hasRequiredSeeds(Player player, CropInfo cropInfo) {
         if (!plugin.getConfigManager().isRequireSeeds()) {
             return true;
         }
         
-        CropInfo cropInfo = supportedCrops.get(block.getType());
-        if (cropInfo == null) {
-            return false;
-        }
-        
-        Material seedType = cropInfo.getSeedType();
-        return player.getInventory().contains(seedType);
+        return player.getInventory().contains(cropInfo.getSeedType());
     }
     
     public void harvestCrop(Player player, Block block) {
-        if (!canHarvest(player, block)) {
+        CropInfo cropInfo = getMatureCrop(block);
+        if (cropInfo == null) {
             return;
         }
         
-        CropInfo cropInfo = supportedCrops.get(block.getType());
-        if (cropInfo == null) {
-            return;
+        HarvestContext context = createContext(player, block.getWorld());
+        if (context.canHarvest()) {
+            harvestCrop(context, block, cropInfo);
         }
+    }
+    
+    /**
+     * Harvest a crop that has already been checked against the context.
+     *
+     * @return false if seeds are required and none were available, so nothing was harvested
+     */
+    public boolean harvestCrop(HarvestContext context, Block block, CropInfo cropInfo) {
+        HarvestBatch batch = createBatch(context);
+        boolean harvested = harvestCrop(context, block, cropInfo, batch);
+        settleBatch(context, block, batch);
+        return harvested;
+    }
+    
+    HarvestBatch createBatch(HarvestContext context) {
+        return createBatch(context, true);
+    }
+    
+    private HarvestBatch createBatch(HarvestContext context, boolean useInventory) {
+        Player player = context.getPlayer();
+        DropRounding rounding = dropRounding.computeIfAbsent(player.getUniqueId(), id -> new DropRounding());
+        return new HarvestBatch(player, rounding, plugin.getConfigManager().getMaxParticlesPerHarvest(), useInventory);
+    }
+    
+    /**
+     * Forget per-player harvest state, e.g. when the player leaves.
+     */
+    public void clearPlayer(UUID playerId) {
+        dropRounding.remove(playerId);
+    }
+    
+    /**
+     * Harvest a crop, recording its drops, seed use and effects in the batch rather
+     * than applying them, so a whole job is settled at once with {@link #settleBatch}.
+     *
+     * @return false if seeds are required and none were available, so nothing was harvested
+     */
+    boolean harvestCrop(HarvestContext context, Block block, CropInfo cropInfo, HarvestBatch batch) {
+        Player player = context.getPlayer();
+        HarvestDrops collected = batch.getDrops();
         
-        // Get drops with tool in main hand
-        Collection<ItemStack> drops = block.getDrops(player.getInventory().getItemInMainHand());
+        // Get drops with the tool held when the harvest started
+        Collection<ItemStack> drops = block.getDrops(context.getToolItem());
         
         // Apply tool-based multiplier
-        String cropType = block.getType().name().toLowerCase();
-        double multiplier = plugin.getToolManager().getToolMultiplier(player, cropType);
+        double multiplier = context.getDropMultiplier(cropInfo);
         if (multiplier != 1.0) {
-            drops = applyDropMultiplier(drops, multiplier);
+            applyDropMultiplier(drops, multiplier, batch.getRounding());
+        }
+        
+        // Take the seed for replanting from the crop's own drops first, then from
+        // what the harvest has gathered so far, then from the inventory
+        Material seedType = cropInfo.getSeedType();
+        boolean seedFound = takeSeed(drops, seedType) || collected.take(seedType) || batch.getSeeds().take(seedType);
+        if (!seedFound && plugin.getConfigManager().isRequireSeeds()) {
+            return false;
         }
         
         // Handle item collection/dropping
-        handleItemCollection(player, block, drops);
+        handleItemCollection(context, block, drops, collected);
         
-        // Replant if seeds available
-        if (hasRequiredSeeds(player, block)) {
-            replantCrop(player, block, cropInfo);
-        } else {
-            block.setType(Material.AIR);
+        // Without require-seeds the crop is replanted even if no seed turned up
+        replantCrop(block, cropInfo);
+        cropIndex.remove(block);
+        
+        // Effects are played for the whole batch
+        batch.getEffects().add(block);
+        
+        // The reward is paid with the batch, on the player's thread
+        batch.addRewardedCrop();
+        plugin.getMetricsManager().addCropsHarvested(1);
+        plugin.getAnalyticsManager().recordHarvest(player.getUniqueId(), cropInfo.getCropType(), 1);
+        return true;
+    }
+    
+    /**
+     * Harvest a crop for an auto-harvest zone. There is no player, so no tool,
+     * reward or effects, and the seed for replanting can only come from the
+     * crop's own drops or what the run has gathered so far.
+     *
+     * @return false if seeds are required and none were available, so nothing was harvested
+     */
+    boolean harvestCrop(Block block, CropInfo cropInfo, DropRounding rounding, HarvestDrops collected) {
+        Collection<ItemStack> drops = block.getDrops();
+        
+        double multiplier = cropInfo.getDropMultiplier();
+        if (multiplier != 1.0) {
+            applyDropMultiplier(drops, multiplier, rounding);
         }
         
-        // Play effects
-        playHarvestEffects(player, block);
+        Material seedType = cropInfo.getSeedType();
+        boolean seedFound = takeSeed(drops, seedType) || collected.take(seedType);
+        if (!seedFound && plugin.getConfigManager().isRequireSeeds()) {
+            return false;
+        }
         
-        // Give economy reward with tool multiplier
-        if (plugin.getEconomyManager().isEconomyEnabled()) {
-            double economyMultiplier = plugin.getToolManager().getEconomyToolMultiplier(player);
-            plugin.getEconomyManager().giveHarvestReward(player, 1, economyMultiplier);
+        collected.addAll(drops);
+        replantCrop(block, cropInfo);
+        cropIndex.remove(block);
+        
+        plugin.getMetricsManager().addCropsHarvested(1);
+        return true;
+    }
+    
+    private static boolean takeSeed(Collection<ItemStack> drops, Material seedType) {
+        for (ItemStack drop : drops) {
+            if (drop.getType() == seedType && drop.getAmount() > 0) {
+                drop.setAmount(drop.getAmount() - 1);
+                return true;
+            }
         }
+        return false;
     }
     
-    private void handleItemCollection(Player player, Block block, Collection<ItemStack> drops) {
-        String worldName = player.getWorld().getName();
+    private void handleItemCollection(HarvestContext context, Block block, Collection<ItemStack> drops, 
+                                      HarvestDrops collected) {
+        Player player = context.getPlayer();
         
-        // Check group settings first
-        String playerGroup = plugin.getConfigManager().getPlayerGroup(player);
-        boolean autoCollect;
-        String dropLocation;
+        if (context.isAutoCollect() || plugin.getConfigManager().isConsolidateDrops()
+            || (!isDroppedAtCrop(context.getDropLocation()) && !plugin.getTaskScheduler().isOwnedByCurrentThread(player))) {
+            // Handed out in one go once the harvest is done, on the player's thread if they are elsewhere
+            collected.addAll(drops);
+        } else {
+            // Drop items based on configuration
+            Location targetLocation = getDropLocation(player, block, context.getDropLocation());
+            for (ItemStack drop : drops) {
+                if (drop.getAmount() > 0) {
+                    block.getWorld().dropItemNaturally(targetLocation, drop);
+                }
+            }
+        }
+    }
+    
+    /**
+     * Settle a harvest: remove the seeds used for replanting from the inventory,
+     * hand out the drops and play the effects.
+     *
+     * @param origin the crop that was harvested, or the clicked crop of a mass harvest
+     */
+    void settleBatch(HarvestContext context, Block origin, HarvestBatch batch) {
+        Player player = context.getPlayer();
+        TaskScheduler scheduler = plugin.getTaskScheduler();
         
-        if (playerGroup != null) {
-            autoCollect = plugin.getConfigManager().isGroupAutoCollectEnabled(playerGroup);
-            dropLocation = plugin.getConfigManager().getGroupDropLocation(playerGroup);
+        if (scheduler.isOwnedByCurrentThread(player)) {
+            batch.getSeeds().apply();
+            deliverDrops(context, origin, batch.getDrops());
+            payRewards(context, batch);
         } else {
-            autoCollect = plugin.getConfigManager().isAutoCollectEnabled(worldName);
-            dropLocation = plugin.getConfigManager().getDropLocation(worldName);
+            // On Folia the crops can be in another region than the player. Drops meant for
+            // the crop's location are dropped here; inventory work moves to the player's thread.
+            HarvestDrops drops = batch.getDrops();
+            if (!context.isAutoCollect() && isDroppedAtCrop(context.getDropLocation())) {
+                deliverDrops(context, origin, drops);
+            }
+            TaskHandle handle = scheduler.runForEntity(player, () -> {
+                batch.getSeeds().apply();
+                deliverDrops(context, origin, drops);
+                payRewards(context, batch);
+            });
+            if (handle == TaskHandle.NONE) {
+                // The player is gone; leave the drops at the crops rather than lose them
+                if (!drops.isEmpty()) {
+                    dropStacks(origin.getLocation(), drops.toStacks());
+                    drops.clear();
+                }
+                payRewards(context, batch);
+            }
         }
         
-        if (autoCollect) {
-            // Try to add items to inventory
-            boolean allItemsAdded = addItemsToInventory(player, drops);
-            
-            if (!allItemsAdded) {
-                // Send message about inventory being full
-                plugin.getMessageUtil().sendMessage(player, "inventory-full");
-            } else {
-                // Send auto-collect confirmation if configured
-                if (plugin.getConfigManager().isDebug()) {
-                    plugin.getMessageUtil().sendMessage(player, "auto-collected");
+        plugin.getEffectsManager().play(player, origin, batch.getEffects());
+    }
+    
+    private void payRewards(HarvestContext context, HarvestBatch batch) {
+        if (batch.getRewardedCrops() > 0 && plugin.getEconomyManager().isEconomyEnabled()) {
+            plugin.getEconomyManager().giveHarvestReward(context.getPlayer(), batch.getRewardedCrops(),
+                                                         context.getEconomyMultiplier());
+        }
+    }
+    
+    /**
+     * Run something for a player on the thread that owns them: right away if
+     * that is this thread, otherwise as a task for the player. If the player
+     * has left it runs here, as nothing of theirs is owned elsewhere any more.
+     */
+    void runForPlayer(Player player, Runnable task) {
+        TaskScheduler scheduler = plugin.getTaskScheduler();
+        if (scheduler.isOwnedByCurrentThread(player) || scheduler.runForEntity(player, task) == TaskHandle.NONE) {
+            task.run();
+        }
+    }
+    
+    /**
+     * Hand out a harvest's drops: into the player's inventory in one pass if
+     * auto-collect is on, otherwise as the fewest stacks at the drop location.
+     *
+     * @param origin the crop that was harvested, or the clicked crop of a mass harvest
+     */
+    private void deliverDrops(HarvestContext context, Block origin, HarvestDrops drops) {
+        if (drops.isEmpty()) {
+            return;
+        }
+        
+        Player player = context.getPlayer();
+        if (!context.isAutoCollect()) {
+            Location targetLocation = getDropLocation(player, origin, context.getDropLocation());
+            dropStacks(targetLocation, drops.toStacks());
+            drops.clear();
+            return;
+        }
+        
+        List<ItemStack> leftover = drops.addTo(player.getInventory());
+        drops.clear();
+        
+        if (!leftover.isEmpty()) {
+            dropStacks(player.getLocation(), leftover);
+            // Send message about inventory being full
+            plugin.getMessageUtil().sendMessage(player, "inventory-full");
+        } else if (plugin.getConfigManager().isDebug()) {
+            // Send auto-collect confirmation if configured
+            plugin.getMessageUtil().sendMessage(player, "auto-collected");
+        }
+    }
+    
+    /**
+     * Drop stacks at a location, first topping up matching items already lying
+     * nearby if merging is enabled.
+     */
+    void dropStacks(Location location, List<ItemStack> stacks) {
+        if (plugin.getConfigManager().isMergeNearbyDrops()) {
+            double radius = plugin.getConfigManager().getDropMergeRadius();
+            for (Entity entity : location.getWorld().getNearbyEntities(location, radius, radius, radius)) {
+                if (entity instanceof Item && entity.isValid()) {
+                    mergeInto((Item) entity, stacks);
                 }
             }
-        } else {
-            // Drop items based on configuration
-            Location targetLocation = getDropLocation(player, block, dropLocation);
-            for (ItemStack drop : drops) {
-                block.getWorld().dropItemNaturally(targetLocation, drop);
+        }
+        
+        for (ItemStack stack : stacks) {
+            if (stack.getAmount() > 0) {
+                location.getWorld().dropItemNaturally(location, stack);
             }
         }
     }
     
+    private void mergeInto(Item item, List<ItemStack> stacks) {
+        ItemStack existing = item.getItemStack();
+        int space = existing.getMaxStackSize() - existing.getAmount();
+        if (space <= 0) {
+            return;
+        }
+        
+        int added = 0;
+        for (ItemStack stack : stacks) {
+            if (space == 0) {
+                break;
+            }
+            if (stack.getAmount() > 0 && existing.isSimilar(stack)) {
+                int moved = Math.min(space, stack.getAmount());
+                stack.setAmount(stack.getAmount() - moved);
+                space -= moved;
+                added += moved;
+            }
+        }
+        
+        if (added > 0) {
+            existing.setAmount(existing.getAmount() + added);
+            item.setItemStack(existing);
+        }
+    }
+    
+    private static boolean isDroppedAtCrop(String dropLocation) {
+        return !dropLocation.equalsIgnoreCase("PLAYER") && !dropLocation.equalsIgnoreCase("FEET");
+    }
+    
     private Location getDropLocation(Player player, Block block, String dropLocation) {
         switch (dropLocation.toUpperCase()) {
             case "PLAYER":
@@ -197,112 +429,414 @@ public class CropManager {
     }
     
     public List<Block> getNearbyHarvestableCrops(Block centerBlock, int range) {
+        return getNearbyHarvestableCrops(centerBlock, range, Integer.MAX_VALUE);
+    }
+    
+    /**
+     * Find fully grown crops around a block, stopping once {@code limit} have been found.
+     * <p>
+     * Works chunk by chunk starting with the centre chunk, skips unloaded chunks, and only
+     * reads block data for positions whose material is an enabled crop, so no Location or
+     * Block is created for anything that does not match.
+     */
+    public List<Block> getNearbyHarvestableCrops(Block centerBlock, int range, int limit) {
         List<Block> crops = new ArrayList<>();
-        Location center = centerBlock.getLocation();
-        
-        for (int x = -range; x <= range; x++) {
-            for (int y = -1; y <= 1; y++) {
-                for (int z = -range; z <= range; z++) {
-                    Block block = center.clone().add(x, y, z).getBlock();
-                    if (isSupportedCrop(block) && isFullyGrown(block)) {
-                        crops.add(block);
+        if (limit <= 0) {
+            return crops;
+        }
+        
+        scanCrops(centerBlock, range, limit, crops, getOwnedChunkFilter(centerBlock.getWorld()));
+        return crops;
+    }
+    
+    /**
+     * On Folia, a filter for the chunks this thread may read; null elsewhere, where every chunk may be read.
+     */
+    private LongPredicate getOwnedChunkFilter(World world) {
+        TaskScheduler scheduler = plugin.getTaskScheduler();
+        if (!scheduler.isRegionThreaded()) {
+            return null;
+        }
+        return chunkKey -> scheduler.isOwnedByCurrentThread(world, BlockKey.chunkX(chunkKey), BlockKey.chunkZ(chunkKey));
+    }
+    
+    /**
+     * Scan for a mass harvest. The clicked crop goes first, so the max-crops cap
+     * can never cut it off however the scan walks the chunks.
+     */
+    private void scanForMassHarvest(Block centerBlock, int range, int limit, List<Block> crops, LongPredicate chunkFilter) {
+        if (limit <= 0) {
+            return;
+        }
+        boolean centerFirst = getMatureCrop(centerBlock) != null;
+        if (!centerFirst) {
+            scanCrops(centerBlock, range, limit, crops, chunkFilter);
+            return;
+        }
+        
+        crops.add(centerBlock);
+        // One more, in case the scan finds the clicked crop again
+        scanCrops(centerBlock, range, limit == Integer.MAX_VALUE ? limit : limit + 1, crops, chunkFilter);
+        for (int i = 1; i < crops.size(); i++) {
+            Block crop = crops.get(i);
+            if (crop.getX() == centerBlock.getX() && crop.getY() == centerBlock.getY() && crop.getZ() == centerBlock.getZ()) {
+                crops.remove(i);
+                break;
+            }
+        }
+        if (crops.size() > limit) {
+            crops.remove(crops.size() - 1);
+        }
+    }
+    
+    private void scanCrops(Block centerBlock, int range, int limit, List<Block> crops, LongPredicate chunkFilter) {
+        long start = plugin.getMetricsManager().start();
+        long scanned = findMatureCrops(centerBlock, range, limit, getRegistry(), crops, chunkFilter, cropIndex);
+        plugin.getMetricsManager().addBlocksScanned(scanned);
+        plugin.getMetricsManager().record(MetricsManager.Stage.SCAN, start);
+    }
+    
+    static long findMatureCrops(Block centerBlock, int range, int limit, CropRegistry registry, List<Block> crops) {
+        return findMatureCrops(centerBlock, range, limit, registry, crops, null, null);
+    }
+    
+    /**
+     * The scan behind {@link #getNearbyHarvestableCrops(Block, int, int)}, adding what it finds to {@code crops}.
+     *
+     * @param chunkFilter decides which loaded chunks to scan, by chunk key; null scans all of them
+     * @param cropIndex answers for the chunks it has indexed, so only the others are read block by block; may be null
+     * @return the number of block positions looked at
+     */
+    static long findMatureCrops(Block centerBlock, int range, int limit, CropRegistry registry, List<Block> crops,
+                                LongPredicate chunkFilter, CropIndex cropIndex) {
+        World world = centerBlock.getWorld();
+        long scanned = 0;
+        
+        int minX = centerBlock.getX() - range;
+        int maxX = centerBlock.getX() + range;
+        int minZ = centerBlock.getZ() - range;
+        int maxZ = centerBlock.getZ() + range;
+        int minY = Math.max(world.getMinHeight(), centerBlock.getY() - 1);
+        int maxY = Math.min(world.getMaxHeight() - 1, centerBlock.getY() + 1);
+        
+        for (long chunkKey : getChunksByDistance(centerBlock.getX() >> 4, centerBlock.getZ() >> 4,
+                                                 minX >> 4, maxX >> 4, minZ >> 4, maxZ >> 4)) {
+            int chunkX = BlockKey.chunkX(chunkKey);
+            int chunkZ = BlockKey.chunkZ(chunkKey);
+            if (!world.isChunkLoaded(chunkX, chunkZ) || (chunkFilter != null && !chunkFilter.test(chunkKey))) {
+                continue;
+            }
+            
+            int startX = Math.max(minX, chunkX << 4);
+            int endX = Math.min(maxX, (chunkX << 4) + 15);
+            int startZ = Math.max(minZ, chunkZ << 4);
+            int endZ = Math.min(maxZ, (chunkZ << 4) + 15);
+            
+            long indexed = cropIndex == null ? -1 
+                : cropIndex.collect(world, chunkX, chunkZ, startX, endX, minY, maxY, startZ, endZ, limit, registry, crops);
+            if (indexed >= 0) {
+                scanned += indexed;
+                if (crops.size() >= limit) {
+                    break;
+                }
+                continue;
+            }
+            
+            scan:
+            for (int x = startX; x <= endX; x++) {
+                for (int z = startZ; z <= endZ; z++) {
+                    scanned += maxY - minY + 1;
+                    for (int y = minY; y <= maxY; y++) {
+                        CropInfo cropInfo = registry.getHarvestable(world.getType(x, y, z));
+                        if (cropInfo == null || !isMature(world.getBlockData(x, y, z), cropInfo)) {
+                            continue;
+                        }
+                        crops.add(world.getBlockAt(x, y, z));
+                        if (crops.size() >= limit) {
+                            break scan;
+                        }
                     }
                 }
             }
+            if (crops.size() >= limit) {
+                break;
+            }
         }
         
-        return crops;
+        return scanned;
+    }
+    
+    /**
+     * Chunk keys covering the given chunk range, nearest to the centre chunk first.
+     */
+    private static long[] getChunksByDistance(int centerX, int centerZ, int minX, int maxX, int minZ, int maxZ) {
+        long[] chunks = new long[(maxX - minX + 1) * (maxZ - minZ + 1)];
+        int index = 0;
+        for (int x = minX; x <= maxX; x++) {
+            for (int z = minZ; z <= maxZ; z++) {
+                chunks[index++] = BlockKey.chunk(x, z);
+            }
+        }
+        if (chunks.length > 1) {
+            // Only a handful of chunks, so an insertion sort by distance is plenty
+            for (int i = 1; i < chunks.length; i++) {
+                long current = chunks[i];
+                int distance = chunkDistance(current, centerX, centerZ);
+                int j = i - 1;
+                while (j >= 0 && chunkDistance(chunks[j], centerX, centerZ) > distance) {
+                    chunks[j + 1] = chunks[j];
+                    j--;
+                }
+                chunks[j + 1] = current;
+            }
+        }
+        return chunks;
+    }
+    
+    private static int chunkDistance(long chunkKey, int centerX, int centerZ) {
+        return Math.max(Math.abs(BlockKey.chunkX(chunkKey) - centerX), 
+                        Math.abs(BlockKey.chunkZ(chunkKey) - centerZ));
     }
     
     public int massHarvest(Player player, Block centerBlock, int range) {
-        List<Block> crops = getNearbyHarvestableCrops(centerBlock, range);
+        HarvestJob job = createMassHarvestJob(createContext(player, centerBlock.getWorld()), centerBlock, range, null);
+        plugin.getHarvestExecutor().runToCompletion(job);
+        return job.getHarvested();
+    }
+    
+    public boolean massHarvest(Player player, Block centerBlock, int range, IntConsumer onComplete) {
+        return massHarvest(createContext(player, centerBlock.getWorld()), centerBlock, range, onComplete);
+    }
+    
+    /**
+     * Start a mass harvest through the harvest executor, which may spread it over several ticks.
+     *
+     * @param onComplete called with the number of harvested crops once the job has finished
+     * @return false if the player already has too many mass harvests running
+     */
+    public boolean massHarvest(HarvestContext context, Block centerBlock, int range, IntConsumer onComplete) {
+        long start = plugin.getMetricsManager().start();
+        boolean submitted;
+        if (plugin.getTaskScheduler().isRegionThreaded() && context.canHarvest()) {
+            submitted = massHarvestByRegion(context, centerBlock, range, onComplete);
+        } else {
+            HarvestJob job = createMassHarvestJob(context, centerBlock, range, onComplete);
+            submitted = plugin.getHarvestExecutor().submit(job);
+        }
+        plugin.getMetricsManager().record(MetricsManager.Stage.MASS_HARVEST, start);
+        return submitted;
+    }
+    
+    /**
+     * A Folia mass harvest: chunks owned by this region are harvested as usual, and
+     * every other chunk in range is scanned and harvested on its own region's thread.
+     */
+    private boolean massHarvestByRegion(HarvestContext context, Block centerBlock, int range, IntConsumer onComplete) {
+        if (!plugin.getHarvestExecutor().hasCapacity(context.getPlayer().getUniqueId())) {
+            return false;
+        }
+        
+        TaskScheduler scheduler = plugin.getTaskScheduler();
+        World world = centerBlock.getWorld();
+        List<Long> foreignChunks = new ArrayList<>();
+        List<Block> crops = new ArrayList<>();
         int maxCrops = plugin.getConfigManager().getMaxCrops();
         
-        if (crops.size() > maxCrops) {
-            crops = crops.subList(0, maxCrops);
-        }
+        scanForMassHarvest(centerBlock, range, maxCrops, crops, chunkKey -> {
+            if (scheduler.isOwnedByCurrentThread(world, BlockKey.chunkX(chunkKey), BlockKey.chunkZ(chunkKey))) {
+                return true;
+            }
+            foreignChunks.add(chunkKey);
+            return false;
+        });
+        sortByDistance(crops, centerBlock);
         
-        int harvested = 0;
-        for (Block crop : crops) {
-            if (canHarvest(player, crop) && hasRequiredSeeds(player, crop)) {
-                harvestCrop(player, crop);
-                harvested++;
+        RegionSplit split = new RegionSplit(this, context, onComplete, maxCrops - crops.size(), foreignChunks.isEmpty() ? 1 : 2);
+        if (!foreignChunks.isEmpty()) {
+            scheduleForeignPart(split, centerBlock, range, foreignChunks);
+        }
+        return plugin.getHarvestExecutor().submit(
+            new HarvestJob(context, centerBlock, crops, createBatch(context), null, split));
+    }
+    
+    /**
+     * Hand chunks of a Folia mass harvest to the region owning the first of them. That
+     * region harvests every one of them it owns and passes the rest on, so each region
+     * gets one task. A part whose task is rejected, or never runs because its region
+     * went away, counts as done with nothing harvested so the harvest still finishes.
+     */
+    private void scheduleForeignPart(RegionSplit split, Block centerBlock, int range, List<Long> chunks) {
+        TaskScheduler scheduler = plugin.getTaskScheduler();
+        long first = chunks.get(0);
+        AtomicBoolean started = new AtomicBoolean();
+        try {
+            scheduler.runAtChunk(centerBlock.getWorld(), BlockKey.chunkX(first), BlockKey.chunkZ(first), () -> {
+                if (started.compareAndSet(false, true)) {
+                    harvestForeignPart(split, centerBlock, range, chunks);
+                }
+            });
+        } catch (RuntimeException e) {
+            started.set(true);
+            split.partDone(0);
+            return;
+        }
+        scheduler.runGlobalLater(() -> {
+            if (started.compareAndSet(false, true)) {
+                split.partDone(0);
+            }
+        }, FOREIGN_PART_TIMEOUT_TICKS);
+    }
+    
+    /**
+     * One region's part of a Folia mass harvest, run on that region's thread. The player's
+     * inventory belongs to another thread, so seeds can only come from the crops' own drops.
+     */
+    private void harvestForeignPart(RegionSplit split, Block centerBlock, int range, List<Long> chunks) {
+        TaskScheduler scheduler = plugin.getTaskScheduler();
+        World world = centerBlock.getWorld();
+        Set<Long> owned = new HashSet<>();
+        List<Long> others = new ArrayList<>();
+        for (int i = 0; i < chunks.size(); i++) {
+            long chunkKey = chunks.get(i);
+            if (scheduler.isOwnedByCurrentThread(world, BlockKey.chunkX(chunkKey), BlockKey.chunkZ(chunkKey))) {
+                owned.add(chunkKey);
+            } else if (i > 0) {
+                // The first chunk is where this task was sent, so it is never passed on again
+                others.add(chunkKey);
             }
         }
+        if (!others.isEmpty()) {
+            split.addPart();
+            scheduleForeignPart(split, centerBlock, range, others);
+        }
         
-        // Give mass harvest economy bonus with tool multiplier
-        if (harvested > 1 && plugin.getEconomyManager().isEconomyEnabled()) {
-            double bonus = plugin.getConfigManager().getMassHarvestBonus();
-            double toolMultiplier = plugin.getToolManager().getEconomyToolMultiplier(player);
-            plugin.getEconomyManager().giveHarvestReward(player, (int) (harvested * bonus), toolMultiplier);
+        List<Block> crops = new ArrayList<>();
+        if (!owned.isEmpty() && split.getRemainingCrops() > 0) {
+            scanCrops(centerBlock, range, split.getRemainingCrops(), crops, owned::contains);
+            split.claim(crops);
+        }
+        if (crops.isEmpty()) {
+            split.partDone(0);
+            return;
         }
         
-        return harvested;
+        sortByDistance(crops, centerBlock);
+        HarvestContext context = split.getContext();
+        // Drops and effects are placed at the nearest crop in this chunk, which this thread owns
+        HarvestJob job = new HarvestJob(context, crops.get(0), crops, createBatch(context, false), null, split);
+        plugin.getHarvestExecutor().runToCompletion(job);
     }
     
-    private void replantCrop(Player player, Block block, CropInfo cropInfo) {
-        Material seedType = cropInfo.getSeedType();
+    private HarvestJob createMassHarvestJob(HarvestContext context, Block centerBlock, int range, IntConsumer onComplete) {
+        if (!context.canHarvest()) {
+            return new HarvestJob(context, centerBlock, new ArrayList<>(), createBatch(context), onComplete);
+        }
         
-        // Remove one seed from inventory
-        ItemStack seedItem = new ItemStack(seedType, 1);
-        player.getInventory().removeItem(seedItem);
+        int maxCrops = plugin.getConfigManager().getMaxCrops();
+        List<Block> crops = new ArrayList<>();
+        scanForMassHarvest(centerBlock, range, maxCrops, crops, getOwnedChunkFilter(centerBlock.getWorld()));
+        sortByDistance(crops, centerBlock);
         
-        // Replant the crop
-        block.setType(cropInfo.getCropType());
-        BlockData newBlockData = block.getBlockData();
-        if (newBlockData instanceof Ageable) {
-            Ageable ageable = (Ageable) newBlockData;
-            ageable.setAge(0);
-            block.setBlockData(ageable);
+        return new HarvestJob(context, centerBlock, crops, createBatch(context), onComplete);
+    }
+    
+    private void sortByDistance(List<Block> crops, Block centerBlock) {
+        if (plugin.getConfigManager().isMassHarvestWave()) {
+            // Harvest outward from the clicked crop
+            int centerX = centerBlock.getX();
+            int centerZ = centerBlock.getZ();
+            crops.sort(Comparator.comparingInt(block -> {
+                int dx = block.getX() - centerX;
+                int dz = block.getZ() - centerZ;
+                return dx * dx + dz * dz;
+            }));
         }
     }
     
-    private Collection<ItemStack> applyDropMultiplier(Collection<ItemStack> drops, double multiplier) {
-        Collection<ItemStack> newDrops = new ArrayList<>();
-        for (ItemStack drop : drops) {
-            ItemStack newDrop = drop.clone();
-            int newAmount = (int) Math.ceil(drop.getAmount() * multiplier);
-            newDrop.setAmount(newAmount);
-            newDrops.add(newDrop);
-        }
-        return newDrops;
-    }
-    
-    private boolean addItemsToInventory(Player player, Collection<ItemStack> items) {
-        boolean allItemsAdded = true;
-        for (ItemStack item : items) {
-            HashMap<Integer, ItemStack> leftover = player.getInventory().addItem(item);
-            if (!leftover.isEmpty()) {
-                allItemsAdded = false;
-                // Drop items that don't fit
-                for (ItemStack leftoverItem : leftover.values()) {
-                    player.getWorld().dropItemNaturally(player.getLocation(), leftoverItem);
-                }
-            }
+    /**
+     * Harvest one crop of a mass harvest job. The scan already checked every crop,
+     * so a crop is only checked again if the job was deferred to a later tick.
+     */
+    void processJobCrop(HarvestJob job, Block crop) {
+        CropInfo cropInfo = job.isDeferred() ? getMatureCrop(crop) : getRegistry().getHarvestable(crop.getType());
+        if (cropInfo != null && harvestCrop(job.getContext(), crop, cropInfo, job.getBatch())) {
+            job.incrementHarvested();
         }
-        return allItemsAdded;
     }
     
-    private void playHarvestEffects(Player player, Block block) {
-        if (plugin.getConfigManager().isPlaySounds()) {
-            player.playSound(block.getLocation(), Sound.BLOCK_CROP_BREAK, 0.5f, 1.0f);
+    /**
+     * Settle a finished or cancelled mass harvest job.
+     */
+    void finishJob(HarvestJob job) {
+        // Settle seeds, drops and effects for the whole job at once
+        settleBatch(job.getContext(), job.getCenter(), job.getBatch());
+        
+        if (job.getSplit() != null) {
+            // One region's part of a Folia mass harvest; the last part pays for all of them
+            job.getSplit().partDone(job.getHarvested());
+        } else {
+            runForPlayer(job.getPlayer(), () -> payMassHarvest(job.getContext(), job.getHarvested()));
         }
+    }
+    
+    void payMassHarvest(HarvestContext context, int harvested) {
+        Player player = context.getPlayer();
+        plugin.getAnalyticsManager().recordMassHarvest(player.getUniqueId(), harvested);
         
-        if (plugin.getConfigManager().isShowParticles()) {
-            // Use HAPPY_VILLAGER instead of VILLAGER_HAPPY (renamed in newer versions)
-            block.getWorld().spawnParticle(
-                Particle.HAPPY_VILLAGER, 
-                block.getLocation().add(0.5, 0.5, 0.5), 
-                5, 0.3, 0.3, 0.3, 0.1
-            );
+        // Give mass harvest economy bonus with tool multiplier
+        if (harvested > 1 && plugin.getEconomyManager().isEconomyEnabled()) {
+            double bonus = plugin.getConfigManager().getMassHarvestBonus();
+            double toolMultiplier = context.getEconomyMultiplier();
+            plugin.getEconomyManager().giveHarvestReward(player, (int) (harvested * bonus), toolMultiplier);
+        }
+        
+        // Pay out the whole job, including per-crop rewards, in one deposit
+        plugin.getEconomyManager().flush(player);
+    }
+    
+    private void replantCrop(Block block, CropInfo cropInfo) {
+        // Remove the upper half first so it isn't left floating
+        if (cropInfo.isTall()) {
+            Block above = block.getRelative(BlockFace.UP);
+            if (above.getType() == cropInfo.getCropType()) {
+                above.setType(Material.AIR, false);
+            }
+        }
+        
+        // Replant the crop, keeping the existing block data (e.g. which way cocoa faces)
+        BlockData newBlockData;
+        if (cropInfo.getReplantType() == cropInfo.getCropType()) {
+            newBlockData = block.getBlockData().clone();
+        } else {
+            newBlockData = cropInfo.getReplantType().createBlockData();
+        }
+        if (newBlockData instanceof Ageable) {
+            ((Ageable) newBlockData).setAge(0);
+        }
+        if (newBlockData instanceof Bisected) {
+            ((Bisected) newBlockData).setHalf(Bisected.Half.BOTTOM);
+        }
+        block.setBlockData(newBlockData);
+    }
+    
+    /**
+     * Scale drop amounts in place; {@code getDrops} already returns fresh stacks.
+     */
+    static void applyDropMultiplier(Collection<ItemStack> drops, double multiplier, DropRounding rounding) {
+        for (ItemStack drop : drops) {
+            drop.setAmount(rounding.scale(drop.getType(), drop.getAmount(), multiplier));
         }
     }
     
     public Set<Material> getSupportedCropTypes() {
-        return supportedCrops.keySet();
+        Set<Material> types = EnumSet.noneOf(Material.class);
+        for (CropInfo cropInfo : getRegistry().getCrops()) {
+            types.add(cropInfo.getCropType());
+        }
+        return types;
     }
     
     public CropInfo getCropInfo(Material cropType) {
-        return supportedCrops.get(cropType);
+        return getRegistry().get(cropType);
     }
 }
\ No newline at end of file
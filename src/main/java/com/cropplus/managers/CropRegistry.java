@@ -0,0 +1,162 @@
+package com.cropplus.managers;
+
+import com.cropplus.config.CropPlusSettings;
+import com.cropplus.config.CropPlusSettings.CropSettings;
+import com.cropplus.models.CropInfo;
+import org.bukkit.Material;
+import org.bukkit.block.data.Ageable;
+import org.bukkit.block.data.Bisected;
+import org.bukkit.block.data.BlockData;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+
+/**
+ * The crops CropPlus can harvest, built from the crops section of the config.
+ * <p>
+ * Entries are stored in an array indexed by {@link Material#ordinal()}, so
+ * checking a block is a single array read. The seven vanilla crops CropPlus has
+ * always supported are registered even when the config doesn't list them.
+ * <p>
+ * Every tool that has a multiplier for any crop gets a small tool index, and
+ * each crop holds its combined crop and tool multipliers in an array by that
+ * index, so the multiplier for a harvest is two array reads.
+ */
+public class CropRegistry {
+
+    private static final int MATERIAL_COUNT = Material.values().length;
+    private static final Map<Material, Material> DEFAULT_SEEDS = new EnumMap<>(Material.class);
+
+    static {
+        DEFAULT_SEEDS.put(Material.WHEAT, Material.WHEAT_SEEDS);
+        DEFAULT_SEEDS.put(Material.CARROTS, Material.CARROT);
+        DEFAULT_SEEDS.put(Material.POTATOES, Material.POTATO);
+        DEFAULT_SEEDS.put(Material.BEETROOTS, Material.BEETROOT_SEEDS);
+        DEFAULT_SEEDS.put(Material.NETHER_WART, Material.NETHER_WART);
+        DEFAULT_SEEDS.put(Material.COCOA, Material.COCOA_BEANS);
+        DEFAULT_SEEDS.put(Material.SWEET_BERRY_BUSH, Material.SWEET_BERRIES);
+    }
+
+    private final CropInfo[] crops = new CropInfo[MATERIAL_COUNT];
+    private final List<CropInfo> cropList = new ArrayList<>();
+    private final int[] toolIndexes = new int[MATERIAL_COUNT];
+    private final List<Material> tools = new ArrayList<>();
+    private final CropPlusSettings settings;
+
+    private CropRegistry(CropPlusSettings settings) {
+        this.settings = settings;
+    }
+
+    /**
+     * Build the registry for a settings snapshot, logging entries that can't be used.
+     */
+    public static CropRegistry load(CropPlusSettings settings, Logger logger) {
+        CropRegistry registry = new CropRegistry(settings);
+
+        // Index 0 stands for every tool without a multiplier of its own
+        registry.tools.add(null);
+        for (CropSettings crop : settings.getCrops()) {
+            for (Material tool : crop.getToolMultipliers().keySet()) {
+                if (registry.toolIndexes[tool.ordinal()] == 0) {
+                    registry.toolIndexes[tool.ordinal()] = registry.tools.size();
+                    registry.tools.add(tool);
+                }
+            }
+        }
+
+        for (CropSettings crop : settings.getCrops()) {
+            if (crop.getMaterial() == null || !crop.getMaterial().isBlock()) {
+                logger.warning("Unknown crop block for crops." + crop.getName() + ", skipping it");
+                continue;
+            }
+            registry.register(crop.getMaterial(), crop, logger);
+        }
+
+        for (Map.Entry<Material, Material> entry : DEFAULT_SEEDS.entrySet()) {
+            if (registry.get(entry.getKey()) == null) {
+                registry.register(entry.getKey(), null, logger);
+            }
+        }
+        return registry;
+    }
+
+    private void register(Material block, CropSettings settings, Logger logger) {
+        Material seed = settings != null ? settings.getSeedType() : null;
+        if (seed == null) {
+            seed = DEFAULT_SEEDS.get(block);
+        }
+        if (seed == null) {
+            logger.warning("No valid seed-item for crops." + settings.getName() + ", skipping it");
+            return;
+        }
+
+        Material replant = settings != null ? settings.getReplantType() : block;
+        if (replant == null || !replant.isBlock()) {
+            logger.warning("Unknown replant-as block for crops." + settings.getName() + ", skipping it");
+            return;
+        }
+
+        // Read the growth stages off the block itself so new crops need no code
+        BlockData data = block.createBlockData();
+        int maxAge = data instanceof Ageable ? ((Ageable) data).getMaximumAge() : 0;
+        if (settings != null && settings.getMaxAge() > 0) {
+            maxAge = settings.getMaxAge();
+        }
+
+        double baseMultiplier = settings != null ? settings.getDropMultiplier() : 1.0;
+        double[] multipliers = new double[tools.size()];
+        multipliers[0] = baseMultiplier;
+        for (int i = 1; i < tools.size(); i++) {
+            multipliers[i] = baseMultiplier * (settings != null ? settings.getToolMultiplier(tools.get(i)) : 1.0);
+        }
+
+        CropInfo info = new CropInfo(
+            block,
+            seed,
+            maxAge,
+            replant,
+            settings == null || settings.isEnabled(),
+            data instanceof Bisected,
+            multipliers
+        );
+        crops[block.ordinal()] = info;
+        cropList.add(info);
+    }
+
+    /**
+     * The crop registered for a block type, enabled or not, or null.
+     */
+    public CropInfo get(Material type) {
+        return crops[type.ordinal()];
+    }
+
+    /**
+     * The crop registered for a block type if it is enabled, otherwise null.
+     */
+    public CropInfo getHarvestable(Material type) {
+        CropInfo crop = crops[type.ordinal()];
+        return crop != null && crop.isEnabled() ? crop : null;
+    }
+
+    /**
+     * The index of a tool in every crop's multiplier array.
+     */
+    public int getToolIndex(Material tool) {
+        return toolIndexes[tool.ordinal()];
+    }
+
+    /**
+     * The settings snapshot this registry was built from.
+     */
+    public CropPlusSettings getSettings() {
+        return settings;
+    }
+
+    public List<CropInfo> getCrops() {
+        return Collections.unmodifiableList(cropList);
+    }
+}
@@ -0,0 +1,31 @@
+package com.cropplus.managers;
+
+import org.bukkit.Material;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Rounds multiplied drop amounts for one player without random chance or
+ * always rounding up: the fraction left over from one drop is carried to the
+ * next drop of the same item, so over time the player gets exactly the
+ * expected amount.
+ */
+class DropRounding {
+
+    private final Map<Material, double[]> carries = new EnumMap<>(Material.class);
+
+    synchronized int scale(Material type, int amount, double multiplier) {
+        double[] carry = carries.get(type);
+        if (carry == null) {
+            // Start halfway so a single drop rounds to the nearest amount
+            carry = new double[] {0.5};
+            carries.put(type, carry);
+        }
+
+        double exact = amount * multiplier + carry[0];
+        int scaled = (int) exact;
+        carry[0] = exact - scaled;
+        return scaled;
+    }
+}
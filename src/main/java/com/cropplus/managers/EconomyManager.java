@@ -1,15 +1,25 @@
 package com.cropplus.managers;
 
 import com.cropplus.CropPlus;
+import com.cropplus.managers.RewardAccumulator.PendingReward;
+import com.cropplus.scheduler.TaskHandle;
 import net.milkbowl.vault.economy.Economy;
+import net.milkbowl.vault.economy.EconomyResponse;
+import org.bukkit.OfflinePlayer;
 import org.bukkit.entity.Player;
 import org.bukkit.plugin.RegisteredServiceProvider;
 
+import java.util.Map;
+import java.util.UUID;
+
 public class EconomyManager {
     
     private final CropPlus plugin;
     private Economy economy;
     private boolean economyEnabled;
+    private final RewardAccumulator rewards = new RewardAccumulator();
+    private TaskHandle flushTask;
+    private AsyncDepositQueue depositQueue;
     
     public EconomyManager(CropPlus plugin) {
         this.plugin = plugin;
@@ -38,6 +48,67 @@ public class EconomyManager {
         economy = rsp.getProvider();
         economyEnabled = true;
         plugin.getLogger().info("Economy integration enabled with " + economy.getName());
+        
+        startDepositQueue();
+        replayJournal();
+    }
+    
+    /**
+     * Start the async deposit worker if it is enabled and the provider is marked thread-safe.
+     * A worker already running with the same settings is kept.
+     */
+    private void startDepositQueue() {
+        boolean async = plugin.getConfigManager().isEconomyAsyncEnabled()
+                && plugin.getConfigManager().isEconomyThreadSafeProvider();
+        int capacity = plugin.getConfigManager().getEconomyAsyncQueueSize();
+        int maxRetries = plugin.getConfigManager().getEconomyAsyncMaxRetries();
+        
+        if (depositQueue != null) {
+            if (async && depositQueue.matches(economy, capacity, maxRetries)) {
+                return;
+            }
+            // The old worker drains and journals on its own thread; joining it here would stall the tick
+            depositQueue.stop();
+            depositQueue = null;
+        }
+        
+        if (!plugin.getConfigManager().isEconomyAsyncEnabled()) {
+            return;
+        }
+        
+        if (!async) {
+            plugin.getLogger().info("Async deposits are enabled but " + economy.getName() + 
+                                  " is not marked thread-safe; depositing on the main thread.");
+            return;
+        }
+        
+        depositQueue = new AsyncDepositQueue(plugin, economy, capacity, maxRetries, this::onAsyncDeposit);
+        plugin.getLogger().info("Economy deposits will be made asynchronously.");
+    }
+    
+    /**
+     * Pay out deposits that were journaled during the last shutdown.
+     */
+    private void replayJournal() {
+        Map<UUID, Double> pending = AsyncDepositQueue.readJournal(plugin);
+        for (Map.Entry<UUID, Double> entry : pending.entrySet()) {
+            OfflinePlayer player = plugin.getServer().getOfflinePlayer(entry.getKey());
+            // Not counted in analytics: journals from older versions were counted when earned
+            deposit(player, entry.getValue(), 0, true);
+        }
+        if (!pending.isEmpty()) {
+            plugin.getLogger().info("Replayed " + pending.size() + " journaled deposits");
+        }
+    }
+    
+    /**
+     * Stop the async deposit worker, journaling anything it could not finish.
+     */
+    public void shutdown() {
+        if (depositQueue != null) {
+            depositQueue.shutdown();
+            depositQueue = null;
+        }
     }
     
     public boolean isEconomyEnabled() {
@@ -60,17 +131,137 @@ public class EconomyManager {
             return;
         }
         
-        economy.depositPlayer(player, totalReward);
+        if (plugin.getConfigManager().isMessageAggregationEnabled()) {
+            // Counted into the player's summary now, next to the crops it was earned for,
+            // however much later the deposit is made
+            plugin.getMessageUtil().notifyReward(player, totalReward);
+        }
+        
+        if (plugin.getConfigManager().isEconomyBatchingEnabled()) {
+            // Paid out on the next flush together with everything else earned until then
+            rewards.add(player.getUniqueId(), totalReward, cropCount);
+            return;
+        }
         
-        // Send reward message
-        String message = plugin.getConfigManager().getMessage("economy-reward")
-                .replace("{amount}", economy.format(totalReward));
-        plugin.getMessageUtil().sendMessage(player, message);
+        deposit(player, totalReward, cropCount, false);
+    }
+    
+    /**
+     * Pay out everything a player has earned since the last flush in one deposit.
+     */
+    public void flush(Player player) {
+        PendingReward reward = rewards.drain(player.getUniqueId());
+        if (reward != null && economy != null) {
+            deposit(player, reward.getAmount(), reward.getCropCount(), false);
+        }
+    }
+    
+    /**
+     * Pay out every pending reward, one deposit per player.
+     */
+    public void flushAll() {
+        if (rewards.isEmpty() || economy == null) {
+            return;
+        }
+        
+        for (Map.Entry<UUID, PendingReward> entry : rewards.drainAll().entrySet()) {
+            OfflinePlayer player = plugin.getServer().getOfflinePlayer(entry.getKey());
+            PendingReward reward = entry.getValue();
+            deposit(player, reward.getAmount(), reward.getCropCount(), false);
+        }
+    }
+    
+    /**
+     * Start (or restart) the task that flushes pending rewards on the configured interval.
+     */
+    public void startFlushTask() {
+        stopFlushTask();
+        if (!plugin.getConfigManager().isEconomyBatchingEnabled()) {
+            // Batching was turned off; don't leave anything behind
+            flushAll();
+            return;
+        }
+        
+        long interval = plugin.getConfigManager().getEconomyFlushInterval();
+        flushTask = plugin.getTaskScheduler().runGlobalTimer(this::flushAll, interval, interval);
+    }
+    
+    public void stopFlushTask() {
+        if (flushTask != null) {
+            flushTask.cancel();
+            flushTask = null;
+        }
+    }
+    
+    /**
+     * @param replayed whether the deposit comes from the journal, so is not counted in analytics
+     */
+    private void deposit(OfflinePlayer player, double amount, int cropCount, boolean replayed) {
+        if (depositQueue != null && depositQueue.submit(player, amount, replayed)) {
+            // The reward message is sent once the worker has made the deposit
+            return;
+        }
+        
+        // Synchronous fallback: provider not thread-safe, async disabled, or queue full
+        long start = plugin.getMetricsManager().start();
+        EconomyResponse response = economy.depositPlayer(player, amount);
+        plugin.getMetricsManager().record(MetricsManager.Stage.DEPOSIT, start);
+        if (response != null && !response.transactionSuccess()) {
+            plugin.getLogger().warning("Deposit for " + player.getName() + " failed: " + response.errorMessage);
+            return;
+        }
+        if (!replayed) {
+            plugin.getAnalyticsManager().recordPayout(player.getUniqueId(), amount);
+        }
+        sendRewardMessage(player.getUniqueId(), amount);
         
         if (plugin.getConfigManager().isDebug()) {
             plugin.getLogger().info("Gave " + player.getName() + " " + 
-                                  economy.format(totalReward) + " for harvesting " + cropCount + " crops");
+                                  economy.format(amount) + " for harvesting " + cropCount + " crops");
+        }
+    }
+    
+    /**
+     * Called on the deposit worker thread; hops back to the main thread for the message.
+     */
+    private void onAsyncDeposit(UUID playerId, double amount, boolean replayed) {
+        if (!plugin.isEnabled()) {
+            return;
+        }
+        if (!replayed) {
+            plugin.getAnalyticsManager().recordPayout(playerId, amount);
         }
+        plugin.getTaskScheduler().runGlobal(() -> {
+            sendRewardMessage(playerId, amount);
+            
+            if (plugin.getConfigManager().isDebug()) {
+                plugin.getLogger().info("Asynchronously deposited " + economy.format(amount) + " for " + playerId);
+            }
+        });
+    }
+    
+    private void sendRewardMessage(UUID playerId, double amount) {
+        if (plugin.getConfigManager().isMessageAggregationEnabled()) {
+            // Summaries already include the reward from when it was earned
+            return;
+        }
+        Player online = plugin.getServer().getPlayer(playerId);
+        if (online == null) {
+            return;
+        }
+        // Deposits are flushed from the global thread, which on Folia does not own the player
+        if (plugin.getTaskScheduler().isOwnedByCurrentThread(online)) {
+            plugin.getMessageUtil().notifyReward(online, amount);
+        } else {
+            plugin.getTaskScheduler().runForEntity(online, () -> plugin.getMessageUtil().notifyReward(online, amount));
+        }
+    }
+    
+    /**
+     * Format an amount of money the way the economy plugin displays it.
+     */
+    public String format(double amount) {
+        return economy != null ? economy.format(amount) : String.format("%.2f", amount);
     }
     
     public Economy getEconomy() {
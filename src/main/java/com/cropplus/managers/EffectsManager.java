@@ -0,0 +1,155 @@
+package com.cropplus.managers;
+
+import com.cropplus.CropPlus;
+import org.bukkit.Location;
+import org.bukkit.Particle;
+import org.bukkit.Sound;
+import org.bukkit.block.Block;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.entity.Player;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Plays harvest sounds and particles once per harvest instead of once per crop.
+ * <p>
+ * A harvest gets a single sound for the harvesting player. Particles go only to
+ * players within the view distance who haven't switched to reduced effects, for
+ * a limited number of crops per harvest and a limited number of particle packets
+ * per tick across all harvests.
+ */
+public class EffectsManager {
+
+    private static final String PLAYER_FILE = "player-settings.yml";
+
+    private final CropPlus plugin;
+    private final Set<UUID> reducedEffects = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger packetsThisTick = new AtomicInteger();
+    private final AtomicBoolean resetScheduled = new AtomicBoolean();
+
+    public EffectsManager(CropPlus plugin) {
+        this.plugin = plugin;
+        load();
+    }
+
+    /**
+     * Play the effects for a finished harvest.
+     *
+     * @param origin the harvested crop, or the clicked crop of a mass harvest
+     */
+    void play(Player player, Block origin, HarvestEffects effects) {
+        if (effects.getCropCount() == 0) {
+            return;
+        }
+
+        // On Folia the crops can be in another region than the player, who then hears the part near them
+        if (plugin.getConfigManager().isPlaySounds() && player.isOnline()
+                && plugin.getTaskScheduler().isOwnedByCurrentThread(player)) {
+            player.playSound(origin.getLocation(), Sound.BLOCK_CROP_BREAK, 0.5f, 1.0f);
+        }
+
+        if (!plugin.getConfigManager().isShowParticles() || effects.getSampleSize() == 0) {
+            return;
+        }
+
+        List<Player> viewers = getViewers(origin);
+        for (int i = 0; i < effects.getSampleSize(); i++) {
+            // Use HAPPY_VILLAGER instead of VILLAGER_HAPPY (renamed in newer versions)
+            Location location = effects.getSample(i).getLocation().add(0.5, 0.5, 0.5);
+            for (Player viewer : viewers) {
+                if (!takePacket()) {
+                    return;
+                }
+                viewer.spawnParticle(Particle.HAPPY_VILLAGER, location, 5, 0.3, 0.3, 0.3, 0.1);
+            }
+        }
+    }
+
+    public boolean hasReducedEffects(UUID playerId) {
+        return reducedEffects.contains(playerId);
+    }
+
+    /**
+     * Switch a player between normal and reduced effects.
+     *
+     * @return true if the player now has reduced effects
+     */
+    public boolean toggleReducedEffects(UUID playerId) {
+        boolean reduced = reducedEffects.add(playerId);
+        if (!reduced) {
+            reducedEffects.remove(playerId);
+        }
+        save();
+        return reduced;
+    }
+
+    private List<Player> getViewers(Block origin) {
+        Location center = origin.getLocation();
+        double distance = plugin.getConfigManager().getEffectsViewDistance();
+        double maxDistanceSquared = distance * distance;
+
+        List<Player> viewers = new ArrayList<>();
+        for (Player viewer : origin.getWorld().getPlayers()) {
+            if (!reducedEffects.contains(viewer.getUniqueId()) && 
+                viewer.getLocation().distanceSquared(center) <= maxDistanceSquared) {
+                viewers.add(viewer);
+            }
+        }
+        return viewers;
+    }
+
+    private boolean takePacket() {
+        if (packetsThisTick.get() >= plugin.getConfigManager().getMaxParticlesPerTick()) {
+            return false;
+        }
+        if (resetScheduled.compareAndSet(false, true)) {
+            // Start counting afresh next tick
+            plugin.getTaskScheduler().runGlobal(() -> {
+                packetsThisTick.set(0);
+                resetScheduled.set(false);
+            });
+        }
+        packetsThisTick.incrementAndGet();
+        return true;
+    }
+
+    private void load() {
+        File file = new File(plugin.getDataFolder(), PLAYER_FILE);
+        if (!file.exists()) {
+            return;
+        }
+
+        YamlConfiguration players = YamlConfiguration.loadConfiguration(file);
+        for (String id : players.getStringList("reduced-effects")) {
+            try {
+                reducedEffects.add(UUID.fromString(id));
+            } catch (IllegalArgumentException e) {
+                plugin.getLogger().warning("Skipping invalid player id in " + PLAYER_FILE + ": " + id);
+            }
+        }
+    }
+
+    private synchronized void save() {
+        List<String> ids = new ArrayList<>();
+        for (UUID id : reducedEffects) {
+            ids.add(id.toString());
+        }
+
+        File file = new File(plugin.getDataFolder(), PLAYER_FILE);
+        YamlConfiguration players = YamlConfiguration.loadConfiguration(file);
+        players.set("reduced-effects", ids);
+        try {
+            players.save(file);
+        } catch (IOException e) {
+            plugin.getLogger().warning("Could not save " + PLAYER_FILE + ": " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.cropplus.managers;
+
+import org.bukkit.entity.Player;
+
+/**
+ * What a harvest builds up while its crops are processed: drops to hand out,
+ * seeds reserved for replanting and crops to show effects for. It is settled
+ * once, when the harvest is done.
+ */
+class HarvestBatch {
+
+    private final HarvestDrops drops = new HarvestDrops();
+    private final SeedLedger seeds;
+    private final HarvestEffects effects;
+    private final DropRounding rounding;
+    private int rewardedCrops;
+
+    /**
+     * @param useInventory whether seeds may be taken from the player's inventory; on Folia
+     *                     a harvest in another region than the player's can't read it
+     */
+    HarvestBatch(Player player, DropRounding rounding, int maxEffects, boolean useInventory) {
+        this.seeds = new SeedLedger(useInventory ? player.getInventory() : null);
+        this.effects = new HarvestEffects(maxEffects);
+        this.rounding = rounding;
+    }
+
+    HarvestDrops getDrops() {
+        return drops;
+    }
+
+    SeedLedger getSeeds() {
+        return seeds;
+    }
+
+    HarvestEffects getEffects() {
+        return effects;
+    }
+
+    /**
+     * Crops harvested so far that earn the per-crop reward, paid when the batch is settled.
+     */
+    int getRewardedCrops() {
+        return rewardedCrops;
+    }
+
+    void addRewardedCrop() {
+        rewardedCrops++;
+    }
+
+    /**
+     * The player's rounding state for multiplied drops, kept across harvests.
+     */
+    DropRounding getRounding() {
+        return rounding;
+    }
+}
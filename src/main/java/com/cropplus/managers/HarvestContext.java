@@ -0,0 +1,158 @@
+package com.cropplus.managers;
+
+import com.cropplus.CropPlus;
+import com.cropplus.config.CropPlusSettings;
+import com.cropplus.config.CropPlusSettings.GroupSettings;
+import com.cropplus.config.CropPlusSettings.WorldSettings;
+import com.cropplus.models.CropInfo;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+import org.bukkit.inventory.ItemStack;
+
+/**
+ * Everything about a player that the harvest checks need, resolved once per
+ * interaction: the settings snapshot, world and group rules, the held tool,
+ * permissions and multipliers. Each crop of a harvest is then only checked
+ * for being a mature, enabled crop.
+ */
+public class HarvestContext {
+
+    private final CropPlus plugin;
+    private final Player player;
+    private final CropPlusSettings settings;
+    private final GroupSettings group;
+    private final Material tool;
+    private final ItemStack toolItem;
+    private final boolean permitted;
+    private final boolean toolAllowed;
+    private final boolean worldAllowed;
+    private final boolean bypassCooldown;
+    private final boolean autoCollect;
+    private final String dropLocation;
+    private final double economyMultiplier;
+    private volatile ToolSlot toolSlot;
+
+    /**
+     * @param targetWorld the world the crops are in
+     */
+    HarvestContext(CropPlus plugin, Player player, World targetWorld) {
+        this.plugin = plugin;
+        this.player = player;
+        this.settings = plugin.getConfigManager().getSettings();
+        this.group = settings.getGroup(plugin.getConfigManager().getPlayerGroup(player));
+        // A copy, so crops in other regions on Folia never read the player's inventory
+        this.toolItem = player.getInventory().getItemInMainHand().clone();
+        this.tool = toolItem.getType();
+
+        WorldSettings world = settings.getWorld(player.getWorld().getName());
+        this.permitted = player.hasPermission("cropplus.use");
+        this.toolAllowed = plugin.getToolManager().isToolAllowed(world, group, tool);
+        this.worldAllowed = player.hasPermission("cropplus.bypass.world") ||
+                            settings.getWorld(targetWorld.getName()).isHarvestAllowed();
+        this.bypassCooldown = player.hasPermission("cropplus.bypass.cooldown");
+
+        if (group != null) {
+            this.autoCollect = group.isAutoCollectEnabled();
+            this.dropLocation = group.getDropLocation();
+        } else {
+            this.autoCollect = world.isAutoCollectEnabled();
+            this.dropLocation = world.getDropLocation();
+        }
+        this.economyMultiplier = settings.getEconomyToolMultiplier(tool);
+    }
+
+    public Player getPlayer() {
+        return player;
+    }
+
+    public CropPlusSettings getSettings() {
+        return settings;
+    }
+
+    /**
+     * The player's group, or null if they have none or groups are disabled.
+     */
+    public GroupSettings getGroup() {
+        return group;
+    }
+
+    public Material getTool() {
+        return tool;
+    }
+
+    /**
+     * The held item as it was when the player clicked, for working out drops.
+     */
+    public ItemStack getToolItem() {
+        return toolItem;
+    }
+
+    public boolean isPermitted() {
+        return permitted;
+    }
+
+    public boolean isToolAllowed() {
+        return toolAllowed;
+    }
+
+    public boolean isWorldAllowed() {
+        return worldAllowed;
+    }
+
+    /**
+     * Whether the player may harvest at all: permission, tool and world checks combined.
+     */
+    public boolean canHarvest() {
+        return permitted && toolAllowed && worldAllowed;
+    }
+
+    public boolean isBypassCooldown() {
+        return bypassCooldown;
+    }
+
+    public double getCooldownMultiplier() {
+        return group != null ? group.getCooldownMultiplier() : 1.0;
+    }
+
+    public int getRangeBonus() {
+        return group != null ? group.getRangeBonus() : 0;
+    }
+
+    public boolean isAutoCollect() {
+        return autoCollect;
+    }
+
+    public String getDropLocation() {
+        return dropLocation;
+    }
+
+    public double getEconomyMultiplier() {
+        return economyMultiplier;
+    }
+
+    /**
+     * Combined crop and tool drop multiplier for a crop.
+     */
+    public double getDropMultiplier(CropInfo crop) {
+        // The tool's index is looked up once, and again only if a reload replaced the registry
+        CropRegistry current = plugin.getCropManager().getRegistry();
+        ToolSlot slot = toolSlot;
+        if (slot == null || slot.registry != current) {
+            slot = new ToolSlot(current, current.getToolIndex(tool));
+            toolSlot = slot;
+        }
+        return crop.getDropMultiplier(slot.index);
+    }
+
+    private static final class ToolSlot {
+
+        private final CropRegistry registry;
+        private final int index;
+
+        private ToolSlot(CropRegistry registry, int index) {
+            this.registry = registry;
+            this.index = index;
+        }
+    }
+}
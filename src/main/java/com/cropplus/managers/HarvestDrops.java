@@ -0,0 +1,143 @@
+package com.cropplus.managers;
+
+import org.bukkit.Material;
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.ItemStack;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Drops gathered over a harvest, merged by item, so they can be handed out in
+ * one go instead of one stack per crop.
+ * <p>
+ * A harvest yields only a few distinct items, so they are kept as a short list
+ * of single-item prototypes with a running count each.
+ */
+public class HarvestDrops {
+
+    private final List<ItemStack> items = new ArrayList<>();
+    private int[] counts = new int[4];
+
+    public void add(ItemStack drop) {
+        if (drop == null || drop.getType().isAir() || drop.getAmount() <= 0) {
+            return;
+        }
+
+        for (int i = 0; i < items.size(); i++) {
+            if (items.get(i).isSimilar(drop)) {
+                counts[i] += drop.getAmount();
+                return;
+            }
+        }
+
+        ItemStack prototype = drop.clone();
+        prototype.setAmount(1);
+        if (items.size() == counts.length) {
+            counts = Arrays.copyOf(counts, counts.length * 2);
+        }
+        counts[items.size()] = drop.getAmount();
+        items.add(prototype);
+    }
+
+    public void addAll(Iterable<ItemStack> drops) {
+        for (ItemStack drop : drops) {
+            add(drop);
+        }
+    }
+
+    /**
+     * Take one item of a type back out, e.g. a seed for replanting.
+     *
+     * @return false if there is none
+     */
+    public boolean take(Material type) {
+        for (int i = 0; i < items.size(); i++) {
+            if (counts[i] > 0 && items.get(i).getType() == type) {
+                counts[i]--;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public boolean isEmpty() {
+        return items.isEmpty();
+    }
+
+    /**
+     * Put the drops into an inventory with a single pass over its storage slots:
+     * partial stacks of the same item are topped up first, then empty slots are
+     * filled. Only slots that changed are written back.
+     *
+     * @return whatever did not fit, as full stacks
+     */
+    public List<ItemStack> addTo(Inventory inventory) {
+        ItemStack[] contents = inventory.getStorageContents();
+        boolean[] changed = new boolean[contents.length];
+        int[] remaining = counts.clone();
+
+        for (int i = 0; i < items.size(); i++) {
+            ItemStack prototype = items.get(i);
+            int maxStack = prototype.getMaxStackSize();
+
+            for (int slot = 0; slot < contents.length && remaining[i] > 0; slot++) {
+                ItemStack stack = contents[slot];
+                if (stack == null || stack.getAmount() >= maxStack || !stack.isSimilar(prototype)) {
+                    continue;
+                }
+                int added = Math.min(remaining[i], maxStack - stack.getAmount());
+                stack.setAmount(stack.getAmount() + added);
+                remaining[i] -= added;
+                changed[slot] = true;
+            }
+
+            for (int slot = 0; slot < contents.length && remaining[i] > 0; slot++) {
+                ItemStack stack = contents[slot];
+                if (stack != null && !stack.getType().isAir()) {
+                    continue;
+                }
+                int added = Math.min(remaining[i], maxStack);
+                ItemStack filled = prototype.clone();
+                filled.setAmount(added);
+                contents[slot] = filled;
+                remaining[i] -= added;
+                changed[slot] = true;
+            }
+        }
+
+        for (int slot = 0; slot < contents.length; slot++) {
+            if (changed[slot]) {
+                inventory.setItem(slot, contents[slot]);
+            }
+        }
+
+        return toStacks(remaining);
+    }
+
+    /**
+     * The drops as the fewest possible stacks.
+     */
+    public List<ItemStack> toStacks() {
+        return toStacks(counts);
+    }
+
+    public void clear() {
+        items.clear();
+    }
+
+    private List<ItemStack> toStacks(int[] amounts) {
+        List<ItemStack> stacks = new ArrayList<>();
+        for (int i = 0; i < items.size(); i++) {
+            ItemStack prototype = items.get(i);
+            int maxStack = prototype.getMaxStackSize();
+            for (int amount = amounts[i]; amount > 0; amount -= maxStack) {
+                ItemStack stack = prototype.clone();
+                stack.setAmount(Math.min(amount, maxStack));
+                stacks.add(stack);
+            }
+        }
+        return stacks;
+    }
+}
@@ -0,0 +1,49 @@
+package com.cropplus.managers;
+
+import org.bukkit.block.Block;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * The crops of a harvest to show effects for: a fixed-size random sample, so
+ * a big mass harvest shows particles spread over the whole area without
+ * sending one per crop.
+ */
+class HarvestEffects {
+
+    private final Block[] sample;
+    private int cropCount;
+
+    HarvestEffects(int maxSample) {
+        this.sample = new Block[Math.max(0, maxSample)];
+    }
+
+    void add(Block crop) {
+        cropCount++;
+        if (sample.length == 0) {
+            return;
+        }
+
+        // Reservoir sampling keeps every crop equally likely to be shown
+        if (cropCount <= sample.length) {
+            sample[cropCount - 1] = crop;
+        } else {
+            int slot = ThreadLocalRandom.current().nextInt(cropCount);
+            if (slot < sample.length) {
+                sample[slot] = crop;
+            }
+        }
+    }
+
+    int getCropCount() {
+        return cropCount;
+    }
+
+    int getSampleSize() {
+        return Math.min(cropCount, sample.length);
+    }
+
+    Block getSample(int index) {
+        return sample[index];
+    }
+}
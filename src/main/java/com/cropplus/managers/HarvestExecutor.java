@@ -0,0 +1,239 @@
+package com.cropplus.managers;
+
+import com.cropplus.CropPlus;
+import com.cropplus.scheduler.TaskHandle;
+import com.cropplus.scheduler.TaskScheduler;
+import org.bukkit.block.Block;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Runs mass harvest jobs, either straight away or spread over several ticks.
+ * <p>
+ * In SPREAD mode all queued jobs share one per-tick budget (a crop count and a
+ * time limit), served round-robin so several players harvesting at once cannot
+ * push a single tick over budget. The tick task only runs while jobs are queued.
+ * <p>
+ * On Folia there is no single tick to share, so each spread job gets its own
+ * timer on the thread owning its center chunk, with the same per-tick budget.
+ */
+public class HarvestExecutor {
+
+    private final CropPlus plugin;
+    private final Deque<HarvestJob> queue = new ArrayDeque<>();
+    private final Set<HarvestJob> regionJobs = ConcurrentHashMap.newKeySet();
+    private TaskHandle task;
+
+    public HarvestExecutor(CropPlus plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * Submit a job for execution.
+     *
+     * @return false if the player already has the maximum number of jobs queued
+     */
+    public boolean submit(HarvestJob job) {
+        int cropsPerTick = plugin.getConfigManager().getMassHarvestCropsPerTick();
+
+        // Small jobs fit in a single tick's budget anyway
+        if (!plugin.getConfigManager().isMassHarvestSpread() || job.getTotalCrops() <= cropsPerTick) {
+            runToCompletion(job);
+            return true;
+        }
+
+        // Parts of a region split were checked against the limit before the split was made
+        if (job.getSplit() == null && !hasCapacity(job.getPlayer().getUniqueId())) {
+            return false;
+        }
+
+        job.markDeferred();
+        if (plugin.getTaskScheduler().isRegionThreaded()) {
+            startRegionJob(job);
+        } else {
+            queue.add(job);
+            startTask();
+        }
+        return true;
+    }
+
+    /**
+     * Whether a player may queue another spread job.
+     */
+    public boolean hasCapacity(UUID playerId) {
+        return countQueued(playerId) < plugin.getConfigManager().getMassHarvestMaxQueuedPerPlayer();
+    }
+
+    /**
+     * Run a job fully in the current tick.
+     */
+    public void runToCompletion(HarvestJob job) {
+        while (job.hasNext()) {
+            plugin.getCropManager().processJobCrop(job, job.next());
+        }
+        complete(job);
+    }
+
+    /**
+     * Cancel every queued job of a player. Crops already harvested keep their rewards.
+     */
+    public void cancelPlayer(UUID playerId) {
+        for (HarvestJob job : regionJobs) {
+            if (job.getPlayer().getUniqueId().equals(playerId)) {
+                // Finished by its own region's next tick
+                job.cancel();
+            }
+        }
+
+        Iterator<HarvestJob> iterator = queue.iterator();
+        while (iterator.hasNext()) {
+            HarvestJob job = iterator.next();
+            if (job.getPlayer().getUniqueId().equals(playerId)) {
+                iterator.remove();
+                job.cancel();
+                plugin.getCropManager().finishJob(job);
+            }
+        }
+    }
+
+    /**
+     * Cancel all queued jobs, e.g. when the plugin is disabled.
+     */
+    public void shutdown() {
+        stopTask();
+        while (!queue.isEmpty()) {
+            HarvestJob job = queue.poll();
+            job.cancel();
+            plugin.getCropManager().finishJob(job);
+        }
+        for (HarvestJob job : regionJobs) {
+            if (regionJobs.remove(job)) {
+                job.getTask().cancel();
+                job.cancel();
+                plugin.getCropManager().finishJob(job);
+            }
+        }
+    }
+
+    public int getQueuedJobCount() {
+        return queue.size() + regionJobs.size();
+    }
+
+    private void tick() {
+        long start = plugin.getMetricsManager().start();
+        int budget = plugin.getConfigManager().getMassHarvestCropsPerTick();
+        long deadline = System.nanoTime() + plugin.getConfigManager().getMassHarvestNanosPerTick();
+
+        while (budget > 0 && !queue.isEmpty()) {
+            HarvestJob job = queue.poll();
+
+            if (!job.getPlayer().isOnline()) {
+                job.cancel();
+                plugin.getCropManager().finishJob(job);
+                continue;
+            }
+
+            plugin.getCropManager().processJobCrop(job, job.next());
+            budget--;
+
+            if (job.hasNext()) {
+                // Round-robin: go to the back so other players' jobs get a turn
+                queue.add(job);
+            } else {
+                complete(job);
+            }
+
+            if (System.nanoTime() >= deadline) {
+                break;
+            }
+        }
+
+        if (queue.isEmpty()) {
+            stopTask();
+        }
+        plugin.getMetricsManager().record(MetricsManager.Stage.HARVEST_TICK, start);
+    }
+
+    private void startRegionJob(HarvestJob job) {
+        Block center = job.getCenter();
+        regionJobs.add(job);
+        job.setTask(plugin.getTaskScheduler().runAtChunkTimer(center.getWorld(), center.getX() >> 4, center.getZ() >> 4,
+                                                              () -> tickRegionJob(job), 1L, 1L));
+    }
+
+    private void tickRegionJob(HarvestJob job) {
+        long start = plugin.getMetricsManager().start();
+        TaskScheduler scheduler = plugin.getTaskScheduler();
+        int budget = plugin.getConfigManager().getMassHarvestCropsPerTick();
+        long deadline = System.nanoTime() + plugin.getConfigManager().getMassHarvestNanosPerTick();
+
+        if (!job.getPlayer().isOnline()) {
+            job.cancel();
+        }
+
+        while (budget > 0 && job.hasNext()) {
+            Block crop = job.next();
+            // Regions can split while the job runs; crops now owned by another thread are skipped
+            if (!scheduler.isOwnedByCurrentThread(crop.getWorld(), crop.getX() >> 4, crop.getZ() >> 4)) {
+                continue;
+            }
+            plugin.getCropManager().processJobCrop(job, crop);
+            budget--;
+
+            if (System.nanoTime() >= deadline) {
+                break;
+            }
+        }
+
+        if (!job.hasNext()) {
+            job.getTask().cancel();
+            // Shutdown may have finished the job already
+            if (regionJobs.remove(job)) {
+                complete(job);
+            }
+        }
+        plugin.getMetricsManager().record(MetricsManager.Stage.HARVEST_TICK, start);
+    }
+
+    private void complete(HarvestJob job) {
+        plugin.getCropManager().finishJob(job);
+        if (job.getOnComplete() != null) {
+            // Region jobs finish on the crops' thread, which may not own the player
+            plugin.getCropManager().runForPlayer(job.getPlayer(), () -> job.getOnComplete().accept(job.getHarvested()));
+        }
+    }
+
+    private int countQueued(UUID playerId) {
+        int count = 0;
+        for (HarvestJob job : queue) {
+            if (job.getPlayer().getUniqueId().equals(playerId)) {
+                count++;
+            }
+        }
+        for (HarvestJob job : regionJobs) {
+            if (job.getPlayer().getUniqueId().equals(playerId)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private void startTask() {
+        if (task != null) {
+            return;
+        }
+        task = plugin.getTaskScheduler().runGlobalTimer(this::tick, 1L, 1L);
+    }
+
+    private void stopTask() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+    }
+}
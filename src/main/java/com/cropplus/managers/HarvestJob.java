@@ -0,0 +1,122 @@
+package com.cropplus.managers;
+
+import com.cropplus.scheduler.TaskHandle;
+import org.bukkit.block.Block;
+import org.bukkit.entity.Player;
+
+import java.util.List;
+import java.util.function.IntConsumer;
+
+/**
+ * A mass harvest in progress: the crops that were found, how far along it is,
+ * and what to do when it is done.
+ */
+public class HarvestJob {
+
+    private final HarvestContext context;
+    private final Block center;
+    private final List<Block> crops;
+    private final IntConsumer onComplete;
+    private final HarvestBatch batch;
+    private final RegionSplit split;
+    private TaskHandle task;
+    private int index;
+    private int harvested;
+    private volatile boolean cancelled;
+    private boolean deferred;
+
+    HarvestJob(HarvestContext context, Block center, List<Block> crops, HarvestBatch batch, IntConsumer onComplete) {
+        this(context, center, crops, batch, onComplete, null);
+    }
+
+    HarvestJob(HarvestContext context, Block center, List<Block> crops, HarvestBatch batch, IntConsumer onComplete,
+               RegionSplit split) {
+        this.context = context;
+        this.batch = batch;
+        this.center = center;
+        this.crops = crops;
+        this.onComplete = onComplete;
+        this.split = split;
+    }
+
+    public Player getPlayer() {
+        return context.getPlayer();
+    }
+
+    public HarvestContext getContext() {
+        return context;
+    }
+
+    public Block getCenter() {
+        return center;
+    }
+
+    public int getTotalCrops() {
+        return crops.size();
+    }
+
+    public int getHarvested() {
+        return harvested;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    boolean hasNext() {
+        return !cancelled && index < crops.size();
+    }
+
+    Block next() {
+        return crops.get(index++);
+    }
+
+    void incrementHarvested() {
+        harvested++;
+    }
+
+    void cancel() {
+        cancelled = true;
+    }
+
+    /**
+     * Whether the job runs in later ticks than the scan that found its crops,
+     * so each crop has to be checked again before it is harvested.
+     */
+    boolean isDeferred() {
+        return deferred;
+    }
+
+    void markDeferred() {
+        deferred = true;
+    }
+
+    /**
+     * Drops, seeds and effects gathered so far, settled when the job finishes.
+     */
+    HarvestBatch getBatch() {
+        return batch;
+    }
+
+    IntConsumer getOnComplete() {
+        return onComplete;
+    }
+
+    /**
+     * The Folia mass harvest this job is one region's part of, or null.
+     */
+    RegionSplit getSplit() {
+        return split;
+    }
+
+    /**
+     * The job's own tick task on Folia, where each spread job ticks in its region.
+     */
+    TaskHandle getTask() {
+        return task;
+    }
+
+    void setTask(TaskHandle task) {
+        this.task = task;
+    }
+}
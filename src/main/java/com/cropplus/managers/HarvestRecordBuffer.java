@@ -0,0 +1,116 @@
+package com.cropplus.managers;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded, lock-free ring buffer of analytics records, written by any number
+ * of harvesting threads and read by one writer thread.
+ * <p>
+ * Records are fixed-size and stored across parallel primitive arrays, so
+ * offering one allocates nothing. A producer claims a slot by advancing the
+ * head with a compare-and-set, fills it in and then publishes it by writing
+ * its sequence number; the reader takes slots in order until it reaches one
+ * that is not published yet. When the buffer is full the record is dropped
+ * and counted rather than making the harvest wait.
+ */
+final class HarvestRecordBuffer {
+
+    private final int mask;
+    private final int[] kinds;
+    private final long[] playerMost;
+    private final long[] playerLeast;
+    private final int[] crops;
+    private final int[] counts;
+    private final double[] amounts;
+    private final long[] times;
+    private final AtomicLongArray published;
+
+    private final AtomicLong head = new AtomicLong();
+    private volatile long tail;
+    private final LongAdder dropped = new LongAdder();
+
+    HarvestRecordBuffer(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        this.mask = size - 1;
+        this.kinds = new int[size];
+        this.playerMost = new long[size];
+        this.playerLeast = new long[size];
+        this.crops = new int[size];
+        this.counts = new int[size];
+        this.amounts = new double[size];
+        this.times = new long[size];
+        this.published = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            published.set(i, -1L);
+        }
+    }
+
+    /**
+     * Add a record. Safe to call from any thread.
+     *
+     * @param crop a crop's material ordinal, or -1 if the record is not about one crop
+     * @return false if the buffer was full and the record was dropped
+     */
+    boolean offer(int kind, UUID playerId, int crop, int count, double amount, long time) {
+        long sequence;
+        do {
+            sequence = head.get();
+            if (sequence - tail > mask) {
+                dropped.increment();
+                return false;
+            }
+        } while (!head.compareAndSet(sequence, sequence + 1));
+
+        int slot = (int) sequence & mask;
+        kinds[slot] = kind;
+        playerMost[slot] = playerId.getMostSignificantBits();
+        playerLeast[slot] = playerId.getLeastSignificantBits();
+        crops[slot] = crop;
+        counts[slot] = count;
+        amounts[slot] = amount;
+        times[slot] = time;
+        // The volatile write makes the fields above visible to the reader
+        published.set(slot, sequence);
+        return true;
+    }
+
+    /**
+     * Hand up to {@code max} records to the consumer, oldest first. Only one
+     * thread may drain.
+     *
+     * @return the number of records drained
+     */
+    int drain(RecordConsumer consumer, int max) {
+        long sequence = tail;
+        int drained = 0;
+        while (drained < max) {
+            int slot = (int) sequence & mask;
+            if (published.get(slot) != sequence) {
+                // Empty, or a producer is still filling this slot in
+                break;
+            }
+            consumer.accept(kinds[slot], playerMost[slot], playerLeast[slot], crops[slot], counts[slot],
+                            amounts[slot], times[slot]);
+            sequence++;
+            drained++;
+            // Free the slot only once it has been read
+            tail = sequence;
+        }
+        return drained;
+    }
+
+    /**
+     * Records dropped so far because the buffer was full.
+     */
+    long getDropped() {
+        return dropped.sum();
+    }
+
+    @FunctionalInterface
+    interface RecordConsumer {
+        void accept(int kind, long playerMost, long playerLeast, int crop, int count, double amount, long time);
+    }
+}
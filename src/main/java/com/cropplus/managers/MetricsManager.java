@@ -0,0 +1,166 @@
+package com.cropplus.managers;
+
+import com.cropplus.CropPlus;
+import com.cropplus.scheduler.TaskHandle;
+import com.cropplus.utils.LatencyHistogram;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Timings and counters for the expensive parts of harvesting, cheap enough to
+ * leave on: a disabled manager skips even the clock reads, and an enabled one
+ * only touches LongAdders. Shown by /cropplus stats and optionally appended to
+ * a CSV file in the plugin folder.
+ */
+public class MetricsManager {
+
+    private static final String CSV_FILE = "metrics.csv";
+
+    public enum Stage {
+        INTERACT("interact"),
+        MASS_HARVEST("mass-harvest"),
+        SCAN("scan"),
+        HARVEST_TICK("harvest-tick"),
+        DEPOSIT("deposit"),
+        COOLDOWN("cooldown"),
+        AUTO_HARVEST("auto-harvest");
+
+        private final String name;
+
+        Stage(String name) {
+            this.name = name;
+        }
+
+        public String getName() {
+            return name;
+        }
+    }
+
+    private final CropPlus plugin;
+    private final LatencyHistogram[] histograms = new LatencyHistogram[Stage.values().length];
+    private final LongAdder cropsHarvested = new LongAdder();
+    private final LongAdder blocksScanned = new LongAdder();
+    private volatile boolean enabled;
+    private volatile long since = System.nanoTime();
+    private TaskHandle dumpTask;
+
+    public MetricsManager(CropPlus plugin) {
+        this.plugin = plugin;
+        for (int i = 0; i < histograms.length; i++) {
+            histograms[i] = new LatencyHistogram();
+        }
+        reload();
+    }
+
+    /**
+     * Apply the current settings and (re)start the CSV dump if one is configured.
+     */
+    public void reload() {
+        enabled = plugin.getConfigManager().isMetricsEnabled();
+        stopDumpTask();
+
+        long interval = plugin.getConfigManager().getMetricsCsvInterval() * 60L * 20L;
+        if (enabled && interval > 0) {
+            dumpTask = plugin.getTaskScheduler().runAsyncTimer(this::dumpCsv, interval, interval);
+        }
+    }
+
+    public void stopDumpTask() {
+        if (dumpTask != null) {
+            dumpTask.cancel();
+            dumpTask = null;
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Start timing a stage.
+     *
+     * @return a start time for {@link #record}, or 0 if metrics are off
+     */
+    public long start() {
+        return enabled ? System.nanoTime() : 0L;
+    }
+
+    public void record(Stage stage, long start) {
+        if (start != 0L) {
+            histograms[stage.ordinal()].record(System.nanoTime() - start);
+        }
+    }
+
+    public void addCropsHarvested(int crops) {
+        if (enabled) {
+            cropsHarvested.add(crops);
+        }
+    }
+
+    public void addBlocksScanned(long blocks) {
+        if (enabled) {
+            blocksScanned.add(blocks);
+        }
+    }
+
+    public LatencyHistogram.Snapshot getSnapshot(Stage stage) {
+        return histograms[stage.ordinal()].snapshot();
+    }
+
+    public long getCropsHarvested() {
+        return cropsHarvested.sum();
+    }
+
+    public long getBlocksScanned() {
+        return blocksScanned.sum();
+    }
+
+    /**
+     * Nanoseconds since the metrics were started or last reset.
+     */
+    public long getElapsedNanos() {
+        return System.nanoTime() - since;
+    }
+
+    public void reset() {
+        for (LatencyHistogram histogram : histograms) {
+            histogram.reset();
+        }
+        cropsHarvested.reset();
+        blocksScanned.reset();
+        since = System.nanoTime();
+    }
+
+    /**
+     * Append one row per stage, plus the counters, to the CSV file. Safe to call off the main thread.
+     */
+    public void dumpCsv() {
+        File file = new File(plugin.getDataFolder(), CSV_FILE);
+        boolean newFile = !file.exists();
+        long timestamp = System.currentTimeMillis();
+
+        try (PrintWriter out = new PrintWriter(new FileWriter(file, true))) {
+            if (newFile) {
+                out.println("timestamp,stage,count,p50_us,p99_us,max_us,mean_us");
+            }
+            for (Stage stage : Stage.values()) {
+                LatencyHistogram.Snapshot snapshot = getSnapshot(stage);
+                out.println(timestamp + "," + stage.getName() + "," + snapshot.getCount() + "," +
+                            toMicros(snapshot.getPercentile(0.5)) + "," + toMicros(snapshot.getPercentile(0.99)) + "," +
+                            toMicros(snapshot.getMax()) + "," + toMicros(snapshot.getMean()));
+            }
+            out.println(timestamp + ",crops-harvested," + getCropsHarvested() + ",,,,");
+            out.println(timestamp + ",blocks-scanned," + getBlocksScanned() + ",,,,");
+        } catch (IOException e) {
+            plugin.getLogger().warning("Could not write " + CSV_FILE + ": " + e.getMessage());
+        }
+    }
+
+    private static long toMicros(long nanos) {
+        return nanos / 1000L;
+    }
+}
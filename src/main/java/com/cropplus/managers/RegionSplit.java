@@ -0,0 +1,78 @@
+package com.cropplus.managers;
+
+import org.bukkit.block.Block;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
+
+/**
+ * A Folia mass harvest whose area spans chunks owned by different region
+ * threads. Each region harvests its own chunks as a separate job; this tracks
+ * the crop limit they share and finishes the harvest once the last part is done.
+ * Parts are added as the harvest is passed from region to region.
+ */
+final class RegionSplit {
+
+    private final CropManager cropManager;
+    private final HarvestContext context;
+    private final IntConsumer onComplete;
+    private final AtomicInteger remainingCrops;
+    private final AtomicInteger pendingParts;
+    private final AtomicInteger harvested = new AtomicInteger();
+
+    RegionSplit(CropManager cropManager, HarvestContext context, IntConsumer onComplete, int remainingCrops, int parts) {
+        this.cropManager = cropManager;
+        this.context = context;
+        this.onComplete = onComplete;
+        this.remainingCrops = new AtomicInteger(remainingCrops);
+        this.pendingParts = new AtomicInteger(parts);
+    }
+
+    HarvestContext getContext() {
+        return context;
+    }
+
+    int getRemainingCrops() {
+        return Math.max(0, remainingCrops.get());
+    }
+
+    /**
+     * Cut a part's crops down to what is left of the shared limit, and claim them.
+     */
+    void claim(List<Block> crops) {
+        while (true) {
+            int remaining = remainingCrops.get();
+            int claimed = Math.min(remaining, crops.size());
+            if (remainingCrops.compareAndSet(remaining, remaining - claimed)) {
+                crops.subList(claimed, crops.size()).clear();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Count one more part that has to finish before the harvest does.
+     */
+    void addPart() {
+        pendingParts.incrementAndGet();
+    }
+
+    /**
+     * Record a finished part; the last one pays the mass harvest bonus and reports the total.
+     */
+    void partDone(int partHarvested) {
+        harvested.addAndGet(partHarvested);
+        if (pendingParts.decrementAndGet() != 0) {
+            return;
+        }
+        int total = harvested.get();
+        // The last part can finish on any region's thread
+        cropManager.runForPlayer(context.getPlayer(), () -> {
+            cropManager.payMassHarvest(context, total);
+            if (onComplete != null) {
+                onComplete.accept(total);
+            }
+        });
+    }
+}
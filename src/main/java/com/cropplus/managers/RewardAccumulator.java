@@ -0,0 +1,55 @@
+package com.cropplus.managers;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Sums harvest rewards per player until they are paid out in one deposit.
+ * Harvests on different region threads may add at the same time, so every
+ * method is synchronized; each one only does a map operation or two.
+ */
+class RewardAccumulator {
+
+    private final Map<UUID, PendingReward> pending = new HashMap<>();
+
+    synchronized void add(UUID playerId, double amount, int cropCount) {
+        PendingReward reward = pending.computeIfAbsent(playerId, id -> new PendingReward());
+        reward.amount += amount;
+        reward.cropCount += cropCount;
+    }
+
+    /**
+     * Remove and return a player's pending reward, or null if there is none.
+     */
+    synchronized PendingReward drain(UUID playerId) {
+        return pending.remove(playerId);
+    }
+
+    /**
+     * Remove and return every pending reward.
+     */
+    synchronized Map<UUID, PendingReward> drainAll() {
+        Map<UUID, PendingReward> drained = new HashMap<>(pending);
+        pending.clear();
+        return drained;
+    }
+
+    synchronized boolean isEmpty() {
+        return pending.isEmpty();
+    }
+
+    static final class PendingReward {
+
+        private double amount;
+        private int cropCount;
+
+        double getAmount() {
+            return amount;
+        }
+
+        int getCropCount() {
+            return cropCount;
+        }
+    }
+}
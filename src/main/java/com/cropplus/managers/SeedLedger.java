@@ -0,0 +1,71 @@
+package com.cropplus.managers;
+
+import org.bukkit.Material;
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.ItemStack;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Seeds a harvest takes from the player's inventory for replanting.
+ * <p>
+ * Each seed type is counted once, the first time it is needed. Crops then
+ * reserve seeds against that count, and the total is removed from the
+ * inventory in one go when the harvest is done. Without an inventory the
+ * ledger has no seeds to give.
+ */
+class SeedLedger {
+
+    private final Inventory inventory;
+    private final Map<Material, Integer> available = new EnumMap<>(Material.class);
+    private final Map<Material, Integer> taken = new EnumMap<>(Material.class);
+
+    SeedLedger(Inventory inventory) {
+        this.inventory = inventory;
+    }
+
+    /**
+     * Reserve one seed from the inventory.
+     *
+     * @return false if the inventory has no seeds of that type left
+     */
+    boolean take(Material seedType) {
+        Integer count = available.get(seedType);
+        if (count == null) {
+            count = count(seedType);
+        }
+        if (count <= 0) {
+            available.put(seedType, 0);
+            return false;
+        }
+
+        available.put(seedType, count - 1);
+        taken.merge(seedType, 1, Integer::sum);
+        return true;
+    }
+
+    /**
+     * Remove every reserved seed from the inventory.
+     */
+    void apply() {
+        for (Map.Entry<Material, Integer> entry : taken.entrySet()) {
+            inventory.removeItem(new ItemStack(entry.getKey(), entry.getValue()));
+        }
+        taken.clear();
+        available.clear();
+    }
+
+    private int count(Material seedType) {
+        if (inventory == null) {
+            return 0;
+        }
+        int count = 0;
+        for (ItemStack stack : inventory.getStorageContents()) {
+            if (stack != null && stack.getType() == seedType) {
+                count += stack.getAmount();
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,123 @@
+package com.cropplus.managers;
+
+import com.cropplus.utils.BlockKey;
+
+import java.util.UUID;
+
+/**
+ * A thread-safe {@link BlockCooldownStore}, split into independently locked
+ * stripes by world and chunk.
+ * <p>
+ * A whole chunk always lands in the same stripe, so the chunk sharding and
+ * eviction of the underlying store work unchanged. Threads working in
+ * different chunks almost never share a stripe, so they rarely wait on each
+ * other. The entry cap is split evenly between the stripes.
+ */
+final class StripedCooldownStore {
+
+    private final BlockCooldownStore[] stripes;
+    private final int mask;
+
+    StripedCooldownStore(int maxEntries) {
+        int count = Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors() * 4 - 1)) << 1;
+        this.stripes = new BlockCooldownStore[count];
+        this.mask = count - 1;
+        for (int i = 0; i < count; i++) {
+            stripes[i] = new BlockCooldownStore(perStripe(maxEntries));
+        }
+    }
+
+    void setMaxEntries(int maxEntries) {
+        for (BlockCooldownStore stripe : stripes) {
+            synchronized (stripe) {
+                stripe.setMaxEntries(perStripe(maxEntries));
+            }
+        }
+    }
+
+    int size() {
+        int size = 0;
+        for (BlockCooldownStore stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.size();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * @see BlockCooldownStore#checkAndSet
+     */
+    boolean checkAndSet(UUID worldId, int x, int y, int z, long now, long cooldown, long retention) {
+        BlockCooldownStore stripe = stripe(worldId, x >> 4, z >> 4);
+        synchronized (stripe) {
+            return stripe.checkAndSet(worldId, x, y, z, now, cooldown, retention);
+        }
+    }
+
+    /**
+     * @see BlockCooldownStore#restore
+     */
+    boolean restore(UUID worldId, long blockKey, long lastUsed, long now, long retention) {
+        BlockCooldownStore stripe = stripe(worldId, BlockKey.blockX(blockKey) >> 4, BlockKey.blockZ(blockKey) >> 4);
+        synchronized (stripe) {
+            return stripe.restore(worldId, blockKey, lastUsed, now, retention);
+        }
+    }
+
+    void dropChunk(UUID worldId, int chunkX, int chunkZ) {
+        BlockCooldownStore stripe = stripe(worldId, chunkX, chunkZ);
+        synchronized (stripe) {
+            stripe.dropChunk(worldId, chunkX, chunkZ);
+        }
+    }
+
+    void dropWorld(UUID worldId) {
+        for (BlockCooldownStore stripe : stripes) {
+            synchronized (stripe) {
+                stripe.dropWorld(worldId);
+            }
+        }
+    }
+
+    int purgeExpired(long now, long retention) {
+        int removed = 0;
+        for (BlockCooldownStore stripe : stripes) {
+            synchronized (stripe) {
+                removed += stripe.purgeExpired(now, retention);
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * Sweep every stripe with an equal share of the budget, holding one stripe's lock at a time.
+     */
+    int sweep(long now, long retention, int budget) {
+        int share = Math.max(1, budget / stripes.length);
+        int removed = 0;
+        for (BlockCooldownStore stripe : stripes) {
+            synchronized (stripe) {
+                removed += stripe.sweep(now, retention, share);
+            }
+        }
+        return removed;
+    }
+
+    void clear() {
+        for (BlockCooldownStore stripe : stripes) {
+            synchronized (stripe) {
+                stripe.clear();
+            }
+        }
+    }
+
+    private BlockCooldownStore stripe(UUID worldId, int chunkX, int chunkZ) {
+        long hash = (((long) chunkX << 32) ^ (chunkZ & 0xFFFFFFFFL) ^ worldId.getLeastSignificantBits()) * 0x9E3779B97F4A7C15L;
+        return stripes[(int) (hash >>> 32) & mask];
+    }
+
+    private int perStripe(int maxEntries) {
+        return Math.max(1, (maxEntries + stripes.length - 1) / stripes.length);
+    }
+}
@@ -1,14 +1,16 @@
 package com.cropplus.managers;
 
 import com.cropplus.CropPlus;
+import com.cropplus.config.CropPlusSettings;
+import com.cropplus.config.CropPlusSettings.CropSettings;
+import com.cropplus.config.CropPlusSettings.GroupSettings;
+import com.cropplus.config.CropPlusSettings.WorldSettings;
 import org.bukkit.Material;
 import org.bukkit.entity.Player;
 import org.bukkit.inventory.ItemStack;
 
-import java.util.Arrays;
 import java.util.List;
 import java.util.Set;
-import java.util.stream.Collectors;
 
 public class ToolManager {
     
@@ -31,31 +33,34 @@ public class ToolManager {
      * Check if the player is holding a valid tool for harvesting
      */
     public boolean hasValidTool(Player player) {
-        String worldName = player.getWorld().getName();
+        CropPlusSettings settings = plugin.getConfigManager().getSettings();
+        WorldSettings world = settings.getWorld(player.getWorld().getName());
+        GroupSettings group = settings.getGroup(plugin.getConfigManager().getPlayerGroup(player));
         
+        return isToolAllowed(world, group, player.getInventory().getItemInMainHand().getType());
+    }
+    
+    /**
+     * Check a tool against already resolved world and group rules
+     */
+    public boolean isToolAllowed(WorldSettings world, GroupSettings group, Material tool) {
         // Check if tool restrictions are enabled for this world
-        if (!plugin.getConfigManager().isToolRestrictionsEnabled(worldName)) {
+        if (!world.isToolRestrictionsEnabled()) {
             return true;
         }
         
         // Check group-specific settings first
-        String playerGroup = plugin.getConfigManager().getPlayerGroup(player);
-        if (playerGroup != null && plugin.getConfigManager().isGroupToolRestrictionsEnabled(playerGroup)) {
-            return hasValidToolForGroup(player, playerGroup);
+        if (group != null && group.isToolRestrictionsEnabled()) {
+            return isToolAllowedForGroup(group, tool);
         }
         
-        ItemStack mainHand = player.getInventory().getItemInMainHand();
-        
         // Check if bare hands are allowed
-        if (mainHand.getType() == Material.AIR) {
-            return plugin.getConfigManager().isAllowBareHands(worldName);
+        if (tool == Material.AIR) {
+            return world.isAllowBareHands();
         }
         
-        // Get allowed tools for this world
-        List<String> allowedTools = plugin.getConfigManager().getAllowedTools(worldName);
-        
-        // Check if the tool is in the allowed list
-        return isToolAllowed(mainHand.getType(), allowedTools);
+        // Check if the tool is in the allowed list for this world
+        return world.getAllowedTools().allows(tool);
     }
     
     /**
@@ -66,14 +71,23 @@ public class ToolManager {
             return false;
         }
         
+        return isMassHarvestTierSufficient(player.getInventory().getItemInMainHand().getType());
+    }
+    
+    /**
+     * Check if the context's tool is valid for mass harvesting
+     */
+    public boolean hasValidMassHarvestTool(HarvestContext context) {
+        return context.isToolAllowed() && isMassHarvestTierSufficient(context.getTool());
+    }
+    
+    private boolean isMassHarvestTierSufficient(Material tool) {
         if (!plugin.getConfigManager().isMassHarvestToolRestrictionsEnabled()) {
             return true;
         }
         
-        ItemStack mainHand = player.getInventory().getItemInMainHand();
         String minimumTier = plugin.getConfigManager().getMassHarvestMinimumTier();
-        
-        return isToolTierSufficient(mainHand.getType(), minimumTier);
+        return isToolTierSufficient(tool, minimumTier);
     }
     
     /**
@@ -92,6 +106,19 @@ public class ToolManager {
         return baseMultiplier * toolMultiplier;
     }
     
+    /**
+     * Get the tool multiplier for drops without going through the crop's name
+     */
+    public double getToolMultiplier(Player player, Material cropType) {
+        CropSettings crop = plugin.getConfigManager().getSettings().getCrop(cropType);
+        if (crop == null) {
+            return 1.0;
+        }
+        
+        Material tool = player.getInventory().getItemInMainHand().getType();
+        return crop.getDropMultiplier() * crop.getToolMultiplier(tool);
+    }
+    
     /**
      * Get the economy multiplier based on the tool being used
      */
@@ -120,29 +147,6 @@ public class ToolManager {
         return firstTool.toLowerCase().replace("_", " ");
     }
     
-    /**
-     * Check if a specific tool is allowed based on the configuration
-     */
-    private boolean isToolAllowed(Material tool, List<String> allowedTools) {
-        if (allowedTools.isEmpty()) {
-            return true; // If no restrictions, allow all tools
-        }
-        
-        String toolName = tool.name();
-        
-        // Check for exact match
-        if (allowedTools.contains(toolName)) {
-            return true;
-        }
-        
-        // Check for "ANY_HOE" wildcard
-        if (allowedTools.contains("ANY_HOE") && hoeTypes.contains(tool)) {
-            return true;
-        }
-        
-        return false;
-    }
-    
     /**
      * Check if the tool tier is sufficient for mass harvesting
      */
@@ -188,25 +192,16 @@ public class ToolManager {
     }
     
     /**
-     * Check if player has valid tool based on their group settings
+     * Check if a tool is valid based on the player's group settings
      */
-    private boolean hasValidToolForGroup(Player player, String groupName) {
-        ItemStack mainHand = player.getInventory().getItemInMainHand();
-        
+    private boolean isToolAllowedForGroup(GroupSettings group, Material tool) {
         // Check if bare hands are allowed for this group
-        if (mainHand.getType() == Material.AIR) {
-            return plugin.getConfigManager().isGroupAllowBareHands(groupName);
+        if (tool == Material.AIR) {
+            return group.isAllowBareHands();
         }
         
-        // Get allowed tools for this group
-        List<String> allowedTools = plugin.getConfigManager().getGroupAllowedTools(groupName);
-        
         // If group has no tool restrictions, allow any tool
-        if (allowedTools.isEmpty()) {
-            return true;
-        }
-        
-        return isToolAllowed(mainHand.getType(), allowedTools);
+        return group.getAllowedTools().allows(tool);
     }
     
     /**
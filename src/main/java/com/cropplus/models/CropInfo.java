@@ -7,11 +7,32 @@ public class CropInfo {
     private final Material cropType;
     private final Material seedType;
     private final int maxAge;
+    private final Material replantType;
+    private final boolean enabled;
+    private final boolean tall;
+    private final String displayName;
+    private final double[] dropMultipliers;
     
     public CropInfo(Material cropType, Material seedType, int maxAge) {
+        this(cropType, seedType, maxAge, cropType, true, false, new double[] {1.0});
+    }
+    
+    /**
+     * @param replantType     block placed when replanting, usually the crop itself
+     * @param tall            whether the crop is two blocks high and only the lower half is harvested
+     * @param dropMultipliers combined crop and tool drop multipliers, indexed by the registry's
+     *                        tool index; index 0 applies to tools without their own multiplier
+     */
+    public CropInfo(Material cropType, Material seedType, int maxAge, Material replantType,
+                    boolean enabled, boolean tall, double[] dropMultipliers) {
         this.cropType = cropType;
         this.seedType = seedType;
         this.maxAge = maxAge;
+        this.replantType = replantType;
+        this.enabled = enabled;
+        this.tall = tall;
+        this.displayName = cropType.name().toLowerCase().replace("_", " ");
+        this.dropMultipliers = dropMultipliers;
     }
     
     public Material getCropType() {
@@ -22,7 +43,44 @@ public class CropInfo {
         return seedType;
     }
     
+    /**
+     * The age at which the crop is grown. Zero for crops without an age,
+     * which are grown as soon as they exist.
+     */
     public int getMaxAge() {
         return maxAge;
     }
-}
\ No newline at end of file
+    
+    public Material getReplantType() {
+        return replantType;
+    }
+    
+    public boolean isEnabled() {
+        return enabled;
+    }
+    
+    public boolean isTall() {
+        return tall;
+    }
+    
+    /**
+     * The crop's name as shown to players, e.g. "sweet berry bush".
+     */
+    public String getDisplayName() {
+        return displayName;
+    }
+    
+    /**
+     * The base drop multiplier, used for tools without their own multiplier.
+     */
+    public double getDropMultiplier() {
+        return dropMultipliers[0];
+    }
+    
+    /**
+     * The combined drop multiplier for a tool, by the registry's tool index.
+     */
+    public double getDropMultiplier(int toolIndex) {
+        return toolIndex < dropMultipliers.length ? dropMultipliers[toolIndex] : dropMultipliers[0];
+    }
+}
@@ -0,0 +1,172 @@
+package com.cropplus.scheduler;
+
+import org.bukkit.Server;
+import org.bukkit.World;
+import org.bukkit.entity.Entity;
+import org.bukkit.plugin.Plugin;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Folia's region, entity, global and async schedulers.
+ * <p>
+ * CropPlus compiles against the Spigot API, which has none of these, so the
+ * schedulers are looked up reflectively once and called through the resolved
+ * methods.
+ */
+final class FoliaTaskScheduler implements TaskScheduler {
+
+    private static final String REGIONIZED_SERVER = "io.papermc.paper.threadedregions.RegionizedServer";
+    private static final String SCHEDULER_PACKAGE = "io.papermc.paper.threadedregions.scheduler.";
+    private static final long MILLIS_PER_TICK = 50L;
+
+    private final Plugin plugin;
+    private final Server server;
+
+    private final Object globalScheduler;
+    private final Object regionScheduler;
+    private final Object asyncScheduler;
+    private final Method globalRun;
+    private final Method globalRunDelayed;
+    private final Method globalRunAtFixedRate;
+    private final Method regionRun;
+    private final Method regionRunAtFixedRate;
+    private final Method asyncRunNow;
+    private final Method asyncRunAtFixedRate;
+    private final Method getEntityScheduler;
+    private final Method entityRun;
+    private final Method cancel;
+    private final Method ownsChunk;
+    private final Method ownsEntity;
+
+    FoliaTaskScheduler(Plugin plugin) {
+        this.plugin = plugin;
+        this.server = plugin.getServer();
+        try {
+            Class<?> global = Class.forName(SCHEDULER_PACKAGE + "GlobalRegionScheduler");
+            Class<?> region = Class.forName(SCHEDULER_PACKAGE + "RegionScheduler");
+            Class<?> async = Class.forName(SCHEDULER_PACKAGE + "AsyncScheduler");
+            Class<?> entity = Class.forName(SCHEDULER_PACKAGE + "EntityScheduler");
+            Class<?> task = Class.forName(SCHEDULER_PACKAGE + "ScheduledTask");
+
+            globalScheduler = Server.class.getMethod("getGlobalRegionScheduler").invoke(server);
+            regionScheduler = Server.class.getMethod("getRegionScheduler").invoke(server);
+            asyncScheduler = Server.class.getMethod("getAsyncScheduler").invoke(server);
+
+            globalRun = global.getMethod("run", Plugin.class, Consumer.class);
+            globalRunDelayed = global.getMethod("runDelayed", Plugin.class, Consumer.class, long.class);
+            globalRunAtFixedRate = global.getMethod("runAtFixedRate", Plugin.class, Consumer.class, long.class, long.class);
+            regionRun = region.getMethod("run", Plugin.class, World.class, int.class, int.class, Consumer.class);
+            regionRunAtFixedRate = region.getMethod("runAtFixedRate", Plugin.class, World.class, int.class, int.class,
+                                                    Consumer.class, long.class, long.class);
+            asyncRunNow = async.getMethod("runNow", Plugin.class, Consumer.class);
+            asyncRunAtFixedRate = async.getMethod("runAtFixedRate", Plugin.class, Consumer.class, long.class, long.class,
+                                                  TimeUnit.class);
+            getEntityScheduler = Entity.class.getMethod("getScheduler");
+            entityRun = entity.getMethod("run", Plugin.class, Consumer.class, Runnable.class);
+            cancel = task.getMethod("cancel");
+            ownsChunk = Server.class.getMethod("isOwnedByCurrentRegion", World.class, int.class, int.class);
+            ownsEntity = Server.class.getMethod("isOwnedByCurrentRegion", Entity.class);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Folia was detected but its scheduler API could not be found", e);
+        }
+    }
+
+    static boolean isSupported() {
+        try {
+            Class.forName(REGIONIZED_SERVER);
+            return true;
+        } catch (ClassNotFoundException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public boolean isRegionThreaded() {
+        return true;
+    }
+
+    @Override
+    public TaskHandle runGlobal(Runnable task) {
+        return schedule(globalRun, globalScheduler, plugin, consumer(task));
+    }
+
+    @Override
+    public TaskHandle runGlobalLater(Runnable task, long delay) {
+        return schedule(globalRunDelayed, globalScheduler, plugin, consumer(task), Math.max(1L, delay));
+    }
+
+    @Override
+    public TaskHandle runGlobalTimer(Runnable task, long delay, long period) {
+        // Folia rejects an initial delay below one tick
+        return schedule(globalRunAtFixedRate, globalScheduler, plugin, consumer(task), Math.max(1L, delay), period);
+    }
+
+    @Override
+    public TaskHandle runAtChunk(World world, int chunkX, int chunkZ, Runnable task) {
+        return schedule(regionRun, regionScheduler, plugin, world, chunkX, chunkZ, consumer(task));
+    }
+
+    @Override
+    public TaskHandle runAtChunkTimer(World world, int chunkX, int chunkZ, Runnable task, long delay, long period) {
+        return schedule(regionRunAtFixedRate, regionScheduler, plugin, world, chunkX, chunkZ, consumer(task),
+                        Math.max(1L, delay), period);
+    }
+
+    @Override
+    public TaskHandle runForEntity(Entity entity, Runnable task) {
+        Object scheduler = invoke(getEntityScheduler, entity);
+        return schedule(entityRun, scheduler, plugin, consumer(task), null);
+    }
+
+    @Override
+    public TaskHandle runAsync(Runnable task) {
+        return schedule(asyncRunNow, asyncScheduler, plugin, consumer(task));
+    }
+
+    @Override
+    public TaskHandle runAsyncTimer(Runnable task, long delay, long period) {
+        return schedule(asyncRunAtFixedRate, asyncScheduler, plugin, consumer(task),
+                        delay * MILLIS_PER_TICK, period * MILLIS_PER_TICK, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public boolean isOwnedByCurrentThread(World world, int chunkX, int chunkZ) {
+        return (Boolean) invoke(ownsChunk, server, world, chunkX, chunkZ);
+    }
+
+    @Override
+    public boolean isOwnedByCurrentThread(Entity entity) {
+        return (Boolean) invoke(ownsEntity, server, entity);
+    }
+
+    private static Consumer<Object> consumer(Runnable task) {
+        return scheduledTask -> task.run();
+    }
+
+    private TaskHandle schedule(Method method, Object scheduler, Object... args) {
+        Object task = invoke(method, scheduler, args);
+        if (task == null) {
+            // The entity scheduler returns null once its entity has been removed
+            return TaskHandle.NONE;
+        }
+        return () -> invoke(cancel, task);
+    }
+
+    private static Object invoke(Method method, Object target, Object... args) {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException(cause);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
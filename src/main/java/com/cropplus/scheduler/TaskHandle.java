@@ -0,0 +1,15 @@
+package com.cropplus.scheduler;
+
+/**
+ * A scheduled task that can be cancelled.
+ */
+public interface TaskHandle {
+
+    /**
+     * Handle for a task that was never scheduled, e.g. because its entity was already gone.
+     */
+    TaskHandle NONE = () -> {
+    };
+
+    void cancel();
+}
@@ -0,0 +1,68 @@
+package com.cropplus.scheduler;
+
+import org.bukkit.World;
+import org.bukkit.entity.Entity;
+import org.bukkit.plugin.Plugin;
+
+/**
+ * Where CropPlus runs its tasks.
+ * <p>
+ * On Bukkit and Paper every synchronous task runs on the main thread. On Folia
+ * the world is split into regions ticked by different threads, so block work
+ * has to run on the thread owning the block's region and player work on the
+ * thread owning the player. Code that schedules through this interface works
+ * on both.
+ * <p>
+ * Delays and periods are in ticks.
+ */
+public interface TaskScheduler {
+
+    /**
+     * Pick the scheduler for the running server.
+     */
+    static TaskScheduler create(Plugin plugin) {
+        return FoliaTaskScheduler.isSupported() ? new FoliaTaskScheduler(plugin) : new BukkitTaskScheduler(plugin);
+    }
+
+    /**
+     * Whether the server ticks regions on separate threads (Folia).
+     */
+    boolean isRegionThreaded();
+
+    /**
+     * Run on the main thread, or the global region thread on Folia. Use it for
+     * work that touches no particular world, block or entity.
+     */
+    TaskHandle runGlobal(Runnable task);
+
+    TaskHandle runGlobalLater(Runnable task, long delay);
+
+    TaskHandle runGlobalTimer(Runnable task, long delay, long period);
+
+    /**
+     * Run on the thread that owns a chunk.
+     */
+    TaskHandle runAtChunk(World world, int chunkX, int chunkZ, Runnable task);
+
+    TaskHandle runAtChunkTimer(World world, int chunkX, int chunkZ, Runnable task, long delay, long period);
+
+    /**
+     * Run on the thread that owns an entity, such as a player. The task does
+     * not run if the entity is removed first.
+     */
+    TaskHandle runForEntity(Entity entity, Runnable task);
+
+    TaskHandle runAsync(Runnable task);
+
+    TaskHandle runAsyncTimer(Runnable task, long delay, long period);
+
+    /**
+     * Whether the current thread may touch the blocks of a chunk.
+     */
+    boolean isOwnedByCurrentThread(World world, int chunkX, int chunkZ);
+
+    /**
+     * Whether the current thread may touch an entity.
+     */
+    boolean isOwnedByCurrentThread(Entity entity);
+}
@@ -0,0 +1,51 @@
+package com.cropplus.utils;
+
+/**
+ * Packs block and chunk coordinates into single {@code long} keys.
+ * <p>
+ * Block keys use 26 bits for x and z and 12 bits for y, which covers the
+ * whole world border and every supported build height.
+ */
+public final class BlockKey {
+
+    private static final int XZ_BITS = 26;
+    private static final int Y_BITS = 12;
+    private static final long XZ_MASK = (1L << XZ_BITS) - 1;
+    private static final long Y_MASK = (1L << Y_BITS) - 1;
+    private static final int X_SHIFT = XZ_BITS + Y_BITS;
+
+    private BlockKey() {
+    }
+
+    public static long block(int x, int y, int z) {
+        return ((x & XZ_MASK) << X_SHIFT) | ((z & XZ_MASK) << Y_BITS) | (y & Y_MASK);
+    }
+
+    public static int blockX(long key) {
+        return (int) (key >> X_SHIFT);
+    }
+
+    public static int blockY(long key) {
+        return (int) (key << (64 - Y_BITS) >> (64 - Y_BITS));
+    }
+
+    public static int blockZ(long key) {
+        return (int) (key << (64 - X_SHIFT) >> (64 - XZ_BITS));
+    }
+
+    public static long chunk(int chunkX, int chunkZ) {
+        return ((long) chunkX << 32) | (chunkZ & 0xFFFFFFFFL);
+    }
+
+    public static long chunkOfBlock(int x, int z) {
+        return chunk(x >> 4, z >> 4);
+    }
+
+    public static int chunkX(long key) {
+        return (int) (key >> 32);
+    }
+
+    public static int chunkZ(long key) {
+        return (int) key;
+    }
+}
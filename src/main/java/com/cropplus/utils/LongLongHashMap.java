@@ -0,0 +1,259 @@
+package com.cropplus.utils;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing hash map from primitive {@code long} keys to {@code long} values.
+ * <p>
+ * Keys and values live in two parallel arrays, so an entry costs 16 bytes per slot
+ * with no boxing and no per-entry objects. Uses linear probing with backward-shift
+ * deletion, so removals never leave tombstones behind.
+ * Not thread-safe.
+ */
+public final class LongLongHashMap {
+
+    private static final long FREE_KEY = 0L;
+    private static final float LOAD_FACTOR = 0.75f;
+
+    private long[] keys;
+    private long[] values;
+    private int mask;
+    private int size;
+    private int resizeAt;
+
+    // The free key marks empty slots, so an entry for it is stored separately
+    private boolean hasFreeKey;
+    private long freeValue;
+
+    public LongLongHashMap() {
+        this(16);
+    }
+
+    public LongLongHashMap(int expectedSize) {
+        allocate(capacityFor(expectedSize));
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean containsKey(long key) {
+        if (key == FREE_KEY) {
+            return hasFreeKey;
+        }
+        return findSlot(key) >= 0;
+    }
+
+    /**
+     * Get the value for a key, or the given default if there is none.
+     */
+    public long get(long key, long defaultValue) {
+        if (key == FREE_KEY) {
+            return hasFreeKey ? freeValue : defaultValue;
+        }
+        int slot = findSlot(key);
+        return slot >= 0 ? values[slot] : defaultValue;
+    }
+
+    /**
+     * Store a value for a key.
+     *
+     * @return true if the key was not present before
+     */
+    public boolean put(long key, long value) {
+        if (key == FREE_KEY) {
+            boolean added = !hasFreeKey;
+            if (added) {
+                size++;
+            }
+            hasFreeKey = true;
+            freeValue = value;
+            return added;
+        }
+
+        int slot = mix(key) & mask;
+        while (keys[slot] != FREE_KEY) {
+            if (keys[slot] == key) {
+                values[slot] = value;
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size >= resizeAt) {
+            rehash(keys.length << 1);
+        }
+        return true;
+    }
+
+    /**
+     * Remove a key.
+     *
+     * @return true if the key was present
+     */
+    public boolean remove(long key) {
+        if (key == FREE_KEY) {
+            if (!hasFreeKey) {
+                return false;
+            }
+            hasFreeKey = false;
+            size--;
+            return true;
+        }
+        int slot = findSlot(key);
+        if (slot < 0) {
+            return false;
+        }
+        shiftKeys(slot);
+        size--;
+        return true;
+    }
+
+    /**
+     * Remove every entry matching the predicate.
+     *
+     * @return number of entries removed
+     */
+    public int removeIf(EntryPredicate predicate) {
+        int removed = 0;
+        if (hasFreeKey && predicate.test(FREE_KEY, freeValue)) {
+            hasFreeKey = false;
+            size--;
+            removed++;
+        }
+
+        // Walk backwards starting just below a free slot. A removal only shifts entries
+        // from between the cursor and that free slot, all of which were already visited.
+        int free = 0;
+        while (keys[free] != FREE_KEY) {
+            free++;
+        }
+        int slot = (free - 1) & mask;
+        int remaining = keys.length - 1;
+        while (remaining > 0) {
+            long key = keys[slot];
+            if (key != FREE_KEY && predicate.test(key, values[slot])) {
+                shiftKeys(slot);
+                size--;
+                removed++;
+                // Re-check this slot: shiftKeys may have moved another entry into it
+                continue;
+            }
+            slot = (slot - 1) & mask;
+            remaining--;
+        }
+        return removed;
+    }
+
+    public void forEach(EntryConsumer consumer) {
+        if (hasFreeKey) {
+            consumer.accept(FREE_KEY, freeValue);
+        }
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (keys[slot] != FREE_KEY) {
+                consumer.accept(keys[slot], values[slot]);
+            }
+        }
+    }
+
+    public void clear() {
+        Arrays.fill(keys, FREE_KEY);
+        hasFreeKey = false;
+        size = 0;
+    }
+
+    /**
+     * Approximate heap held by the backing arrays, in bytes.
+     */
+    public long memoryUsage() {
+        return (long) keys.length * 16L;
+    }
+
+    private int findSlot(long key) {
+        int slot = mix(key) & mask;
+        while (true) {
+            long current = keys[slot];
+            if (current == key) {
+                return slot;
+            }
+            if (current == FREE_KEY) {
+                return -1;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    private void shiftKeys(int slot) {
+        // Backward-shift deletion: pull later entries of the same probe run into the gap
+        int last;
+        while (true) {
+            last = slot;
+            slot = (slot + 1) & mask;
+            long key;
+            while (true) {
+                key = keys[slot];
+                if (key == FREE_KEY) {
+                    keys[last] = FREE_KEY;
+                    return;
+                }
+                int home = mix(key) & mask;
+                if (last <= slot ? (last >= home || home > slot) : (last >= home && home > slot)) {
+                    break;
+                }
+                slot = (slot + 1) & mask;
+            }
+            keys[last] = key;
+            values[last] = values[slot];
+        }
+    }
+
+    private void rehash(int newCapacity) {
+        long[] oldKeys = keys;
+        long[] oldValues = values;
+        allocate(newCapacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            long key = oldKeys[i];
+            if (key != FREE_KEY) {
+                int slot = mix(key) & mask;
+                while (keys[slot] != FREE_KEY) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = key;
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new long[capacity];
+        mask = capacity - 1;
+        resizeAt = Math.max(1, (int) (capacity * LOAD_FACTOR));
+    }
+
+    static int capacityFor(int expectedSize) {
+        int needed = (int) Math.ceil(Math.max(expectedSize, 2) / LOAD_FACTOR);
+        return Integer.highestOneBit(needed - 1) << 1;
+    }
+
+    static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    @FunctionalInterface
+    public interface EntryPredicate {
+        boolean test(long key, long value);
+    }
+
+    @FunctionalInterface
+    public interface EntryConsumer {
+        void accept(long key, long value);
+    }
+}
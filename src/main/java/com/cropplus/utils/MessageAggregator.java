@@ -0,0 +1,135 @@
+package com.cropplus.utils;
+
+import com.cropplus.CropPlus;
+import com.cropplus.scheduler.TaskHandle;
+import org.bukkit.entity.Player;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Collects harvest and reward notifications per player and sends them as one
+ * summary at the end of a short window, instead of one chat line per crop.
+ * The flush task only runs while summaries are pending. Methods are
+ * synchronized, as harvests may report from several region threads.
+ */
+public class MessageAggregator {
+
+    private final CropPlus plugin;
+    private final Map<UUID, Summary> pending = new HashMap<>();
+    private TaskHandle task;
+    private long currentTick;
+
+    public MessageAggregator(CropPlus plugin) {
+        this.plugin = plugin;
+    }
+
+    public synchronized void addHarvest(Player player, int crops) {
+        getSummary(player).crops += crops;
+    }
+
+    public synchronized void addReward(Player player, double amount) {
+        getSummary(player).reward += amount;
+    }
+
+    /**
+     * Send a player's pending summary right away.
+     */
+    public synchronized void flush(Player player) {
+        Summary summary = pending.remove(player.getUniqueId());
+        if (summary != null) {
+            send(player, summary);
+        }
+    }
+
+    /**
+     * Forget a player's pending summary without sending it.
+     */
+    public synchronized void discard(UUID playerId) {
+        pending.remove(playerId);
+    }
+
+    public synchronized void shutdown() {
+        stopTask();
+        pending.clear();
+    }
+
+    private Summary getSummary(Player player) {
+        Summary summary = pending.get(player.getUniqueId());
+        if (summary == null) {
+            summary = new Summary(currentTick + plugin.getConfigManager().getMessageAggregateWindow());
+            pending.put(player.getUniqueId(), summary);
+            startTask();
+        }
+        return summary;
+    }
+
+    private synchronized void tick() {
+        currentTick++;
+        Iterator<Map.Entry<UUID, Summary>> iterator = pending.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<UUID, Summary> entry = iterator.next();
+            if (entry.getValue().sendAt > currentTick) {
+                continue;
+            }
+            iterator.remove();
+            Player player = plugin.getServer().getPlayer(entry.getKey());
+            if (player == null) {
+                continue;
+            }
+            // The flush runs on the global thread; on Folia the player's own thread sends the summary
+            Summary summary = entry.getValue();
+            if (plugin.getTaskScheduler().isOwnedByCurrentThread(player)) {
+                send(player, summary);
+            } else {
+                plugin.getTaskScheduler().runForEntity(player, () -> send(player, summary));
+            }
+        }
+
+        if (pending.isEmpty()) {
+            stopTask();
+        }
+    }
+
+    private void send(Player player, Summary summary) {
+        MessageUtil messages = plugin.getMessageUtil();
+        String amount = summary.reward > 0 ? plugin.getEconomyManager().format(summary.reward) : null;
+
+        if (summary.crops > 0 && amount != null) {
+            messages.sendSummary(player, "harvest-summary",
+                    "{crops}", String.valueOf(summary.crops), "{amount}", amount);
+        } else if (summary.crops > 0) {
+            messages.sendSummary(player, "harvest-summary-no-reward",
+                    "{crops}", String.valueOf(summary.crops));
+        } else if (amount != null) {
+            messages.sendSummary(player, "economy-reward", "{amount}", amount);
+        }
+    }
+
+    private void startTask() {
+        if (task != null) {
+            return;
+        }
+        task = plugin.getTaskScheduler().runGlobalTimer(this::tick, 1L, 1L);
+    }
+
+    private void stopTask() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+    }
+
+    private static final class Summary {
+
+        private final long sendAt;
+        private int crops;
+        private double reward;
+
+        private Summary(long sendAt) {
+            this.sendAt = sendAt;
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.cropplus.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A message split once into literal text and {@code {placeholder}} segments.
+ * <p>
+ * Rendering appends the segments to a reused per-thread StringBuilder and
+ * matches placeholders by plain comparison, with no regex or intermediate
+ * strings, so the only allocation per message is the final String.
+ */
+public final class MessageTemplate {
+
+    private static final ThreadLocal<StringBuilder> BUILDER = ThreadLocal.withInitial(() -> new StringBuilder(128));
+
+    // literals.length == placeholders.length + 1; literal i comes before placeholder i
+    private final String[] literals;
+    private final String[] placeholders;
+    private final String plain;
+
+    private MessageTemplate(String[] literals, String[] placeholders) {
+        this.literals = literals;
+        this.placeholders = placeholders;
+        this.plain = placeholders.length == 0 ? literals[0] : null;
+    }
+
+    /**
+     * Compile a message. Colour codes should already be translated.
+     */
+    public static MessageTemplate compile(String message) {
+        List<String> literals = new ArrayList<>();
+        List<String> placeholders = new ArrayList<>();
+
+        int literalStart = 0;
+        int open = message.indexOf('{');
+        while (open >= 0) {
+            int close = message.indexOf('}', open + 1);
+            if (close < 0) {
+                break;
+            }
+            // A nested '{' means the first one was plain text
+            int nested = message.indexOf('{', open + 1);
+            if (nested >= 0 && nested < close) {
+                open = nested;
+                continue;
+            }
+            literals.add(message.substring(literalStart, open));
+            placeholders.add(message.substring(open, close + 1));
+            literalStart = close + 1;
+            open = message.indexOf('{', literalStart);
+        }
+        literals.add(message.substring(literalStart));
+
+        return new MessageTemplate(literals.toArray(new String[0]), placeholders.toArray(new String[0]));
+    }
+
+    public boolean isEmpty() {
+        return plain != null && plain.isEmpty();
+    }
+
+    /**
+     * Render the message.
+     *
+     * @param prefix       text to put in front, or null
+     * @param replacements pairs of placeholder (including braces) and value
+     */
+    public String render(String prefix, String... replacements) {
+        if (plain != null) {
+            return prefix == null ? plain : prefix.concat(plain);
+        }
+
+        StringBuilder builder = BUILDER.get();
+        builder.setLength(0);
+        if (prefix != null) {
+            builder.append(prefix);
+        }
+        for (int i = 0; i < placeholders.length; i++) {
+            builder.append(literals[i]);
+            String value = lookup(placeholders[i], replacements);
+            builder.append(value != null ? value : placeholders[i]);
+        }
+        builder.append(literals[placeholders.length]);
+        return builder.toString();
+    }
+
+    private static String lookup(String placeholder, String[] replacements) {
+        for (int i = 0; i < replacements.length - 1; i += 2) {
+            String key = replacements[i];
+            if (key == placeholder || key.equals(placeholder)) {
+                return replacements[i + 1];
+            }
+        }
+        return null;
+    }
+}
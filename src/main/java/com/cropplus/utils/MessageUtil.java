@@ -1,31 +1,37 @@
 package com.cropplus.utils;
 
 import com.cropplus.CropPlus;
+import com.cropplus.config.CropPlusSettings;
+import net.md_5.bungee.api.ChatMessageType;
+import net.md_5.bungee.api.chat.TextComponent;
 import org.bukkit.ChatColor;
 import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+
+import java.util.HashMap;
+import java.util.Map;
 
 public class MessageUtil {
     
     private final CropPlus plugin;
+    private final MessageAggregator aggregator;
+    
+    // Compiled templates, rebuilt whenever the settings snapshot changes
+    private final Map<String, MessageTemplate> templates = new HashMap<>();
+    private CropPlusSettings templateSettings;
+    private volatile String prefix;
     
     public MessageUtil(CropPlus plugin) {
         this.plugin = plugin;
+        this.aggregator = new MessageAggregator(plugin);
     }
     
     public void sendMessage(CommandSender sender, String messageKey) {
-        String message = plugin.getConfigManager().getMessage(messageKey);
-        sendRawMessage(sender, message);
+        sendTemplate(sender, getTemplate(messageKey));
     }
     
     public void sendMessage(CommandSender sender, String messageKey, String... replacements) {
-        String message = plugin.getConfigManager().getMessage(messageKey);
-        
-        // Apply replacements in pairs (placeholder, value)
-        for (int i = 0; i < replacements.length - 1; i += 2) {
-            message = message.replace(replacements[i], replacements[i + 1]);
-        }
-        
-        sendRawMessage(sender, message);
+        sendTemplate(sender, getTemplate(messageKey), replacements);
     }
     
     public void sendRawMessage(CommandSender sender, String message) {
@@ -33,13 +39,61 @@ public class MessageUtil {
             return;
         }
         
-        String prefix = plugin.getConfigManager().getMessage("prefix");
-        String fullMessage = prefix + message;
-        
-        // Color the message
-        fullMessage = ChatColor.translateAlternateColorCodes('&', fullMessage);
+        refreshTemplates();
+        sender.sendMessage(prefix + colorize(message));
+    }
+    
+    /**
+     * Tell a player about harvested crops, merged into a summary if aggregation is enabled.
+     */
+    public void notifyHarvest(Player player, int amount, String cropName) {
+        if (plugin.getConfigManager().isMessageAggregationEnabled()) {
+            aggregator.addHarvest(player, amount);
+        } else {
+            sendMessage(player, "crop-harvested", "{amount}", String.valueOf(amount), "{crop}", cropName);
+        }
+    }
+    
+    /**
+     * Tell a player about a finished mass harvest, merged into a summary if aggregation is enabled.
+     */
+    public void notifyMassHarvest(Player player, int amount) {
+        if (plugin.getConfigManager().isMessageAggregationEnabled()) {
+            aggregator.addHarvest(player, amount);
+        } else {
+            sendMessage(player, "mass-harvest-success", "{amount}", String.valueOf(amount));
+        }
+    }
+    
+    /**
+     * Tell a player about money they earned, merged into a summary if aggregation is enabled.
+     */
+    public void notifyReward(Player player, double amount) {
+        if (plugin.getConfigManager().isMessageAggregationEnabled()) {
+            aggregator.addReward(player, amount);
+        } else {
+            sendMessage(player, "economy-reward", "{amount}", plugin.getEconomyManager().format(amount));
+        }
+    }
+    
+    /**
+     * Send a summary message, on the action bar if configured.
+     */
+    void sendSummary(Player player, String messageKey, String... replacements) {
+        if (!plugin.getConfigManager().isSummaryOnActionBar()) {
+            sendMessage(player, messageKey, replacements);
+            return;
+        }
         
-        sender.sendMessage(fullMessage);
+        MessageTemplate template = getTemplate(messageKey);
+        if (!template.isEmpty()) {
+            String message = template.render(null, replacements);
+            player.spigot().sendMessage(ChatMessageType.ACTION_BAR, TextComponent.fromLegacyText(message));
+        }
+    }
+    
+    public MessageAggregator getAggregator() {
+        return aggregator;
     }
     
     public String colorize(String message) {
@@ -49,4 +103,44 @@ public class MessageUtil {
     public String stripColor(String message) {
         return ChatColor.stripColor(message);
     }
-}
\ No newline at end of file
+    
+    private void sendTemplate(CommandSender sender, MessageTemplate template, String... replacements) {
+        if (template.isEmpty()) {
+            return;
+        }
+        
+        sender.sendMessage(template.render(prefix, replacements));
+    }
+    
+    /**
+     * Get the compiled form of a message, with colour codes already translated.
+     */
+    private synchronized MessageTemplate getTemplate(String messageKey) {
+        refreshTemplates();
+        
+        MessageTemplate template = templates.get(messageKey);
+        if (template == null) {
+            // Unknown key: getMessage logs it once and we cache the fallback text
+            template = MessageTemplate.compile(colorize(plugin.getConfigManager().getMessage(messageKey)));
+            templates.put(messageKey, template);
+        }
+        return template;
+    }
+    
+    /**
+     * Compile every message up front when the config has been (re)loaded.
+     */
+    private synchronized void refreshTemplates() {
+        CropPlusSettings settings = plugin.getConfigManager().getSettings();
+        if (settings == templateSettings) {
+            return;
+        }
+        
+        templates.clear();
+        for (Map.Entry<String, String> entry : settings.getMessages().entrySet()) {
+            templates.put(entry.getKey(), MessageTemplate.compile(colorize(entry.getValue())));
+        }
+        templateSettings = settings;
+        prefix = colorize(plugin.getConfigManager().getMessage("prefix"));
+    }
+}
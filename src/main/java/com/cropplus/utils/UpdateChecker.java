@@ -1,7 +1,6 @@
 package com.cropplus.utils;
 
 import com.cropplus.CropPlus;
-import org.bukkit.scheduler.BukkitRunnable;
 
 import java.io.BufferedReader;
 import java.io.IOException;
@@ -22,16 +21,13 @@ public class UpdateChecker {
     }
     
     public void checkForUpdates() {
-        new BukkitRunnable() {
-            @Override
-            public void run() {
-                try {
-                    checkVersion();
-                } catch (IOException e) {
-                    plugin.getLogger().warning("Could not check for updates: " + e.getMessage());
-                }
+        plugin.getTaskScheduler().runAsync(() -> {
+            try {
+                checkVersion();
+            } catch (IOException e) {
+                plugin.getLogger().warning("Could not check for updates: " + e.getMessage());
             }
-        }.runTaskAsynchronously(plugin);
+        });
     }
     
     private void checkVersion() throws IOException {
@@ -60,12 +56,8 @@ public class UpdateChecker {
                 
                 // Simple version parsing (in real implementation, parse JSON)
                 // For now, just log that we checked
-                new BukkitRunnable() {
-                    @Override
-                    public void run() {
-                        plugin.getLogger().info("Update check completed. Current version: " + currentVersion);
-                    }
-                }.runTask(plugin);
+                plugin.getTaskScheduler().runGlobal(() -> 
+                    plugin.getLogger().info("Update check completed. Current version: " + currentVersion));
             }
         } catch (Exception e) {
             // Silently fail - update checking is not critical
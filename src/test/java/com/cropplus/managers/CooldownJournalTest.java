@@ -0,0 +1,162 @@
+package com.cropplus.managers;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+class CooldownJournalTest {
+
+    // The on-disk format, written by hand to set up what a crash leaves behind
+    private static final int MAGIC = 0x43504A31;
+    private static final int HEADER_SIZE = 8;
+    private static final int RECORD_SIZE = 32;
+    private static final int TYPE_SHIFT = 56;
+
+    private static final long RETENTION = TimeUnit.DAYS.toMillis(1);
+    private static final Logger LOGGER = Logger.getLogger(CooldownJournalTest.class.getName());
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void replaysCompactedJournal() throws IOException {
+        Path file = dir.resolve("cooldowns.journal");
+        UUID player = UUID.randomUUID();
+        UUID world = UUID.randomUUID();
+        long now = System.currentTimeMillis();
+
+        CooldownJournal journal = open(file);
+        journal.load();
+        journal.append(CooldownJournal.CROP, world, 42L, now - 5);
+        // Enough superseded records that the flush compacts the file
+        int records = CooldownJournal.COMPACT_SLACK + 16;
+        for (int i = 0; i < records; i++) {
+            journal.append(CooldownJournal.GLOBAL, player, 0L, now - records + i);
+        }
+        journal.flush();
+        journal.close();
+
+        ByteBuffer header = readBytes(file, 0, HEADER_SIZE);
+        assertEquals(HEADER_SIZE, header.getInt(4), "header points back at the front");
+        assertEquals(0L, readBytes(file, HEADER_SIZE + 2 * RECORD_SIZE, RECORD_SIZE).getLong(24),
+                     "only the two live records are left");
+
+        CooldownJournal.State state = replay(file);
+        assertEquals(2, state.size());
+        assertEquals(now - 1, state.global.get(player));
+        assertEquals(now - 5, state.crops.get(world).get(42L, -1L));
+    }
+
+    @Test
+    void replaysAppendedCopyWhenHeaderStillPointsAtIt() throws IOException {
+        Path file = dir.resolve("cooldowns.journal");
+        UUID stale = UUID.randomUUID();
+        UUID live = UUID.randomUUID();
+        UUID later = UUID.randomUUID();
+        long now = System.currentTimeMillis();
+
+        // A crash while the copy at the front was being written: the front holds
+        // a mix of old records, and the header still points at the appended copy
+        int copyStart = HEADER_SIZE + 4 * RECORD_SIZE;
+        ByteBuffer bytes = ByteBuffer.allocate(copyStart + 2 * RECORD_SIZE);
+        bytes.putInt(0, MAGIC);
+        bytes.putInt(4, copyStart);
+        for (int i = 0; i < 4; i++) {
+            putRecord(bytes, HEADER_SIZE + i * RECORD_SIZE, stale, 0L, CooldownJournal.GLOBAL, now - 10 + i);
+        }
+        putRecord(bytes, copyStart, live, 0L, CooldownJournal.GLOBAL, now - 3);
+        putRecord(bytes, copyStart + RECORD_SIZE, live, 0L, CooldownJournal.MASS_HARVEST, now - 2);
+        Files.write(file, bytes.array());
+
+        CooldownJournal journal = open(file);
+        CooldownJournal.State state = journal.load();
+        assertEquals(2, state.size());
+        assertEquals(now - 3, state.global.get(live));
+        assertEquals(now - 2, state.massHarvest.get(live));
+        assertFalse(state.global.containsKey(stale));
+
+        // New records go after the copy and are read back with it
+        journal.append(CooldownJournal.GLOBAL, later, 0L, now - 1);
+        journal.close();
+
+        state = replay(file);
+        assertEquals(3, state.size());
+        assertEquals(now - 3, state.global.get(live));
+        assertEquals(now - 1, state.global.get(later));
+    }
+
+    @Test
+    void ignoresTornLastRecord() throws IOException {
+        Path file = dir.resolve("cooldowns.journal");
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        UUID torn = UUID.randomUUID();
+        UUID later = UUID.randomUUID();
+        long now = System.currentTimeMillis();
+
+        // Two whole records, then one cut off before its type and timestamp were written
+        ByteBuffer bytes = ByteBuffer.allocate(HEADER_SIZE + 2 * RECORD_SIZE + 20);
+        bytes.putInt(0, MAGIC);
+        putRecord(bytes, HEADER_SIZE, first, 0L, CooldownJournal.GLOBAL, now - 3);
+        putRecord(bytes, HEADER_SIZE + RECORD_SIZE, second, 0L, CooldownJournal.GLOBAL, now - 2);
+        int tornOffset = HEADER_SIZE + 2 * RECORD_SIZE;
+        bytes.putLong(tornOffset, torn.getMostSignificantBits());
+        bytes.putLong(tornOffset + 8, torn.getLeastSignificantBits());
+        bytes.putInt(tornOffset + 16, 7);
+        Files.write(file, bytes.array());
+
+        CooldownJournal journal = open(file);
+        CooldownJournal.State state = journal.load();
+        assertEquals(2, state.size());
+        assertEquals(now - 3, state.global.get(first));
+        assertEquals(now - 2, state.global.get(second));
+        assertFalse(state.global.containsKey(torn));
+
+        // The next record takes the torn one's place
+        journal.append(CooldownJournal.GLOBAL, later, 0L, now - 1);
+        journal.close();
+
+        state = replay(file);
+        assertEquals(3, state.size());
+        assertEquals(now - 1, state.global.get(later));
+        assertFalse(state.global.containsKey(torn));
+    }
+
+    private static CooldownJournal open(Path file) {
+        return new CooldownJournal(file, LOGGER, type -> RETENTION);
+    }
+
+    private static CooldownJournal.State replay(Path file) throws IOException {
+        CooldownJournal journal = open(file);
+        CooldownJournal.State state = journal.load();
+        journal.close();
+        return state;
+    }
+
+    private static void putRecord(ByteBuffer bytes, int offset, UUID id, long key, int type, long time) {
+        bytes.putLong(offset, id.getMostSignificantBits());
+        bytes.putLong(offset + 8, id.getLeastSignificantBits());
+        bytes.putLong(offset + 16, key);
+        bytes.putLong(offset + 24, ((long) type << TYPE_SHIFT) | time);
+    }
+
+    private static ByteBuffer readBytes(Path file, int offset, int length) throws IOException {
+        ByteBuffer bytes = ByteBuffer.allocate(length);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            channel.read(bytes, offset);
+        }
+        return bytes.flip();
+    }
+}